@@ -17,4 +17,26 @@ public @interface Hook {
 	 * The scope of the hook for this method.
 	 */
 	String value();
+
+	/**
+	 * If true, the hook is registered with {@code HookOptions.coalescing} set,
+	 * so a call that is still waiting to run when its object changes again
+	 * will see the newer state rather than being followed by another call.
+	 */
+	boolean coalesce() default false;
+
+	/**
+	 * The ordering the hook requires among its calls when the bosk runs hooks concurrently.
+	 * Corresponds to {@code HookOrdering}.
+	 */
+	Ordering ordering() default Ordering.PER_SCOPE;
+
+	/**
+	 * Mirrors {@code HookOrdering}, which this module can't refer to.
+	 */
+	enum Ordering {
+		PER_SCOPE,
+		PER_HOOK,
+		GLOBAL
+	}
 }
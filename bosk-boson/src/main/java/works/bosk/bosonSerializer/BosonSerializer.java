@@ -118,7 +118,11 @@ public class BosonSerializer extends StateTreeSerializer {
 				@Override
 				public Catalog<E> fromRepresentation(Collection<MapEntry<E>> representation) {
 					// TODO: validate ids?
-					return Catalog.of(representation.stream().map(MapEntry::value));
+					Catalog.Builder<E> builder = Catalog.builder();
+					for (var entry : representation) {
+						builder.add(entry.value());
+					}
+					return builder.build();
 				}
 			})
 		));
@@ -3,31 +3,49 @@ package works.bosk;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import works.bosk.BoskConfig.HookExecution;
+import works.bosk.BoskConfig.HookQueueLimit;
+import works.bosk.BoskConfig.HookQueueOverflowPolicy;
 import works.bosk.BoskConfig.TenancyModel;
 import works.bosk.BoskConfig.TenancyModel.Explicit;
 import works.bosk.BoskConfig.TenancyModel.Fixed;
 import works.bosk.BoskConfig.TenancyModel.None;
 import works.bosk.BoskConfig.TenancyModel.Persistent;
+import works.bosk.BoskConfig.UpdateStrategy;
 import works.bosk.BoskContext.Context;
 import works.bosk.BoskContext.Tenant;
 import works.bosk.BoskContext.Tenant.Established;
@@ -35,24 +53,37 @@ import works.bosk.BoskContext.Tenant.TenantId;
 import works.bosk.BoskDriver.EntireState;
 import works.bosk.BoskDriver.EntireState.MultiTree;
 import works.bosk.BoskDriver.EntireState.SingleTree;
+import works.bosk.BoskDriver.Update;
+import works.bosk.BoskDriver.Update.ConditionalCreation;
+import works.bosk.BoskDriver.Update.ConditionalDeletion;
+import works.bosk.BoskDriver.Update.ConditionalReplacement;
+import works.bosk.BoskDriver.Update.Deletion;
+import works.bosk.BoskDriver.Update.Replacement;
 import works.bosk.ReferenceUtils.CatalogRef;
 import works.bosk.ReferenceUtils.ListingRef;
 import works.bosk.ReferenceUtils.SideTableRef;
 import works.bosk.annotations.Hook;
 import works.bosk.annotations.ReferencePath;
 import works.bosk.dereferencers.Dereferencer;
+import works.bosk.dereferencers.DereferencerWarmUp;
+import works.bosk.dereferencers.Graft;
+import works.bosk.dereferencers.IdSource;
 import works.bosk.dereferencers.PathCompiler;
+import works.bosk.exceptions.HookQueueFullException;
 import works.bosk.exceptions.InvalidTypeException;
 import works.bosk.exceptions.NoReadSessionException;
 import works.bosk.exceptions.NonexistentReferenceException;
 import works.bosk.exceptions.NotYetImplementedException;
 import works.bosk.exceptions.ReferenceBindingException;
+import works.bosk.exceptions.RevisionUnavailableException;
 import works.bosk.util.Classes;
 
 import static java.lang.Thread.holdsLock;
-import static java.util.Collections.unmodifiableCollection;
+import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.requireNonNull;
 import static java.util.UUID.randomUUID;
+import static works.bosk.BoskConfig.UpdateStrategy.OPTIMISTIC;
+import static works.bosk.Path.isParameterSegment;
 import static works.bosk.Path.parameterNameFromSegment;
 import static works.bosk.ReferenceUtils.rawClass;
 import static works.bosk.TypeValidation.validateType;
@@ -96,13 +127,18 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 	private final Identifier instanceID = Identifier.from(randomUUID().toString());
 	private final BoskContext context;
 	private final TenancyModel tenancyModel;
+	private final UpdateStrategy updateStrategy;
+	private final HookQueueLimit hookQueueLimit;
+	private final HookExecution hookExecution;
 
 	private final IngressDriver ingressDriver;
 	private final LocalDriver localDriver;
 	private final RootRef rootRef;
 	private final ThreadLocal<EntireState<R>> rootSnapshot = new ThreadLocal<>();
+	private final ScopedValue<EntireState<R>> scopedSnapshot = ScopedValue.newInstance();
 	private final HookRegistrar hookRegistrar;
-	private final Queue<HookRegistration<?>> hooks = new ConcurrentLinkedQueue<>();
+	private final HookIndex<HookRegistration<?>> hookIndex = new HookIndex<>();
+	private final Queue<CatalogIndex<?, ?>> catalogIndexes = new ConcurrentLinkedQueue<>();
 	private final PathCompiler pathCompiler;
 
 	private final Thread.Builder hookThreadBuilder = Thread
@@ -113,10 +149,19 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 	/**
 	 * Mutable state.
 	 * This is null before the constructor finishes.
+	 * Updated only by {@link LocalDriver}, using compare-and-set because
+	 * different tenants can be updated concurrently.
 	 * <p>
 	 * TODO: Whenever this is updated, check that it's consistent with the tenancy model
 	 */
-	@Nullable private volatile EntireState<R> currentState;
+	private final AtomicReference<@Nullable EntireState<R>> currentState = new AtomicReference<>();
+
+	/**
+	 * Recent values of {@link #currentState}, or null if the bosk doesn't keep any.
+	 * When present, it's also the lock that puts publications in revision order.
+	 */
+	private final @Nullable SnapshotHistory<R> snapshotHistory;
+	private final Map<Path, Duration> dereferencerWarmUpTimes;
 
 	/**
 	 * @param name                A distinctive identifier string. The bosk framework doesn't use this, so there are no requirements on this string: it can be anything that identifies the object.
@@ -135,11 +180,21 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 		this.localDriver = new LocalDriver(requireNonNull(defaultStateFunction));
 		this.rootRef = new RootRef(rootType);
 		this.tenancyModel = boskConfig.tenancyModel();
+		this.updateStrategy = boskConfig.updateStrategy();
+		this.hookQueueLimit = boskConfig.hookQueueLimit();
+		this.hookExecution = boskConfig.hookExecution();
+		this.snapshotHistory = boskConfig.snapshotRetention().isEnabled()
+			? new SnapshotHistory<>(boskConfig.snapshotRetention())
+			: null;
 		try {
 			validateType(rootType);
 		} catch (InvalidTypeException e) {
 			throw new IllegalArgumentException("Invalid root type " + rootType + ": " + e.getMessage(), e);
 		}
+		this.dereferencerWarmUpTimes = switch (boskConfig.dereferencerCompilation()) {
+			case LAZY -> Map.of();
+			case EAGER -> warmUpDereferencers(rootType);
+		};
 
 		Supplier<Context> initialContextSupplier = switch (tenancyModel) {
 			case None _ -> Context::emptyWithNoTenant;
@@ -155,12 +210,20 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 		// initialization to have completed already.
 		//
 		this.ingressDriver = new IngressDriver(requireNonNull(boskConfig.driverFactory().build(boskInfo, this.localDriver)));
-		this.hookRegistrar = requireNonNull(boskConfig.registrarFactory().build(boskInfo, this::localRegisterHook));
+		this.hookRegistrar = requireNonNull(boskConfig.registrarFactory().build(boskInfo, new LocalRegistrar()));
 
 		try {
-			this.currentState = ingressDriver
+			EntireState<R> initialState = ingressDriver
 				.initialState(rootRef.targetClass())
 				.cast(rootRef.targetClass()); // Double check!
+			if (snapshotHistory == null) {
+				this.currentState.set(initialState);
+			} else {
+				synchronized (snapshotHistory) {
+					this.currentState.set(initialState);
+					snapshotHistory.record(initialState);
+				}
+			}
 		} catch (InvalidTypeException | IOException | InterruptedException e) {
 			throw new IllegalArgumentException("Error computing initial state: " + e.getMessage(), e);
 		}
@@ -169,11 +232,33 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 		boskInfo.boskRef().set(this); // @SuppressWarnings("this-escape")
 	}
 
+	private Map<Path, Duration> warmUpDereferencers(Type rootType) {
+		long start = System.nanoTime();
+		Map<Path, Duration> result;
+		try {
+			result = DereferencerWarmUp.warmUp(pathCompiler, rootType);
+		} catch (InvalidTypeException e) {
+			throw new IllegalArgumentException("Invalid root type " + rootType + ": " + e.getMessage(), e);
+		}
+		LOGGER.info("Warmed up {} dereferencers for bosk \"{}\" in {}", result.size(), name, Duration.ofNanos(System.nanoTime() - start));
+		return result;
+	}
+
 	@Override
 	public String name() {
 		return this.name;
 	}
 
+	/**
+	 * @return the time taken to compile each path when this bosk was created
+	 * with {@link BoskConfig.DereferencerCompilation#EAGER EAGER} dereferencer compilation,
+	 * in the order they were enumerated; otherwise, an empty map.
+	 * Paths compiled earlier by another bosk with the same root type take almost no time.
+	 */
+	public Map<Path, Duration> dereferencerWarmUpTimes() {
+		return dereferencerWarmUpTimes;
+	}
+
 	@Override
 	public Identifier instanceID() {
 		return this.instanceID;
@@ -203,7 +288,7 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 	}
 
 	public EntireState<R> entireState() {
-		return switch (rootSnapshot.get()) {
+		return switch (currentSnapshot()) {
 			case null -> throw new NoReadSessionException("Cannot get state outside of a read session");
 			case EntireState<R> s -> s;
 		};
@@ -337,6 +422,28 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 			}
 		}
 
+		@Override
+		public void submitBatch(List<? extends Update> updates) {
+			List<Update> batch = List.copyOf(updates);
+			try (var _ = setupMDC(name(), instanceID())) {
+				for (Update update : batch) {
+					if (update instanceof Deletion<?> d && d.target().path().isEmpty()) {
+						throw new IllegalArgumentException("Cannot delete root object");
+					}
+				}
+				assertTenantEstablished();
+				for (Update update : batch) {
+					assertCorrectBosk(update.target());
+					switch (update) {
+						case ConditionalReplacement<?> u -> assertCorrectBosk(u.precondition());
+						case ConditionalDeletion<?> u -> assertCorrectBosk(u.precondition());
+						default -> { }
+					}
+				}
+				downstream.submitBatch(batch);
+			}
+		}
+
 		@Override
 		public <RR extends StateTreeNode> EntireState<RR> initialState(Class<RR> rootType) throws InvalidTypeException, IOException, InterruptedException {
 			try (var _ = setupMDC(name(), instanceID())) {
@@ -381,7 +488,7 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 	 * When it comes to hooks, this provides three guarantees:
 	 *
 	 * <ol><li>
-	 * Updates submitted to this driver are applied to the Bosk state in the order they were submitted.
+	 * Updates submitted to this driver for the same tenant are applied to the Bosk state in the order they were submitted.
 	 * </li><li>
 	 * Hooks are run sequentially: no hook begins until the previous one finishes.
 	 * </li><li>
@@ -390,6 +497,12 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 	 * even if those hooks themselves submit more updates.
 	 * </li></ol>
 	 * <p>
+	 * The number of hook calls waiting to run can be limited by a {@link HookQueueLimit},
+	 * which applies backpressure to submitters without changing the order in which hooks run.
+	 * <p>
+	 * Under {@link HookExecution#CONCURRENT CONCURRENT} execution, the second and third guarantees
+	 * are relaxed to the {@link HookOrdering} declared by each hook.
+	 * <p>
 	 * Satisfying all of these simultaneously is tricky, especially because we can't just put
 	 * "synchronized" on the submit methods because that could cause deadlock. We also don't
 	 * want to require a background thread for hook processing, partly on principle: if our
@@ -401,8 +514,41 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 	 */
 	private final class LocalDriver implements BoskDriver {
 		final DefaultStateFunction<R> initialStateFunction;
-		final Deque<Runnable> hookExecutionQueue = new ConcurrentLinkedDeque<>();
+		final Deque<PendingHook<?>> hookExecutionQueue = new ConcurrentLinkedDeque<>();
 		final Semaphore hookExecutionPermit = new Semaphore(1);
+		/**
+		 * Under {@link Explicit} tenancy, each tenant hashes to one of these,
+		 * so the number of locks stays fixed no matter how many tenants come and go.
+		 */
+		final Object[] tenantLockStripes = newLockStripes();
+		final AtomicInteger hookQueueDepth = new AtomicInteger();
+		final AtomicInteger hookQueueHighWaterMark = new AtomicInteger();
+		final ReentrantLock hookQueueSpaceLock = new ReentrantLock();
+		final Condition hookQueueHasSpace = hookQueueSpaceLock.newCondition();
+
+		/**
+		 * The most recently queued call for each hook and object,
+		 * for {@link HookOptions#coalescing coalescing hooks} and {@link HookQueueOverflowPolicy#COALESCE COALESCE}.
+		 */
+		final Map<PendingHook.Key, PendingHook<?>> latestPendingHooks = new ConcurrentHashMap<>();
+
+		/**
+		 * Bound while a hook is running, so updates it submits aren't held back by the {@link HookQueueLimit}.
+		 * Also bound on threads doing work on a hook's behalf
+		 * through a {@link ReadSession} the hook opened; see {@link ReadSession#fromHook}.
+		 */
+		static final ScopedValue<Boolean> RUNNING_HOOK = ScopedValue.newInstance();
+
+		/**
+		 * Under {@link HookExecution#CONCURRENT CONCURRENT} execution, the last call dispatched
+		 * for each ordering key; the next call with the same key runs after it completes.
+		 *
+		 * @see #laneKey
+		 */
+		final Map<Object, CompletableFuture<Void>> hookLanes = new ConcurrentHashMap<>();
+		static final Object GLOBAL_LANE = new Object();
+
+		static final int MAX_OPTIMISTIC_ATTEMPTS = 3;
 
 		public LocalDriver(DefaultStateFunction<R> initialStateFunction) {
 			this.initialStateFunction = initialStateFunction;
@@ -416,7 +562,12 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 
 		@Override
 		public <T> void submitReplacement(Reference<T> target, T newValue) {
-			synchronized (this) {
+			awaitHookQueueCapacity();
+			if (updateStrategy == OPTIMISTIC) {
+				commitOptimistically(target, root -> graftReplacement(root, target, newValue));
+				return;
+			}
+			synchronized (updateLock()) {
 				R priorRoot = currentRoot();
 				if (!tryGraftReplacement(target, newValue)) {
 					return;
@@ -428,7 +579,8 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 
 		@Override
 		public <T> void submitConditionalCreation(Reference<T> target, T newValue) {
-			synchronized (this) {
+			awaitHookQueueCapacity();
+			synchronized (updateLock()) {
 				boolean preconditionsSatisfied;
 				try (ReadSession _ = supersedingReadSession()) {
 					preconditionsSatisfied = !target.exists();
@@ -446,7 +598,12 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 
 		@Override
 		public <T> void submitDeletion(Reference<T> target) {
-			synchronized (this) {
+			awaitHookQueueCapacity();
+			if (updateStrategy == OPTIMISTIC) {
+				commitOptimistically(target, root -> graftDeletion(root, target));
+				return;
+			}
+			synchronized (updateLock()) {
 				R priorRoot = currentRoot();
 				if (!tryGraftDeletion(target)) {
 					return;
@@ -464,7 +621,8 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 
 		@Override
 		public <T> void submitConditionalReplacement(Reference<T> target, T newValue, Reference<Identifier> precondition, Identifier requiredValue) {
-			synchronized (this) {
+			awaitHookQueueCapacity();
+			synchronized (updateLock()) {
 				boolean preconditionsSatisfied;
 				try (ReadSession _ = supersedingReadSession()) {
 					preconditionsSatisfied = Objects.equals(precondition.valueIfExists(), requiredValue);
@@ -482,7 +640,8 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 
 		@Override
 		public <T> void submitConditionalDeletion(Reference<T> target, Reference<Identifier> precondition, Identifier requiredValue) {
-			synchronized (this) {
+			awaitHookQueueCapacity();
+			synchronized (updateLock()) {
 				boolean preconditionsSatisfied;
 				try (ReadSession _ = supersedingReadSession()) {
 					preconditionsSatisfied = Objects.equals(precondition.valueIfExists(), requiredValue);
@@ -498,14 +657,197 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 			drainQueueIfAllowed();
 		}
 
+		/**
+		 * Computes the new root from a snapshot of the current one without holding the lock,
+		 * so threads updating the same tree don't wait for each other's {@link Dereferencer} calls.
+		 * The lock is held just long enough to confirm the snapshot is still current,
+		 * publish the new root, and queue hooks, so hooks are still queued in the order
+		 * the updates take effect.
+		 * If another update took effect in the meantime, we try again with a fresh snapshot;
+		 * if that keeps happening, we stop being optimistic and compute the new root under the lock.
+		 *
+		 * @param graft computes the new root from the old one, returning null if the update is to be ignored
+		 */
+		private void commitOptimistically(Reference<?> target, Function<@Nullable R, @Nullable R> graft) {
+			if (!tryCommitOptimistically(target, graft)) {
+				LOGGER.debug("Giving up on optimistic update of {}", target);
+				synchronized (updateLock()) {
+					R priorRoot = currentRoot();
+					R newRoot = graft.apply(priorRoot);
+					if (newRoot == null) {
+						return;
+					}
+					publish(newRoot);
+					queueHooks(target, priorRoot);
+				}
+			}
+			drainQueueIfAllowed();
+		}
+
+		/**
+		 * @return false if every attempt conflicted with another update
+		 */
+		private boolean tryCommitOptimistically(Reference<?> target, Function<@Nullable R, @Nullable R> graft) {
+			for (int attempt = 1; attempt <= MAX_OPTIMISTIC_ATTEMPTS; attempt++) {
+				R priorRoot = currentRoot();
+				R newRoot = graft.apply(priorRoot);
+				if (newRoot == null) {
+					// Ignoring the update is consistent with the snapshot, so there's nothing to check
+					return true;
+				}
+				synchronized (updateLock()) {
+					if (currentRoot() == priorRoot) {
+						publish(newRoot);
+						queueHooks(target, priorRoot);
+						return true;
+					}
+				}
+				LOGGER.debug("Optimistic update of {} conflicted on attempt {}", target, attempt);
+			}
+			return false;
+		}
+
+		/**
+		 * Applies all the updates to a private working root, then publishes
+		 * the result in a single step, so no {@link ReadSession} can observe
+		 * a partially applied batch.
+		 * Consecutive unconditional updates are grafted together using
+		 * {@link PathCompiler#withAll}, so their shared ancestors are rebuilt only once.
+		 * Hooks are then triggered once, by comparing the roots from before and after
+		 * the entire batch, starting from the deepest node that encloses every update
+		 * that may have taken effect.
+		 */
+		@Override
+		public void submitBatch(List<? extends Update> updates) {
+			awaitHookQueueCapacity();
+			synchronized (updateLock()) {
+				R priorRoot = currentRoot();
+				R workingRoot = priorRoot;
+				Reference<?> enclosingTarget = null;
+				List<Graft> pendingGrafts = new ArrayList<>();
+				for (Update update : updates) {
+					boolean mayHaveEffect;
+					switch (update) {
+						case Replacement<?> u -> {
+							pendingGrafts.add(Graft.replacement(u.target(), u.newValue()));
+							mayHaveEffect = true;
+						}
+						case Deletion<?> u -> {
+							pendingGrafts.add(Graft.deletion(u.target()));
+							mayHaveEffect = true;
+						}
+						default -> {
+							// Preconditions must see the effects of all preceding updates
+							workingRoot = graftAll(workingRoot, pendingGrafts);
+							pendingGrafts.clear();
+							R newRoot = tryApply(workingRoot, update);
+							mayHaveEffect = (newRoot != null);
+							if (mayHaveEffect) {
+								workingRoot = newRoot;
+							}
+						}
+					}
+					if (mayHaveEffect) {
+						enclosingTarget = (enclosingTarget == null)
+							? update.target()
+							: commonAncestor(enclosingTarget, update.target());
+					}
+				}
+				workingRoot = graftAll(workingRoot, pendingGrafts);
+				if (enclosingTarget == null || workingRoot == priorRoot) {
+					LOGGER.debug("Batch of {} updates had no effect", updates.size());
+					return;
+				}
+				publish(workingRoot);
+				queueHooks(enclosingTarget, priorRoot);
+			}
+			drainQueueIfAllowed();
+		}
+
+		private @Nullable R graftAll(@Nullable R root, List<Graft> grafts) {
+			assert holdsLock(updateLock());
+			if (grafts.isEmpty()) {
+				return root;
+			} else if (root == null) {
+				// Bosk is still initializing; there's nothing to share, so just do them one at a time
+				R result = null;
+				for (Graft graft : grafts) {
+					@SuppressWarnings("unchecked")
+					Reference<Object> target = (Reference<Object>) graft.target();
+					R newRoot = graft.isDeletion()
+						? graftDeletion(result, target)
+						: graftReplacement(result, target, graft.newValue());
+					if (newRoot != null) {
+						result = newRoot;
+					}
+				}
+				return result;
+			}
+			LOGGER.debug("Applying {} grafts", grafts.size());
+			try {
+				@SuppressWarnings("unchecked")
+				R newRoot = (R) requireNonNull(pathCompiler.withAll(root, grafts));
+				return newRoot;
+			} catch (InvalidTypeException e) {
+				throw new AssertionError("Grafting vetted paths should not throw InvalidTypeException", e);
+			}
+		}
+
+		/**
+		 * @return the new root, or null if the update was ignored
+		 */
+		private @Nullable R tryApply(@Nullable R root, Update update) {
+			assert holdsLock(updateLock());
+			@SuppressWarnings("unchecked")
+			Reference<Object> target = (Reference<Object>) update.target();
+			return switch (update) {
+				case Replacement<?> u -> graftReplacement(root, target, u.newValue());
+				case ConditionalReplacement<?> u ->
+					Objects.equals(refValueIfExists(u.precondition(), root), u.requiredValue())
+						? graftReplacement(root, target, u.newValue())
+						: null;
+				case ConditionalCreation<?> u ->
+					refValueIfExists(target, root) == null
+						? graftReplacement(root, target, u.newValue())
+						: null;
+				case Deletion<?> _ -> graftDeletion(root, target);
+				case ConditionalDeletion<?> u ->
+					Objects.equals(refValueIfExists(u.precondition(), root), u.requiredValue())
+						? graftDeletion(root, target)
+						: null;
+			};
+		}
+
+		private Reference<?> commonAncestor(Reference<?> a, Reference<?> b) {
+			Path aPath = a.path();
+			Path bPath = b.path();
+			int limit = Math.min(aPath.length(), bPath.length());
+			int commonLength = 0;
+			while (commonLength < limit && aPath.segment(commonLength).equals(bPath.segment(commonLength))) {
+				commonLength++;
+			}
+			if (commonLength == aPath.length()) {
+				return a;
+			} else if (commonLength == bPath.length()) {
+				return b;
+			}
+			try {
+				return rootReference().then(Object.class, aPath.truncatedTo(commonLength));
+			} catch (InvalidTypeException e) {
+				throw new AssertionError("Every reference should support a target class of Object", e);
+			}
+		}
+
 		/**
 		 * Run the given hook on every existing object that matches its scope.
 		 */
 		void triggerEverywhere(HookRegistration<?> reg) {
-			synchronized (this) {
-				forEachRoot(root ->
-					triggerQueueingOfHooks(rootReference(), null, root, reg));
-			}
+			forEachRoot(_ -> {
+				synchronized (updateLock()) {
+					// Read the root again now that we hold the lock, so no update can slip in between
+					triggerQueueingOfHooks(rootReference(), null, currentRoot(), reg);
+				}
+			});
 			drainQueueIfAllowed();
 		}
 
@@ -515,7 +857,7 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 		 */
 		private void forEachRoot(Consumer<R> action) {
 			try (var _ = context.withTenantTemporarilyIgnored()) {
-				switch (currentState) {
+				switch (currentState.get()) {
 					case null -> throw new IllegalStateException("Bosk state is not yet initialized");
 					case SingleTree<R>(var root) -> {
 						var tenant = switch (tenancyModel) {
@@ -541,62 +883,136 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 		 * @return false if the update was ignored
 		 */
 		private <T> boolean tryGraftReplacement(Reference<T> target, T newValue) {
-			assert holdsLock(this);
-			Dereferencer dereferencer = dereferencerFor(target);
-			try {
-				LOGGER.debug("Applying replacement at {}", target);
-				R oldRoot = currentRoot();
-				@SuppressWarnings("unchecked")
-				R newRoot = (R) requireNonNull(dereferencer.with(oldRoot, target, requireNonNull(newValue)));
-				currentState = switch (currentState) {
-					case null -> EntireState.just(newRoot);
-					case SingleTree<R> _ -> EntireState.just(newRoot);
-					case MultiTree<R> m -> m.with((TenantId)context().getTenant(), newRoot);
-				};
-				if (LOGGER.isTraceEnabled()) {
-					LOGGER.trace("Replacement at {} changed root from {} to {}",
-						target,
-						System.identityHashCode(oldRoot),
-						System.identityHashCode(newRoot));
-				}
-				return true;
-			} catch (NonexistentEntryException e) {
-				LOGGER.debug("Ignoring replacement of {}", target, e);
+			R newRoot = graftReplacement(currentRoot(), target, newValue);
+			if (newRoot == null) {
 				return false;
 			}
+			publish(newRoot);
+			return true;
 		}
 
 		/**
 		 * @return false if the update was ignored
 		 */
 		private <T> boolean tryGraftDeletion(Reference<T> target) {
-			assert holdsLock(this);
+			R newRoot = graftDeletion(currentRoot(), target);
+			if (newRoot == null) {
+				return false;
+			}
+			publish(newRoot);
+			return true;
+		}
+
+		/**
+		 * @return the new root, or null if the update was ignored
+		 */
+		private <T> @Nullable R graftReplacement(@Nullable R oldRoot, Reference<T> target, T newValue) {
+			assert updateStrategy == OPTIMISTIC || holdsLock(updateLock());
+			Dereferencer dereferencer = dereferencerFor(target);
+			LOGGER.debug("Applying replacement at {}", target);
+			@SuppressWarnings("unchecked")
+			R newRoot = (R) dereferencer.withIfExists(oldRoot, target, requireNonNull(newValue));
+			if (newRoot == null) {
+				LOGGER.debug("Ignoring replacement of {}", target);
+				return null;
+			}
+			if (LOGGER.isTraceEnabled()) {
+				LOGGER.trace("Replacement at {} changed root from {} to {}",
+					target,
+					System.identityHashCode(oldRoot),
+					System.identityHashCode(newRoot));
+			}
+			return newRoot;
+		}
+
+		/**
+		 * @return the new root, or null if the update was ignored
+		 */
+		private <T> @Nullable R graftDeletion(@Nullable R oldRoot, Reference<T> target) {
+			assert updateStrategy == OPTIMISTIC || holdsLock(updateLock());
 			Path targetPath = target.path();
 			assert !targetPath.isEmpty();
+			if (oldRoot == null) {
+				throw new IllegalStateException("Cannot delete from uninitialized state");
+			}
 			Dereferencer dereferencer = dereferencerFor(target);
-			try {
-				LOGGER.debug("Applying deletion at {}", target);
-				R oldRoot = currentRoot();
-				@SuppressWarnings("unchecked")
-				R newRoot = (R) requireNonNull(dereferencer.without(oldRoot, target));
-				currentState = switch (currentState) {
-					case null -> throw new IllegalStateException("Cannot delete from uninitialized state");
+			LOGGER.debug("Applying deletion at {}", target);
+			@SuppressWarnings("unchecked")
+			R newRoot = (R) dereferencer.withoutIfExists(oldRoot, target);
+			if (newRoot == null) {
+				LOGGER.debug("Ignoring deletion of {}", target);
+				return null;
+			}
+			if (LOGGER.isTraceEnabled()) {
+				LOGGER.trace("Deletion at {} changed root from {} to {}",
+					target,
+					System.identityHashCode(oldRoot),
+					System.identityHashCode(newRoot));
+			}
+			return newRoot;
+		}
+
+		private void publish(R newRoot) {
+			assert holdsLock(updateLock());
+			if (snapshotHistory == null) {
+				swapInRoot(newRoot);
+			} else {
+				synchronized (snapshotHistory) {
+					// Holding the history lock keeps concurrent tenants' revisions in the order they took effect
+					snapshotHistory.record(swapInRoot(newRoot));
+				}
+			}
+			for (CatalogIndex<?, ?> index : catalogIndexes) {
+				advanceIndex(index, newRoot);
+			}
+		}
+
+		/**
+		 * Under {@link Explicit} tenancy, other tenants' updates can be published concurrently,
+		 * so we retry until we've swapped in our root without clobbering theirs.
+		 *
+		 * @return the new {@link EntireState}
+		 */
+		private EntireState<R> swapInRoot(R newRoot) {
+			EntireState<R> priorState, newState;
+			do {
+				priorState = currentState.get();
+				newState = switch (priorState) {
+					case null -> EntireState.just(newRoot);
 					case SingleTree<R> _ -> EntireState.just(newRoot);
 					case MultiTree<R> m -> m.with((TenantId)context().getTenant(), newRoot);
 				};
-				if (LOGGER.isTraceEnabled()) {
-					LOGGER.trace("Deletion at {} changed root from {} to {}",
-						target,
-						System.identityHashCode(oldRoot),
-						System.identityHashCode(newRoot));
-				}
-				return true;
-			} catch (NonexistentEntryException e) {
-				LOGGER.debug("Ignoring deletion of {}", target, e);
-				return false;
+			} while (!currentState.compareAndSet(priorState, newState));
+			return newState;
+		}
+
+		/**
+		 * Updates to different tenants affect disjoint trees, so under {@link Explicit} tenancy,
+		 * each tenant uses one of the {@link #tenantLockStripes}, and updates to one tenant
+		 * wait for those of another only if both tenants hash to the same stripe.
+		 * Otherwise, there's just one tree, and this driver itself is the lock.
+		 */
+		private Object updateLock() {
+			if (tenancyModel instanceof Explicit && context().getTenant() instanceof TenantId tenant) {
+				return tenantLockStripes[Math.floorMod(tenant.hashCode(), tenantLockStripes.length)];
+			} else {
+				return this;
 			}
 		}
 
+		private static Object[] newLockStripes() {
+			Object[] result = new Object[TENANT_LOCK_STRIPES];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = new Object();
+			}
+			return result;
+		}
+
+		/**
+		 * Enough that unrelated tenants rarely contend, without taking much memory per bosk.
+		 */
+		private static final int TENANT_LOCK_STRIPES = 64;
+
 		private Dereferencer dereferencerFor(Reference<?> ref) {
 			// We could just pull it out of ref, if it's a ReferenceImpl, but we can't assume that
 			return compileVettedPath(ref.path());
@@ -604,7 +1020,8 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 
 		private <T> void queueHooks(Reference<T> target, @Nullable R priorRoot) {
 			R rootForHook = currentRoot();
-			for (HookRegistration<?> reg : hooks) {
+			// Only hooks whose scope overlaps the target can possibly be triggered
+			for (HookRegistration<?> reg : hookIndex.candidatesFor(target.path())) {
 				triggerQueueingOfHooks(target, priorRoot, rootForHook, reg);
 			}
 		}
@@ -619,30 +1036,188 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 			var tenant = context.getEstablishedTenant();
 			MapValue<String> attributes = context.getAttributes();
 			reg.triggerAction(priorRoot, rootForHook, target, changedRef -> {
+				PendingHook.Key key = new PendingHook.Key(reg, changedRef, tenant);
+				// Until the queue fills up, ordinary hooks skip latestPendingHooks entirely, so they don't pay for it.
+				// The call that fills it is registered, so later ones can coalesce into it.
+				boolean overflowCoalesces = hookQueueLimit.overflowPolicy() == HookQueueOverflowPolicy.COALESCE;
+				int depthBefore = hookQueueDepth.get();
+				boolean coalesce = reg.isCoalescing() || (overflowCoalesces && depthBefore >= hookQueueLimit.capacity());
+				boolean register = coalesce || (overflowCoalesces && depthBefore + 1 >= hookQueueLimit.capacity());
+				if (coalesce) {
+					PendingHook<?> existing = latestPendingHooks.get(key);
+					if (existing != null && existing.tryAdvanceTo(rootForHook)) {
+						LOGGER.debug("Hook: coalesce {}({}) due to {}", reg.name, changedRef, target);
+						return;
+					}
+				}
 				LOGGER.debug("Hook: queue {}({}) due to {}", reg.name, changedRef, target);
-				hookExecutionQueue.addLast(() -> {
-					// We use two nested try statements here so that the "finally" clause runs within the diagnostic scope
-					try (var _ = context.withOnly(attributes);
-						var _ = context.withTenant(tenant)
-					) {
-						try (ReadSession _ = new ReadSession(EntireState.just(rootForHook))) {
-							LOGGER.debug("Hook: RUN {}({})", reg.name, changedRef);
+				PendingHook<S> pending = new PendingHook<>(key, reg, changedRef, tenant, attributes, rootForHook);
+				if (register) {
+					latestPendingHooks.put(key, pending);
+				}
+				hookExecutionQueue.addLast(pending);
+				int depth = hookQueueDepth.incrementAndGet();
+				if (depth > hookQueueHighWaterMark.get()) {
+					hookQueueHighWaterMark.accumulateAndGet(depth, Math::max);
+				}
+			});
+		}
+
+		/**
+		 * A queued call to a hook for one changed object.
+		 */
+		private final class PendingHook<S> implements Runnable {
+			final Key key;
+			final HookRegistration<S> reg;
+			final Reference<S> changedRef;
+			final Established tenant;
+			final MapValue<String> attributes;
+			private R rootForHook; // Guarded by this
+			private boolean started; // Guarded by this
+
+			record Key(HookRegistration<?> reg, Reference<?> changedRef, Established tenant) { }
+
+			PendingHook(Key key, HookRegistration<S> reg, Reference<S> changedRef, Established tenant, MapValue<String> attributes, R rootForHook) {
+				this.key = key;
+				this.reg = reg;
+				this.changedRef = changedRef;
+				this.tenant = tenant;
+				this.attributes = attributes;
+				this.rootForHook = rootForHook;
+			}
+
+			/**
+			 * @return false if it's too late because the hook has already started
+			 */
+			synchronized boolean tryAdvanceTo(R newRoot) {
+				if (started) {
+					return false;
+				} else {
+					rootForHook = newRoot;
+					return true;
+				}
+			}
+
+			@Override
+			public void run() {
+				R root;
+				synchronized (this) {
+					started = true;
+					root = rootForHook;
+				}
+				latestPendingHooks.remove(key, this);
+				// We use two nested try statements here so that the "finally" clause runs within the diagnostic scope
+				try (var _ = context.withOnly(attributes);
+					var _ = context.withTenant(tenant)
+				) {
+					try (ReadSession _ = new ReadSession(EntireState.just(root))) {
+						LOGGER.debug("Hook: RUN {}({})", reg.name, changedRef);
+						ScopedValue.where(RUNNING_HOOK, true).call(() -> {
 							reg.hook.onChanged(changedRef);
+							return null;
+						});
+					} catch (InterruptedException e) {
+						LOGGER.warn("Bosk hook \"{}\" was interrupted; proceeding", reg.name(), e);
+					} catch (RuntimeException e) {
+						LOGGER.error("Bosk hook \"{}\" terminated with an exception, which usually indicates a bug. State updates may have been lost", reg.name(), e);
+
+						// Note that we don't catch Error. The practical reason is to allow users to write
+						// unit tests that throw AssertionError from hooks, but the bigger reason is that
+						// Errors indicate that something has gone dreadfully wrong, and we probably should
+						// not attempt to continue.
+					} finally {
+						LOGGER.debug("Hook: end {}({})", reg.name, changedRef);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Applies the {@link HookQueueLimit} before an update is submitted from outside a hook.
+		 * Note that this must not be called while holding {@link #updateLock()},
+		 * since the hooks we might wait for could need it.
+		 */
+		private void awaitHookQueueCapacity() {
+			if (hookQueueDepth.get() < hookQueueLimit.capacity() || RUNNING_HOOK.isBound()) {
+				return;
+			}
+			switch (hookQueueLimit.overflowPolicy()) {
+				case COALESCE -> {
+					// The update goes ahead; its hooks are coalesced as they're queued
+				}
+				case FAIL -> throw new HookQueueFullException("Hook queue for " + Bosk.this + " is full with " + hookQueueDepth.get() + " pending hooks");
+				case BLOCK -> {
+					boolean interrupted = false;
+					while (hookQueueDepth.get() >= hookQueueLimit.capacity()) {
+						// If nobody else is running hooks, we can make room ourselves
+						drainQueueIfAllowed();
+						hookQueueSpaceLock.lock();
+						try {
+							if (hookQueueDepth.get() >= hookQueueLimit.capacity()) {
+								// The timeout is a safety net in case the thread draining the queue gives up
+								hookQueueHasSpace.await(HOOK_QUEUE_RECHECK_MS, TimeUnit.MILLISECONDS);
+							}
 						} catch (InterruptedException e) {
-							LOGGER.warn("Bosk hook \"{}\" was interrupted; proceeding", reg.name(), e);
-						} catch (RuntimeException e) {
-							LOGGER.error("Bosk hook \"{}\" terminated with an exception, which usually indicates a bug. State updates may have been lost", reg.name(), e);
-
-							// Note that we don't catch Error. The practical reason is to allow users to write
-							// unit tests that throw AssertionError from hooks, but the bigger reason is that
-							// Errors indicate that something has gone dreadfully wrong, and we probably should
-							// not attempt to continue.
+							// Like a lock acquisition, waiting for capacity is not interruptible
+							interrupted = true;
 						} finally {
-							LOGGER.debug("Hook: end {}({})", reg.name, changedRef);
+							hookQueueSpaceLock.unlock();
 						}
 					}
-				});
-			});
+					if (interrupted) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		}
+
+		private static final long HOOK_QUEUE_RECHECK_MS = 100;
+
+		/**
+		 * A hook call counts against the {@link HookQueueLimit} until it's dequeued to run,
+		 * or, under {@link HookExecution#CONCURRENT CONCURRENT} execution, until it finishes running.
+		 */
+		private void releaseHookQueueSlot() {
+			if (hookQueueDepth.decrementAndGet() == hookQueueLimit.capacity() - 1) {
+				hookQueueSpaceLock.lock();
+				try {
+					hookQueueHasSpace.signalAll();
+				} finally {
+					hookQueueSpaceLock.unlock();
+				}
+			}
+		}
+
+		/**
+		 * Runs {@code pending} on its own virtual thread once every earlier call with the same
+		 * {@link #laneKey ordering key} has finished.
+		 */
+		private void dispatchConcurrently(PendingHook<?> pending) {
+			Object laneKey = laneKey(pending);
+			Runnable task = () -> {
+				try {
+					pending.run();
+				} catch (Error e) {
+					// There's no submitter waiting to receive this, so this is our only chance to report it
+					LOGGER.error("Bosk hook \"{}\" terminated with an error", pending.reg.name(), e);
+					throw e;
+				} finally {
+					releaseHookQueueSlot();
+				}
+			};
+			CompletableFuture<Void> lane = hookLanes.compute(laneKey, (_, predecessor) -> (predecessor == null)
+				? CompletableFuture.runAsync(task, hookExecutor)
+				: predecessor.exceptionally(_ -> null).thenRunAsync(task, hookExecutor));
+			// Registered outside compute, because it could run immediately, and it modifies hookLanes
+			lane.whenComplete((_, _) -> hookLanes.remove(laneKey, lane));
+		}
+
+		private Object laneKey(PendingHook<?> pending) {
+			return switch (pending.reg.ordering()) {
+				case PER_SCOPE -> pending.key;
+				case PER_HOOK -> pending.reg;
+				case GLOBAL -> GLOBAL_LANE;
+			};
 		}
 
 		/**
@@ -676,7 +1251,13 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 			do {
 				if (hookExecutionPermit.tryAcquire()) {
 					try {
-						for (Runnable ex = hookExecutionQueue.pollFirst(); ex != null; ex = hookExecutionQueue.pollFirst()) {
+						for (PendingHook<?> ex = hookExecutionQueue.pollFirst(); ex != null; ex = hookExecutionQueue.pollFirst()) {
+							if (hookExecution == HookExecution.CONCURRENT) {
+								// Dispatching in queue order is what keeps each lane in order
+								dispatchConcurrently(ex);
+								continue;
+							}
+							releaseHookQueueSlot();
 							// Run the task in a separate virtual thread to prevent ThreadLocals from propagating.
 							// This is slightly tragic, because usually ThreadLocal propagation works just the
 							// way we'd want, but not always. Given the choices "always, sometimes, never", if
@@ -740,12 +1321,22 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 	}
 
 	/**
-	 * The unadorned version of {@link #hookRegistrar()}.{@link HookRegistrar#registerHook(String, Reference, BoskHook) registerHook}
-	 * that simply registers the hook as given.
+	 * The unadorned version of {@link #hookRegistrar()} that simply registers hooks as given.
 	 */
-	private <T> void localRegisterHook(String name, @NonNull Reference<T> scope, @NonNull BoskHook<T> action) {
-		HookRegistration<T> reg = new HookRegistration<>(name, requireNonNull(scope), requireNonNull(action));
-		hooks.add(reg);
+	private final class LocalRegistrar implements HookRegistrar {
+		@Override
+		public <T> void registerHook(String name, Reference<T> scope, BoskHook<T> hook) {
+			localRegisterHook(new HookRegistration<>(name, requireNonNull(scope), requireNonNull(hook)));
+		}
+
+		@Override
+		public <T> void registerHook(String name, Reference<T> scope, BoskHook<T> hook, HookOptions options) {
+			localRegisterHook(new HookRegistration<>(name, requireNonNull(scope), requireNonNull(hook), requireNonNull(options)));
+		}
+	}
+
+	private <T> void localRegisterHook(HookRegistration<T> reg) {
+		hookIndex.add(reg.scope().path(), reg);
 		localDriver.triggerEverywhere(reg);
 	}
 
@@ -812,13 +1403,71 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 		HookScanner.registerHooks(receiver, this.rootReference(), this.hookRegistrar(), lookup);
 	}
 
+	/**
+	 * Creates a {@link CatalogIndex} that groups the entries of the given catalog
+	 * by the value of {@code keyFunction}, so they can be looked up without scanning the catalog.
+	 * The index is kept up to date as the catalog changes.
+	 *
+	 * <p>
+	 * {@code keyFunction} should be a pure function of the entry,
+	 * returning a key with well-behaved {@link Object#equals equals} and {@link Object#hashCode hashCode},
+	 * or null if the entry should not be indexed.
+	 *
+	 * @param catalog the catalog to index; must not have any parameters
+	 * @throws IllegalArgumentException if {@code catalog} has parameters
+	 */
+	public <E extends Entity, K> CatalogIndex<E, K> registerIndex(CatalogReference<E> catalog, Function<? super E, ? extends @Nullable K> keyFunction) {
+		if (catalog.path().numParameters() != 0) {
+			throw new IllegalArgumentException("Index catalog must not have parameters: " + catalog);
+		}
+		CatalogIndex<E, K> result = new CatalogIndex<>(catalog, keyFunction, context, () -> refValueIfExists(catalog, currentRoot()));
+		catalogIndexes.add(result);
+		synchronized (localDriver.updateLock()) {
+			// Under the lock, so we can't overwrite a newer version that an update has just published
+			if (currentState.get() instanceof SingleTree<R>(var root)) {
+				// Multi-tenant trees are indexed as each tenant is updated or looked up
+				advanceIndex(result, root);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a {@link DerivedValue} that computes {@code function} of the node {@code ref} refers to,
+	 * and remembers the result for as long as that same node object remains in use.
+	 * Parts of the state tree unaffected by an update keep their derived values,
+	 * so expensive derivations are recomputed only where something changed.
+	 */
+	public <T, V> DerivedValue<T, V> derived(Reference<T> ref, Function<? super T, ? extends V> function) {
+		return new DerivedValue<>(ref, function);
+	}
+
+	private <E extends Entity> void advanceIndex(CatalogIndex<E, ?> index, @Nullable R root) {
+		index.advanceTo(refValueIfExists(index.catalogReference(), root));
+	}
+
 	@Override
 	public Bosk<R> bosk() {
 		return this;
 	}
 
 	public Collection<HookRegistration<?>> allRegisteredHooks() {
-		return unmodifiableCollection(hooks);
+		return unmodifiableList(hookIndex.all());
+	}
+
+	/**
+	 * @return the number of hook calls currently waiting to run
+	 * @see BoskConfig.HookQueueLimit
+	 */
+	public int hookQueueDepth() {
+		return localDriver.hookQueueDepth.get();
+	}
+
+	/**
+	 * @return the largest {@link #hookQueueDepth()} this bosk has reached
+	 */
+	public int hookQueueHighWaterMark() {
+		return localDriver.hookQueueHighWaterMark.get();
 	}
 
 	// Inner class can't be a record
@@ -826,11 +1475,17 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 		private final String name;
 		private final Reference<S> scope;
 		private final BoskHook<S> hook;
+		private final HookOptions options;
 
 		public HookRegistration(String name, Reference<S> scope, BoskHook<S> hook) {
+			this(name, scope, hook, HookOptions.DEFAULT);
+		}
+
+		public HookRegistration(String name, Reference<S> scope, BoskHook<S> hook, HookOptions options) {
 			this.name = name;
 			this.scope = scope;
 			this.hook = hook;
+			this.options = options;
 		}
 
 		/**
@@ -873,6 +1528,18 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 			return this.scope;
 		}
 
+		public HookOptions options() {
+			return this.options;
+		}
+
+		public boolean isCoalescing() {
+			return this.options.coalescing();
+		}
+
+		public HookOrdering ordering() {
+			return this.options.ordering();
+		}
+
 		@Override
 		public boolean equals(Object o) {
 			if (o == null || getClass() != o.getClass()) return false;
@@ -890,7 +1557,7 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 
 		@Override
 		public String toString() {
-			return "Bosk.HookRegistration(name=" + this.name() + ", scope=" + this.scope() + ", hook=" + this.hook + ")";
+			return "Bosk.HookRegistration(name=" + this.name() + ", scope=" + this.scope() + ", hook=" + this.hook + ", options=" + this.options + ")";
 		}
 	}
 
@@ -927,50 +1594,51 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 			// could correspond to changed objects and then recursing.
 			//
 			Reference<EnumerableByIdentifier<?>> containerRef = effectiveScope.truncatedBeforeFirstParameter();
-			EnumerableByIdentifier<?> priorContainer = refValueIfExists(containerRef, priorRoot);
-			EnumerableByIdentifier<?> newContainer = refValueIfExists(containerRef, newRoot);
-
-			// TODO: If priorContainer == newContainer, can we stop immediately?
+			@SuppressWarnings("unchecked")
+			EnumerableByIdentifier<Object> priorContainer = (EnumerableByIdentifier<Object>) refValueIfExists(containerRef, priorRoot);
+			@SuppressWarnings("unchecked")
+			EnumerableByIdentifier<Object> newContainer = (EnumerableByIdentifier<Object>) refValueIfExists(containerRef, newRoot);
 
-			// Process any deleted items first. This can allow the hook to free some memory
+			// The diff visits only the entries that differ, and does nothing at all
+			// if the container itself is unchanged.
+			//
+			// Any deleted items are processed first. This can allow the hook to free some memory
 			// that can be used by subsequent hooks.
-			// We do them in reverse order just because that's likely to be the preferred
+			// They come in reverse order just because that's likely to be the preferred
 			// order for cleanup activities.
 			//
 			// TODO: Should we actually process the hooks themselves in reverse order for the same reason?
 			//
-			if (priorContainer != null) {
-				List<Identifier> priorIDs = priorContainer.ids();
-				for (Identifier id : priorIDs.reversed()) {
-					if (newContainer == null || newContainer.get(id) == null) {
-						triggerCascade(effectiveScope.boundTo(id), priorRoot, newRoot, action);
-					}
+			ContainerDiffs.forEachChange(priorContainer, newContainer, new EntryChangeVisitor<>() {
+				@Override
+				public void removed(Identifier id, Object priorValue) {
+					triggerCascade(effectiveScope.boundTo(id), priorRoot, newRoot, action);
 				}
-			}
 
-			// Then process updated items
-			//
-			if (newContainer != null) {
-				for (Identifier id : newContainer.ids()) {
-					if (priorContainer == null || priorContainer.get(id) != newContainer.get(id)) {
-						triggerCascade(effectiveScope.boundTo(id), priorRoot, newRoot, action);
-					}
+				@Override
+				public void changed(Identifier id, Object priorValue, Object newValue) {
+					triggerCascade(effectiveScope.boundTo(id), priorRoot, newRoot, action);
 				}
-			}
+
+				@Override
+				public void added(Identifier id, Object newValue) {
+					triggerCascade(effectiveScope.boundTo(id), priorRoot, newRoot, action);
+				}
+			});
 		}
 	}
 
 	@Nullable
+	@SuppressWarnings("unchecked")
 	private <V> V refValueIfExists(Reference<V> containerRef, @Nullable R root) {
 		if (root == null) {
 			return null;
 		} else {
-			// TODO: This would be less cumbersome if we could apply a Reference to an arbitrary root object.
-			// For now, References only apply to the current ReadSession, so we need a new ReadSession every time
-			// we want to change roots.
-			try (var _ = new ReadSession(EntireState.just(root))) {
-				return containerRef.valueIfExists();
-			}
+			// Rather than opening a ReadSession on the given root, we use the dereferencer directly
+			Dereferencer dereferencer = (containerRef instanceof DefiniteReference<V> d)
+				? d.dereferencer()
+				: compileVettedPath(containerRef.path());
+			return (V) dereferencer.getIfExists(root, containerRef);
 		}
 	}
 
@@ -979,35 +1647,51 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 	 * of a {@code ReadSession}, {@link Reference#value()} will throw {@link
 	 * IllegalStateException}.
 	 *
+	 * <p>
+	 * See also {@link #inReadSession}, which does the same job using a {@link ScopedValue}
+	 * and is a better fit for virtual threads.
+	 *
 	 * @author pdoyle
 	 */
 	public final class ReadSession implements AutoCloseable {
 		final EntireState<R> originalRoot;
 		final EntireState<R> snapshot; // Mostly for adopt()
 
+		/**
+		 * Whether this session was opened inside a hook, or adopted from one that was.
+		 * Work handed to other threads through such a session is done on the hook's behalf,
+		 * so the hook may be waiting for it; if the {@link HookQueueLimit} held back
+		 * that work's updates, the hook would never finish, and the queue would never drain.
+		 */
+		final boolean fromHook;
+
 		/**
 		 * Creates a {@link ReadSession} for the current thread. If one is already
 		 * active on this thread, the new nested one will be equivalent and has
 		 * no effect.
 		 */
 		private ReadSession() {
+			fromHook = LocalDriver.RUNNING_HOOK.isBound();
 			originalRoot = rootSnapshot.get();
-			if (originalRoot == null) {
-				snapshot = currentState;
+			EntireState<R> existing = (originalRoot == null) ? scopedSnapshotIfBound() : originalRoot;
+			if (existing == null) {
+				snapshot = currentState.get();
 				if (snapshot == null) {
 					throw new IllegalStateException("Bosk constructor has not yet finished; cannot create a ReadSession");
 				}
 				rootSnapshot.set(snapshot);
 				LOGGER.trace("New {}", this);
 			} else {
-				// Inner sessions use the same snapshot as outer sessions
-				snapshot = originalRoot;
+				// Inner sessions use the same snapshot as outer sessions,
+				// including those established by inReadSession
+				snapshot = existing;
 				LOGGER.trace("Nested {}", this);
 			}
 		}
 
 		private ReadSession(ReadSession toAdopt) {
 			EntireState<R> snapshotToInherit = requireNonNull(toAdopt.snapshot);
+			fromHook = toAdopt.fromHook;
 			originalRoot = rootSnapshot.get();
 			if (originalRoot == null) {
 				rootSnapshot.set(this.snapshot = snapshotToInherit);
@@ -1029,6 +1713,7 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 		 * even if there's already one active on the current thread.
 		 */
 		ReadSession(@NonNull EntireState<R> state) {
+			fromHook = LocalDriver.RUNNING_HOOK.isBound();
 			originalRoot = rootSnapshot.get();
 			snapshot = requireNonNull(state);
 			rootSnapshot.set(snapshot);
@@ -1076,6 +1761,102 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 			return new ReadSession(this);
 		}
 
+		/**
+		 * @return a task that runs {@code task} in a session {@link #adopt() adopted} from this one,
+		 * on whatever thread it ends up running on
+		 */
+		public Runnable wrap(Runnable task) {
+			return () -> {
+				try (var _ = adopt()) {
+					if (fromHook) {
+						ScopedValue.where(LocalDriver.RUNNING_HOOK, true).run(task);
+					} else {
+						task.run();
+					}
+				}
+			};
+		}
+
+		/**
+		 * @return a task that runs {@code task} in a session {@link #adopt() adopted} from this one,
+		 * on whatever thread it ends up running on
+		 */
+		public <V> Callable<V> wrap(Callable<V> task) {
+			return () -> {
+				try (var _ = adopt()) {
+					if (fromHook) {
+						return ScopedValue.where(LocalDriver.RUNNING_HOOK, true).call(task::call);
+					} else {
+						return task.call();
+					}
+				}
+			};
+		}
+
+		/**
+		 * @return an {@link Executor} that runs tasks on {@code delegate}
+		 * in sessions {@link #adopt() adopted} from this one.
+		 * If this session was opened inside a hook, updates submitted by those tasks
+		 * are exempt from the {@link HookQueueLimit}, just like the hook's own updates.
+		 * The same goes for {@link #wrap} and {@link #newForkJoinPool}.
+		 * @see #wrap(Runnable)
+		 */
+		public Executor executor(Executor delegate) {
+			return task -> delegate.execute(wrap(task));
+		}
+
+		/**
+		 * Creates a pool whose worker threads each {@link #adopt() adopt} this session for their whole lifetime.
+		 * Parallel streams started from a task running in this pool use the pool's workers,
+		 * so they can call {@link Reference#value()} and see the same state as this session:
+		 *
+		 * <blockquote><pre>
+		 * try (var session = bosk.readSession(); var pool = session.newForkJoinPool(parallelism)) {
+		 *     var result = pool.submit(() -&gt; catalog.stream().parallel()
+		 *         .map(e -&gt; e.someRef().value())
+		 *         .toList()
+		 *     ).join();
+		 * }
+		 * </pre></blockquote>
+		 *
+		 * The pool holds this session's snapshot until it is shut down,
+		 * so it should be closed along with the session.
+		 */
+		public ForkJoinPool newForkJoinPool(int parallelism) {
+			return new ForkJoinPool(parallelism, WorkerThread::new, null, false);
+		}
+
+		private final class WorkerThread extends ForkJoinWorkerThread {
+			private @Nullable ReadSession workerSession;
+
+			WorkerThread(ForkJoinPool pool) {
+				super(pool);
+			}
+
+			@Override
+			protected void onStart() {
+				super.onStart();
+				workerSession = adopt();
+			}
+
+			@Override
+			public void run() {
+				if (fromHook) {
+					ScopedValue.where(LocalDriver.RUNNING_HOOK, true).run(super::run);
+				} else {
+					super.run();
+				}
+			}
+
+			@Override
+			protected void onTermination(Throwable exception) {
+				if (workerSession != null) {
+					workerSession.close();
+				}
+				super.onTermination(exception);
+			}
+		}
+
 		@Override
 		public void close() {
 			// TODO: Enforce the closing rules described in readSession javadocs?
@@ -1134,13 +1915,221 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 	 * @see #readSession()
 	 */
 	public final ReadSession supersedingReadSession() {
-		EntireState<R> snapshot = currentState;
+		EntireState<R> snapshot = currentState.get();
 		if (snapshot == null) {
 			throw new IllegalStateException("Bosk constructor has not yet finished; cannot create a ReadSession");
 		}
 		return new ReadSession(snapshot);
 	}
 
+	/**
+	 * Calls {@code op} in a read session, as though it were wrapped in
+	 * <code>try (var _ = bosk.readSession())</code>,
+	 * but with the snapshot held in a {@link ScopedValue} rather than a {@link ThreadLocal}.
+	 *
+	 * <p>
+	 * Setting and restoring a {@code ScopedValue} is cheaper than a {@code ThreadLocal},
+	 * especially for virtual threads,
+	 * and the snapshot is inherited by subtasks forked using a {@code StructuredTaskScope},
+	 * so they all see the same state as {@code op} itself.
+	 *
+	 * <p>
+	 * As with {@link #readSession()}, if a session is already active on the calling thread,
+	 * {@code op} uses that session's snapshot.
+	 * A {@link ReadSession} opened within {@code op} likewise uses the snapshot established here.
+	 *
+	 * @return the value returned by {@code op}
+	 */
+	public final <T, X extends Throwable> T inReadSession(ScopedValue.CallableOp<? extends T, X> op) throws X {
+		EntireState<R> snapshot = rootSnapshot.get();
+		EntireState<R> scoped = scopedSnapshotIfBound();
+		if (snapshot == null) {
+			if (scoped != null) {
+				// Nested sessions use the same snapshot as outer sessions
+				return op.call();
+			}
+			snapshot = currentState.get();
+			if (snapshot == null) {
+				throw new IllegalStateException("Bosk constructor has not yet finished; cannot create a read session");
+			}
+		} else if (snapshot == scoped) {
+			return op.call();
+		}
+		// Either we're starting a new session, or we're promoting the calling thread's
+		// ReadSession into a ScopedValue so that forked subtasks can see it.
+		return ScopedValue.where(scopedSnapshot, snapshot).call(op);
+	}
+
+	/**
+	 * Like {@link #inReadSession(ScopedValue.CallableOp)} for actions that return no value.
+	 */
+	public final void inReadSession(Runnable action) {
+		inReadSession(() -> {
+			action.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Revisions number the successive states of this bosk, starting from zero for its initial state,
+	 * and increasing by one with every update that takes effect.
+	 * They are local to this bosk object, and mean nothing to other replicas of the same bosk.
+	 *
+	 * @return the revision number of the bosk's current state
+	 * @throws IllegalStateException if the bosk was not configured to
+	 * {@link BoskConfig.Builder#retainSnapshots retain snapshots}
+	 */
+	public final long currentRevision() {
+		return requiredHistory().latestRevision();
+	}
+
+	/**
+	 * Like {@link #supersedingReadSession()}, but using the bosk state as of the given revision,
+	 * which must still be retained according to the bosk's {@link BoskConfig.SnapshotRetention}.
+	 *
+	 * @throws RevisionUnavailableException if the given revision has been discarded or doesn't exist yet
+	 * @see #currentRevision()
+	 */
+	public final ReadSession readSessionAt(long revision) {
+		return new ReadSession(requiredVersion(revision).state());
+	}
+
+	/**
+	 * Compares the state as of the given revision with the current state.
+	 * Unchanged parts of the tree are shared between the two,
+	 * so the result can quickly skip any part that is the same object in both.
+	 *
+	 * @throws RevisionUnavailableException if the given revision has been discarded or doesn't exist yet
+	 */
+	public final RevisionDiff changesSince(long revision) {
+		SnapshotHistory.Version<R> prior = requiredVersion(revision);
+		SnapshotHistory.Version<R> current;
+		do {
+			// Only fails if a newer revision evicts the latest one before we can get it
+			current = requiredHistory().versionAt(currentRevision());
+		} while (current == null);
+		return new RevisionDiff(prior, current);
+	}
+
+	/**
+	 * The differences between two revisions of the bosk state,
+	 * as returned by {@link #changesSince}.
+	 * Values are looked up in the tree for the calling thread's tenant, if any.
+	 */
+	public final class RevisionDiff {
+		private final SnapshotHistory.Version<R> prior;
+		private final SnapshotHistory.Version<R> current;
+
+		private RevisionDiff(SnapshotHistory.Version<R> prior, SnapshotHistory.Version<R> current) {
+			this.prior = prior;
+			this.current = current;
+		}
+
+		public long priorRevision() {
+			return prior.revision();
+		}
+
+		public long currentRevision() {
+			return current.revision();
+		}
+
+		/**
+		 * @return true if no update has taken effect between the two revisions
+		 */
+		public boolean isEmpty() {
+			return prior.state() == current.state();
+		}
+
+		/**
+		 * Note that this is an object identity comparison:
+		 * an object that was replaced by an equal one is considered changed.
+		 *
+		 * @return false if {@code ref} refers to the same object in both revisions, or doesn't exist in either.
+		 */
+		public boolean hasChanged(Reference<?> ref) {
+			return !isEmpty() && priorValue(ref) != currentValue(ref);
+		}
+
+		public <T> @Nullable T priorValue(Reference<T> ref) {
+			return refValueIfExists(ref, getRoot(prior.state()));
+		}
+
+		public <T> @Nullable T currentValue(Reference<T> ref) {
+			return refValueIfExists(ref, getRoot(current.state()));
+		}
+
+		/**
+		 * A container that doesn't exist in one of the revisions is treated as empty.
+		 *
+		 * @see Catalog#forEachChangeSince
+		 */
+		public <E extends Entity> void forEachChange(CatalogReference<E> ref, EntryChangeVisitor<Identifier, ? super E> visitor) {
+			if (hasChanged(ref)) {
+				ContainerDiffs.forEachChange(priorValue(ref), currentValue(ref), visitor);
+			}
+		}
+
+		/**
+		 * @see #forEachChange(CatalogReference, EntryChangeVisitor)
+		 * @see Listing#forEachChangeSince
+		 */
+		public <E extends Entity> void forEachChange(ListingReference<E> ref, EntryChangeVisitor<Identifier, ? super ListingEntry> visitor) {
+			if (hasChanged(ref)) {
+				Listing<E> priorListing = priorValue(ref);
+				Listing<E> currentListing = currentValue(ref);
+				ContainerDiffs.forEachChange(
+					(priorListing == null) ? null : priorListing.idMap(),
+					(currentListing == null) ? null : currentListing.idMap(),
+					visitor);
+			}
+		}
+
+		/**
+		 * @see #forEachChange(CatalogReference, EntryChangeVisitor)
+		 * @see SideTable#forEachChangeSince
+		 */
+		public <K extends Entity, V> void forEachChange(SideTableReference<K, V> ref, EntryChangeVisitor<Identifier, ? super V> visitor) {
+			if (hasChanged(ref)) {
+				ContainerDiffs.forEachChange(priorValue(ref), currentValue(ref), visitor);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "RevisionDiff(" + priorRevision() + " -> " + currentRevision() + ")";
+		}
+	}
+
+	private SnapshotHistory<R> requiredHistory() {
+		if (snapshotHistory == null) {
+			throw new IllegalStateException("Bosk " + name + " is not configured to retain snapshots");
+		}
+		return snapshotHistory;
+	}
+
+	private SnapshotHistory.Version<R> requiredVersion(long revision) {
+		SnapshotHistory.Version<R> result = requiredHistory().versionAt(revision);
+		if (result == null) {
+			throw new RevisionUnavailableException(revision);
+		}
+		return result;
+	}
+
+	/**
+	 * The {@link ThreadLocal} takes precedence because {@link ReadSession}s can temporarily
+	 * substitute a different snapshot, as with {@link #supersedingReadSession()} and hooks.
+	 *
+	 * @return the snapshot for the current read session, or null if there isn't one
+	 */
+	private @Nullable EntireState<R> currentSnapshot() {
+		EntireState<R> result = rootSnapshot.get();
+		return (result == null) ? scopedSnapshotIfBound() : result;
+	}
+
+	private @Nullable EntireState<R> scopedSnapshotIfBound() {
+		return scopedSnapshot.isBound() ? scopedSnapshot.get() : null;
+	}
+
 	/**
 	 * A path is "vetted" if we've already called {@link #pathCompiler}.{@link PathCompiler#targetTypeOf} on it.
 	 */
@@ -1389,6 +2378,10 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 	 * A {@link Reference} with no unbound parameters.
 	 */
 	private sealed class DefiniteReference<T> extends ReferenceImpl<T> {
+		/**
+		 * Shared with every reference whose path differs only in its IDs,
+		 * so the call in {@link #valueIfExists} sees just one dereferencer class per path shape.
+		 */
 		private final Dereferencer dereferencer = compileVettedPath(path);
 
 		public DefiniteReference(Path path, Type targetType) {
@@ -1400,16 +2393,14 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 		@SuppressWarnings("unchecked")
 		public T valueIfExists() {
 			assertTenantEstablished();
-			R snapshot = getRoot(rootSnapshot.get());
+			R snapshot = getRoot(currentSnapshot());
 			if (snapshot == null) {
 				throw new NoReadSessionException("No active read session for " + name + " in " + Thread.currentThread());
 			}
-			LOGGER.trace("Snapshot is {}", System.identityHashCode(snapshot));
-			try {
-				return (T) dereferencer().get(snapshot, this);
-			} catch (NonexistentEntryException e) {
-				return null;
+			if (LOGGER.isTraceEnabled()) {
+				LOGGER.trace("Snapshot is {}", System.identityHashCode(snapshot));
 			}
+			return (T) dereferencer.getIfExists(snapshot, this);
 		}
 
 		@Override
@@ -1420,6 +2411,14 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 			}
 		}
 
+		@Override
+		public void forEachValueWithCursor(BiConsumer<T, ReferenceCursor<T>> action) {
+			T value = valueIfExists();
+			if (value != null) {
+				action.accept(value, new DefiniteCursor<>(this));
+			}
+		}
+
 		public Dereferencer dereferencer() {
 			return this.dereferencer;
 		}
@@ -1439,6 +2438,8 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 	 * It should throw {@link InvalidTypeException} at the time the Reference is created.
 	 */
 	private final class IndefiniteReference<T> extends ReferenceImpl<T> {
+		private @Nullable IterationPlan iterationPlan;
+
 		public IndefiniteReference(Path path, Type targetType) {
 			super(path, targetType);
 			assert path.numParameters() >= 1;
@@ -1451,24 +2452,216 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 
 		@Override
 		public void forEachValue(BiConsumer<T, BindingEnvironment> action, BindingEnvironment existingEnvironment) {
-			int firstParameterIndex = path.firstParameterIndex();
-			String parameterName = parameterNameFromSegment(path.segment(firstParameterIndex));
-			Path containerPath = path.truncatedTo(firstParameterIndex);
-			Reference<EnumerableByIdentifier<?>> containerRef;
-			try {
-				containerRef = rootReference().then(enumerableByIdentifierClass(), containerPath);
-			} catch (InvalidTypeException e) {
-				throw new AssertionError("Parameter reference must come after a " + EnumerableByIdentifier.class, e);
+			new Cursor<>(this, (value, cursor) -> action.accept(value, cursor.bindingsFrom(existingEnvironment)))
+				.visitAll();
+		}
+
+		@Override
+		public void forEachValueWithCursor(BiConsumer<T, ReferenceCursor<T>> action) {
+			new Cursor<T>(this, action::accept)
+				.visitAll();
+		}
+
+		IterationPlan iterationPlan() {
+			IterationPlan result = iterationPlan;
+			if (result == null) {
+				// Racy, but plans are immutable, so at worst we compute one more than once
+				iterationPlan = result = new IterationPlan(path);
 			}
-			EnumerableByIdentifier<?> container = containerRef.valueIfExists();
+			return result;
+		}
+	}
+
+	/**
+	 * The dereferencers needed to visit every value of an {@link IndefiniteReference},
+	 * compiled once so that iterating doesn't need to resolve any paths
+	 * or create a {@link Reference} for each value.
+	 */
+	private final class IterationPlan {
+		/**
+		 * The segment number of each parameter, in order.
+		 */
+		final int[] parameterSegments;
+		final String[] parameterNames;
+
+		/**
+		 * Element <code>i</code> finds the container whose entries are bound to parameter <code>i</code>.
+		 */
+		final Dereferencer[] containerDereferencers;
+
+		/**
+		 * Finds each value once all the parameters are bound,
+		 * or null if the values are simply the entries of the last container.
+		 */
+		final @Nullable Dereferencer valueDereferencer;
+
+		IterationPlan(Path path) {
+			int numParameters = path.numParameters();
+			parameterSegments = new int[numParameters];
+			parameterNames = new String[numParameters];
+			containerDereferencers = new Dereferencer[numParameters];
+			for (int segmentNum = path.firstParameterIndex(), p = 0; p < numParameters; segmentNum++) {
+				String segment = path.segment(segmentNum);
+				if (isParameterSegment(segment)) {
+					Path containerPath = path.truncatedTo(segmentNum);
+					Class<?> containerClass;
+					try {
+						containerClass = rawClass(pathCompiler.targetTypeOf(containerPath));
+					} catch (InvalidTypeException e) {
+						throw new AssertionError("Container path should be valid: " + containerPath, e);
+					}
+					if (!EnumerableByIdentifier.class.isAssignableFrom(containerClass)) {
+						throw new AssertionError("Parameter reference must come after a " + EnumerableByIdentifier.class + ": " + path);
+					}
+					parameterSegments[p] = segmentNum;
+					parameterNames[p] = parameterNameFromSegment(segment);
+					containerDereferencers[p] = compileVettedPath(containerPath);
+					p++;
+				}
+			}
+			if (parameterSegments[numParameters - 1] == path.length() - 1) {
+				valueDereferencer = null;
+			} else {
+				valueDereferencer = compileVettedPath(path);
+			}
+		}
+	}
+
+	/**
+	 * Walks an {@link IterationPlan}, binding one parameter at each level.
+	 *
+	 * <p>
+	 * Dereferencers get IDs from the {@link IdSource} they're given,
+	 * so we pass them this cursor, which answers with whatever IDs are currently bound.
+	 * That lets one cursor stand in for every reference the iteration visits.
+	 */
+	private final class Cursor<T> implements IdSource, ReferenceCursor<T> {
+		private final Path path;
+		private final Type targetType;
+		private final IterationPlan plan;
+		private final BiConsumer<T, Cursor<T>> action;
+
+		/**
+		 * Indexed by segment number; null for segments that aren't parameters.
+		 */
+		private final Identifier[] boundIDs;
+
+		/**
+		 * Binds the first parameter, and links to the visitors for the rest.
+		 * These are allocated up front so nested containers don't each need their own.
+		 */
+		private final EntryVisitor firstEntryVisitor;
+
+		private R root;
+
+		Cursor(IndefiniteReference<T> ref, BiConsumer<T, Cursor<T>> action) {
+			this.path = ref.path;
+			this.targetType = ref.targetType;
+			this.plan = ref.iterationPlan();
+			this.action = action;
+			this.boundIDs = new Identifier[path.length()];
+			EntryVisitor visitor = null;
+			for (int i = plan.parameterSegments.length - 1; i >= 0; i--) {
+				visitor = new EntryVisitor(i, visitor);
+			}
+			this.firstEntryVisitor = requireNonNull(visitor);
+		}
+
+		void visitAll() {
+			assertTenantEstablished();
+			root = getRoot(currentSnapshot());
+			if (root == null) {
+				throw new NoReadSessionException("No active read session for " + name + " in " + Thread.currentThread());
+			}
+			visitContainer(firstEntryVisitor);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void visitContainer(EntryVisitor visitor) {
+			var container = (EnumerableByIdentifier<Object>) plan.containerDereferencers[visitor.parameterNum].getIfExists(root, this);
 			if (container != null) {
-				container.ids().forEach(id ->
-					this.boundTo(id).forEachValue(action,
-						existingEnvironment.builder()
-							.bind(parameterName, id)
-							.build()
-					));
+				ContainerDiffs.forEachEntry(container, visitor);
+			}
+		}
+
+		private final class EntryVisitor implements BiConsumer<Identifier, Object> {
+			final int parameterNum;
+			final @Nullable EntryVisitor next;
+
+			EntryVisitor(int parameterNum, @Nullable EntryVisitor next) {
+				this.parameterNum = parameterNum;
+				this.next = next;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public void accept(Identifier id, Object entry) {
+				boundIDs[plan.parameterSegments[parameterNum]] = id;
+				if (next != null) {
+					visitContainer(next);
+				} else if (plan.valueDereferencer == null) {
+					action.accept((T) entry, Cursor.this);
+				} else {
+					T value = (T) plan.valueDereferencer.getIfExists(root, Cursor.this);
+					if (value != null) {
+						action.accept(value, Cursor.this);
+					}
+				}
+			}
+		}
+
+		@Override
+		public Identifier idAt(int segmentNum) {
+			Identifier result = boundIDs[segmentNum];
+			if (result == null) {
+				return Identifier.from(path.segment(segmentNum));
+			} else {
+				return result;
+			}
+		}
+
+		@Override
+		public Identifier parameterValue(String parameterName) {
+			String[] names = plan.parameterNames;
+			for (int i = 0; i < names.length; i++) {
+				if (names[i].equals(parameterName)) {
+					return boundIDs[plan.parameterSegments[i]];
+				}
+			}
+			throw new IllegalArgumentException("No parameter \"" + parameterName + "\" in " + path);
+		}
+
+		@Override
+		public BindingEnvironment bindings() {
+			return bindingsFrom(BindingEnvironment.empty());
+		}
+
+		BindingEnvironment bindingsFrom(BindingEnvironment existingEnvironment) {
+			BindingEnvironment.Builder builder = existingEnvironment.builder();
+			for (int i = 0; i < plan.parameterNames.length; i++) {
+				builder.bind(plan.parameterNames[i], boundIDs[plan.parameterSegments[i]]);
 			}
+			return builder.build();
+		}
+
+		@Override
+		public Reference<T> reference() {
+			return newReference(path.boundBy(bindings()), targetType);
+		}
+	}
+
+	/**
+	 * The cursor for a {@link DefiniteReference}, which visits at most one value.
+	 */
+	private record DefiniteCursor<T>(Reference<T> reference) implements ReferenceCursor<T> {
+		@Override
+		public Identifier parameterValue(String parameterName) {
+			throw new IllegalArgumentException("No parameter \"" + parameterName + "\" in " + reference);
+		}
+
+		@Override
+		public BindingEnvironment bindings() {
+			return BindingEnvironment.empty();
 		}
 	}
 
@@ -1526,10 +2719,15 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 
 	@Nullable
 	final R currentRoot() {
-		return getRoot(currentState);
+		return getRoot(currentState.get());
 	}
 
 	private <RR extends StateTreeNode> @Nullable RR getRoot(EntireState<RR> state) {
+		// Single-tree bosks are the common case, and every Reference.value() comes through here,
+		// so check for them before the pattern switch and without looking up the tenant.
+		if (state instanceof SingleTree<RR> single) {
+			return single.rootNode();
+		}
 		return switch (state) {
 			case null -> null; // Bosk is still initializing
 			case SingleTree<RR>(var r) -> r;
@@ -1547,11 +2745,6 @@ public class Bosk<R extends StateTreeNode> implements BoskInfo<R> {
 		};
 	}
 
-	@SuppressWarnings({"unchecked", "rawtypes"})
-	private static Class<EnumerableByIdentifier<?>> enumerableByIdentifierClass() {
-		return (Class) EnumerableByIdentifier.class;
-	}
-
 	private void assertTenantEstablished() {
 		assert context().getTenant() instanceof Established:
 			"Tenant must be established for driver operations";
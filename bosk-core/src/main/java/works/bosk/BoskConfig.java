@@ -1,5 +1,6 @@
 package works.bosk;
 
+import java.time.Duration;
 import works.bosk.BoskContext.Tenant;
 import works.bosk.BoskContext.Tenant.TenantId;
 
@@ -8,7 +9,12 @@ import static java.util.Objects.requireNonNull;
 public record BoskConfig<R extends StateTreeNode> (
 	DriverFactory<R> driverFactory,
 	RegistrarFactory registrarFactory,
-	TenancyModel tenancyModel
+	TenancyModel tenancyModel,
+	UpdateStrategy updateStrategy,
+	SnapshotRetention snapshotRetention,
+	HookQueueLimit hookQueueLimit,
+	HookExecution hookExecution,
+	DereferencerCompilation dereferencerCompilation
 ) {
 
 	/**
@@ -43,11 +49,21 @@ public record BoskConfig<R extends StateTreeNode> (
 		private DriverFactory<R> driverFactory;
 		private RegistrarFactory registrarFactory;
 		private TenancyModel tenancyModel;
+		private UpdateStrategy updateStrategy;
+		private SnapshotRetention snapshotRetention;
+		private HookQueueLimit hookQueueLimit;
+		private HookExecution hookExecution;
+		private DereferencerCompilation dereferencerCompilation;
 
 		Builder() {
 			driverFactory = simpleDriver();
 			registrarFactory = simpleRegistrar();
 			tenancyModel = TenancyModel.NONE;
+			updateStrategy = UpdateStrategy.PESSIMISTIC;
+			snapshotRetention = SnapshotRetention.NONE;
+			hookQueueLimit = HookQueueLimit.UNBOUNDED;
+			hookExecution = HookExecution.SEQUENTIAL;
+			dereferencerCompilation = DereferencerCompilation.LAZY;
 		}
 
 		public Builder<R> driverFactory(DriverFactory<R> driverFactory) {
@@ -77,11 +93,62 @@ public record BoskConfig<R extends StateTreeNode> (
 			return this;
 		}
 
+		public Builder<R> updateStrategy(UpdateStrategy updateStrategy) {
+			this.updateStrategy = requireNonNull(updateStrategy);
+			return this;
+		}
+
+		/**
+		 * Retains recent states of the bosk so they can be read using
+		 * {@link Bosk#readSessionAt} and compared using {@link Bosk#changesSince}.
+		 *
+		 * @param maxCount the number of most recent revisions to retain, including the current one
+		 * @param maxAge revisions older than this are discarded, except for the current one
+		 */
+		public Builder<R> retainSnapshots(int maxCount, Duration maxAge) {
+			return snapshotRetention(new SnapshotRetention(maxCount, maxAge));
+		}
+
+		public Builder<R> snapshotRetention(SnapshotRetention snapshotRetention) {
+			this.snapshotRetention = requireNonNull(snapshotRetention);
+			return this;
+		}
+
+		/**
+		 * Limits the number of hook calls that can be waiting to run.
+		 *
+		 * @param capacity the number of queued hook calls at which {@code policy} takes effect
+		 * @param policy what to do when the queue is full
+		 */
+		public Builder<R> boundedHookQueue(int capacity, HookQueueOverflowPolicy policy) {
+			return hookQueueLimit(new HookQueueLimit(capacity, policy));
+		}
+
+		public Builder<R> hookQueueLimit(HookQueueLimit hookQueueLimit) {
+			this.hookQueueLimit = requireNonNull(hookQueueLimit);
+			return this;
+		}
+
+		public Builder<R> hookExecution(HookExecution hookExecution) {
+			this.hookExecution = requireNonNull(hookExecution);
+			return this;
+		}
+
+		public Builder<R> dereferencerCompilation(DereferencerCompilation dereferencerCompilation) {
+			this.dereferencerCompilation = requireNonNull(dereferencerCompilation);
+			return this;
+		}
+
 		public BoskConfig<R> build() {
 			return new BoskConfig<>(
 				this.driverFactory,
 				this.registrarFactory,
-				this.tenancyModel
+				this.tenancyModel,
+				this.updateStrategy,
+				this.snapshotRetention,
+				this.hookQueueLimit,
+				this.hookExecution,
+				this.dereferencerCompilation
 			);
 		}
 
@@ -140,6 +207,166 @@ public record BoskConfig<R extends StateTreeNode> (
 		Persistent PERSISTENT = new Persistent();
 	}
 
+	/**
+	 * How the bosk applies unconditional updates
+	 * ({@link BoskDriver#submitReplacement submitReplacement} and {@link BoskDriver#submitDeletion submitDeletion})
+	 * to its in-memory state.
+	 * Either way, updates are applied atomically, and hooks are queued in the order the updates took effect.
+	 */
+	public enum UpdateStrategy {
+		/**
+		 * Each update computes its new state while holding a lock,
+		 * so concurrent updates wait for each other but never need to be retried.
+		 */
+		PESSIMISTIC,
+
+		/**
+		 * Each update computes its new state from a snapshot without holding any lock,
+		 * then takes the lock only briefly to publish the result.
+		 * If another update took effect in the meantime, the computation is retried.
+		 * <p>
+		 * This can improve throughput when many threads submit updates
+		 * whose new state is expensive to compute, such as changes to objects with many fields.
+		 */
+		OPTIMISTIC
+	}
+
+	/**
+	 * Limits on the history of prior states the bosk keeps in memory.
+	 * A revision is discarded once either limit is exceeded.
+	 * Successive states share most of their structure,
+	 * so each revision costs memory roughly proportional to the size of the update that produced it.
+	 *
+	 * @param maxCount the number of most recent revisions to retain, including the current one;
+	 *                 zero disables the history altogether
+	 * @param maxAge revisions recorded longer ago than this are discarded on the next update
+	 */
+	public record SnapshotRetention(int maxCount, Duration maxAge) {
+		public SnapshotRetention {
+			if (maxCount < 0) {
+				throw new IllegalArgumentException("maxCount can't be negative: " + maxCount);
+			}
+			if (maxAge.isNegative()) {
+				throw new IllegalArgumentException("maxAge can't be negative: " + maxAge);
+			}
+		}
+
+		public boolean isEnabled() {
+			return maxCount > 0;
+		}
+
+		/**
+		 * Only the current state is kept.
+		 */
+		public static final SnapshotRetention NONE = new SnapshotRetention(0, Duration.ZERO);
+	}
+
+	/**
+	 * Limits the number of hook calls the bosk will hold in memory waiting to run.
+	 * Each queued call holds on to the state it should see,
+	 * so a burst of updates triggering many hooks can otherwise consume a great deal of memory.
+	 *
+	 * <p>
+	 * The limit applies to updates submitted from outside of hooks,
+	 * and is checked before each update is applied;
+	 * a single update may still queue more calls than the remaining capacity.
+	 * Updates submitted by hooks themselves are never held back,
+	 * since the hooks would then be waiting for themselves to finish.
+	 *
+	 * @param capacity the number of queued hook calls at which {@code overflowPolicy} takes effect
+	 */
+	public record HookQueueLimit(int capacity, HookQueueOverflowPolicy overflowPolicy) {
+		public HookQueueLimit {
+			if (capacity < 1) {
+				throw new IllegalArgumentException("capacity must be positive: " + capacity);
+			}
+			requireNonNull(overflowPolicy);
+		}
+
+		public boolean isBounded() {
+			return capacity < Integer.MAX_VALUE;
+		}
+
+		/**
+		 * No limit.
+		 */
+		public static final HookQueueLimit UNBOUNDED = new HookQueueLimit(Integer.MAX_VALUE, HookQueueOverflowPolicy.BLOCK);
+	}
+
+	/**
+	 * What the bosk does when an update is submitted while its hook queue is at {@link HookQueueLimit#capacity capacity}.
+	 * Whichever policy is chosen, hooks still run in the order the configured {@link HookExecution} promises:
+	 * one at a time in breadth-first order under {@link HookExecution#SEQUENTIAL SEQUENTIAL},
+	 * or as each hook's {@link HookOrdering} allows under {@link HookExecution#CONCURRENT CONCURRENT},
+	 * except as noted for {@link #COALESCE}.
+	 */
+	public enum HookQueueOverflowPolicy {
+		/**
+		 * The submitting thread waits until the queue has room,
+		 * running the queued hooks itself if no other thread is doing so.
+		 */
+		BLOCK,
+
+		/**
+		 * The update is applied, but instead of queueing another call to a hook
+		 * that is already waiting to run on the same object,
+		 * the waiting call is changed to see the newer state.
+		 * Calls to any other hook or object are queued as usual,
+		 * so once the queue is full, it grows only by the number of distinct hook-and-object combinations.
+		 *
+		 * <p>
+		 * This relaxes the ordering above: the waiting call keeps its place in the queue,
+		 * so it runs ahead of calls queued after it, yet sees the state from updates that came later than theirs.
+		 * Only calls queued once the queue is full, or the call that filled it, can be coalesced into;
+		 * until then, hooks are queued exactly as under {@link #BLOCK}.
+		 */
+		COALESCE,
+
+		/**
+		 * The update is rejected with a {@link works.bosk.exceptions.HookQueueFullException}
+		 * and has no effect.
+		 */
+		FAIL
+	}
+
+	/**
+	 * How the bosk runs the hook calls triggered by updates.
+	 */
+	public enum HookExecution {
+		/**
+		 * Hooks run one at a time, in breadth-first order, as described by {@link HookRegistrar#registerHook}.
+		 */
+		SEQUENTIAL,
+
+		/**
+		 * Each hook call runs on its own virtual thread as soon as the {@link HookOrdering} of its hook allows,
+		 * so a slow hook delays only the calls that must follow it.
+		 * Calls may still be running when the update that triggered them returns,
+		 * and hooks triggered by other hooks' updates are not guaranteed to run breadth-first.
+		 * Hooks must be thread-safe.
+		 */
+		CONCURRENT
+	}
+
+	/**
+	 * When the bosk compiles the code that walks the state tree for each {@link Reference}.
+	 */
+	public enum DereferencerCompilation {
+		/**
+		 * Each path is compiled the first time a reference with that path is used.
+		 */
+		LAZY,
+
+		/**
+		 * Every path in the state tree type is compiled, in parallel, before the {@link Bosk} constructor returns,
+		 * so the first requests after startup don't pay for compilation and class loading.
+		 * Recursive types are compiled only down to the first repetition.
+		 *
+		 * @see Bosk#dereferencerWarmUpTimes()
+		 */
+		EAGER
+	}
+
 	private static final DriverFactory<?> SIMPLE_DRIVER_FACTORY = (_, d) -> d;
 	private static final RegistrarFactory SIMPLE_REGISTRAR_FACTORY = (_, d) -> d;
 }
@@ -1,6 +1,7 @@
 package works.bosk;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.SortedMap;
@@ -106,6 +107,36 @@ public interface BoskDriver {
 	 */
 	<T> void submitConditionalDeletion(Reference<T> target, Reference<Identifier> precondition, Identifier requiredValue);
 
+	/**
+	 * Requests that all the given <code>updates</code> be applied, in order,
+	 * as a single atomic change: no {@link ReadSession} observes a state
+	 * in which some of them have been applied and others have not,
+	 * and hooks are triggered once, by the combined effect of the whole batch.
+	 *
+	 * <p>
+	 * Each update behaves as it would if submitted individually.
+	 * In particular, preconditions are evaluated against the state produced by
+	 * the preceding updates in the batch, and updates that would be silently
+	 * ignored on their own are silently ignored here without affecting the others.
+	 *
+	 * <p>
+	 * The default implementation simply submits each update individually,
+	 * which is correct but not atomic. Drivers that forward updates to another
+	 * driver should override this to forward the batch intact,
+	 * so that the atomicity offered by downstream drivers is not lost.
+	 *
+	 * <p>
+	 * The MongoDB driver uses the default implementation, so its batches are not atomic:
+	 * other replicas may observe, and run hooks for, some of a batch's updates before the rest.
+	 *
+	 * @see Update
+	 */
+	default void submitBatch(List<? extends Update> updates) {
+		for (Update update : updates) {
+			update.submitTo(this);
+		}
+	}
+
 	/**
 	 * Blocks until all prior updates have been applied to the Bosk.
 	 *
@@ -162,6 +193,82 @@ public interface BoskDriver {
 	 */
 	void flush() throws IOException, InterruptedException;
 
+	/**
+	 * One of the update operations that can be submitted to a {@link BoskDriver},
+	 * represented as data so that several of them can be {@link #submitBatch submitted together}.
+	 * Each record corresponds to the driver method of the same name.
+	 */
+	sealed interface Update {
+		Reference<?> target();
+
+		/**
+		 * Calls the {@link BoskDriver} method corresponding to this update.
+		 */
+		void submitTo(BoskDriver driver);
+
+		record Replacement<T>(Reference<T> target, T newValue) implements Update {
+			public Replacement {
+				requireNonNull(target);
+				requireNonNull(newValue);
+			}
+
+			@Override
+			public void submitTo(BoskDriver driver) {
+				driver.submitReplacement(target, newValue);
+			}
+		}
+
+		record ConditionalReplacement<T>(Reference<T> target, T newValue, Reference<Identifier> precondition, Identifier requiredValue) implements Update {
+			public ConditionalReplacement {
+				requireNonNull(target);
+				requireNonNull(newValue);
+				requireNonNull(precondition);
+				requireNonNull(requiredValue);
+			}
+
+			@Override
+			public void submitTo(BoskDriver driver) {
+				driver.submitConditionalReplacement(target, newValue, precondition, requiredValue);
+			}
+		}
+
+		record ConditionalCreation<T>(Reference<T> target, T newValue) implements Update {
+			public ConditionalCreation {
+				requireNonNull(target);
+				requireNonNull(newValue);
+			}
+
+			@Override
+			public void submitTo(BoskDriver driver) {
+				driver.submitConditionalCreation(target, newValue);
+			}
+		}
+
+		record Deletion<T>(Reference<T> target) implements Update {
+			public Deletion {
+				requireNonNull(target);
+			}
+
+			@Override
+			public void submitTo(BoskDriver driver) {
+				driver.submitDeletion(target);
+			}
+		}
+
+		record ConditionalDeletion<T>(Reference<T> target, Reference<Identifier> precondition, Identifier requiredValue) implements Update {
+			public ConditionalDeletion {
+				requireNonNull(target);
+				requireNonNull(precondition);
+				requireNonNull(requiredValue);
+			}
+
+			@Override
+			public void submitTo(BoskDriver driver) {
+				driver.submitConditionalDeletion(target, precondition, requiredValue);
+			}
+		}
+	}
+
 	/**
 	 * Describes the state tree (or trees) at a moment in time.
 	 * @param <R> the root node of the state tree
@@ -8,12 +8,11 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Spliterator;
 import java.util.stream.Stream;
-import org.pcollections.OrderedPMap;
+import org.jspecify.annotations.Nullable;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableCollection;
 import static java.util.Collections.unmodifiableMap;
-import static java.util.LinkedHashMap.newLinkedHashMap;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -33,9 +32,9 @@ import static java.util.Objects.requireNonNull;
  *
  */
 public final class Catalog<E extends Entity> implements Iterable<E>, EnumerableByIdentifier<E> {
-	private final OrderedPMap<Identifier, E> contents;
+	private final PersistentOrderedMap<Identifier, E> contents;
 
-	private Catalog(OrderedPMap<Identifier, E> contents) {
+	private Catalog(PersistentOrderedMap<Identifier, E> contents) {
 		this.contents = contents;
 	}
 
@@ -54,7 +53,7 @@ public final class Catalog<E extends Entity> implements Iterable<E>, EnumerableB
 
 	@Override
 	public List<Identifier> ids() {
-		return List.copyOf(contents.keySet());
+		return contents.keyList();
 	}
 
 	/**
@@ -93,6 +92,24 @@ public final class Catalog<E extends Entity> implements Iterable<E>, EnumerableB
 		return contents.values().spliterator();
 	}
 
+	/**
+	 * Calls {@code visitor} for each entry that differs between {@code prior} and this catalog.
+	 * Entries are compared by object identity, so unchanged entries shared between the two versions
+	 * are skipped without being reported.
+	 *
+	 * <p>
+	 * Removals are reported first, in reverse order; then additions and changes, in the order of this catalog.
+	 *
+	 * @param prior an earlier version of this catalog, or null to report every entry as added
+	 */
+	public void forEachChangeSince(@Nullable Catalog<E> prior, EntryChangeVisitor<Identifier, ? super E> visitor) {
+		ContainerDiffs.forEachChange((prior == null) ? null : prior.contents, contents, visitor);
+	}
+
+	PersistentOrderedMap<Identifier, E> contents() {
+		return contents;
+	}
+
 	public boolean containsID(Identifier key) {
 		return get(key) != null;
 	}
@@ -128,7 +145,7 @@ public final class Catalog<E extends Entity> implements Iterable<E>, EnumerableB
 	}
 
 	public static <TT extends Entity> Catalog<TT> empty() {
-		return new Catalog<>(OrderedPMap.empty());
+		return new Catalog<>(PersistentOrderedMap.empty());
 	}
 
 	@SafeVarargs
@@ -142,14 +159,50 @@ public final class Catalog<E extends Entity> implements Iterable<E>, EnumerableB
 	}
 
 	public static <TT extends Entity> Catalog<TT> of(Collection<TT> entities) {
-		Map<Identifier, TT> newValues = newLinkedHashMap(entities.size());
-		for (TT entity : entities) {
-			TT old = newValues.put(requireNonNull(entity.id()), entity);
+		Builder<TT> builder = builder();
+		entities.forEach(builder::add);
+		return builder.build();
+	}
+
+	/**
+	 * For constructing a large catalog one entity at a time,
+	 * without the overhead of creating an intermediate catalog for each one.
+	 */
+	public static <TT extends Entity> Builder<TT> builder() {
+		return new Builder<>();
+	}
+
+	/**
+	 * Accumulates entities in order, and then produces a {@link Catalog} containing them.
+	 * Cannot be used after {@link #build()} has been called.
+	 */
+	public static final class Builder<E extends Entity> {
+		private final PersistentOrderedMap.Builder<Identifier, E> contents = PersistentOrderedMap.builder();
+
+		private Builder() {}
+
+		/**
+		 * @throws IllegalArgumentException if an entity with the same id has already been added
+		 */
+		public Builder<E> add(E entity) {
+			E old = contents.put(requireNonNull(entity.id()), entity);
 			if (old != null) {
 				throw new IllegalArgumentException("Multiple entities with id " + old.id());
 			}
+			return this;
+		}
+
+		public boolean containsID(Identifier id) {
+			return contents.containsKey(id);
+		}
+
+		public int size() {
+			return contents.size();
+		}
+
+		public Catalog<E> build() {
+			return new Catalog<>(contents.build());
 		}
-		return new Catalog<>(OrderedPMap.from(newValues));
 	}
 
 	public Catalog<E> with(E entity) {
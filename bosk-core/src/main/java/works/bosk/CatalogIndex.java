@@ -0,0 +1,186 @@
+package works.bosk;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+import works.bosk.BoskContext.Tenant;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A secondary index over the entries of a {@link Catalog} in the bosk state tree,
+ * grouping them by a key computed from each entry.
+ * Created by {@link Bosk#registerIndex}.
+ *
+ * <p>
+ * Lookups are answered from the same state snapshot as {@link Reference#value()},
+ * so they must be performed inside a {@link Bosk.ReadSession},
+ * and they always agree with the catalog the session sees.
+ *
+ * <p>
+ * The bosk brings the index up to date whenever it publishes an update,
+ * at a cost proportional to the number of catalog entries that changed.
+ * A lookup from a snapshot other than the latest one,
+ * such as a long-running read session,
+ * derives the index for that snapshot from the latest one the same way.
+ * In a multi-tenant bosk, each tenant has its own latest version,
+ * so tenants never pay for differences between their catalogs.
+ * A tenant that hasn't been updated since the index was registered gets its latest version
+ * from its first lookup, so only that lookup pays to index the whole catalog.
+ *
+ * @param <E> the type of the catalog entries
+ * @param <K> the type of the key; entries whose key is null are not indexed
+ */
+public final class CatalogIndex<E extends Entity, K> {
+	private final CatalogReference<E> catalogRef;
+	private final Function<? super E, ? extends @Nullable K> keyFunction;
+	private final BoskContext context;
+
+	/**
+	 * Supplies the catalog in the current tenant's most recently published root,
+	 * so lookups can tell when the version they derived is worth keeping.
+	 */
+	private final Supplier<@Nullable Catalog<E>> currentCatalog;
+
+	/**
+	 * The index for the most recently published version of the catalog, for each tenant.
+	 * Each version is immutable, and each tenant's updates are published one at a time,
+	 * so no further locking is needed.
+	 */
+	private final Map<Tenant, Version<E, K>> latestByTenant = new ConcurrentHashMap<>();
+
+	private record Version<E extends Entity, K>(
+		Catalog<E> catalog,
+		PersistentOrderedMap<K, Catalog<E>> entriesByKey
+	) {
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		static <EE extends Entity, KK> Version<EE, KK> empty() {
+			return (Version) EMPTY;
+		}
+
+		@SuppressWarnings("rawtypes")
+		private static final Version EMPTY = new Version<>(Catalog.empty(), PersistentOrderedMap.empty());
+	}
+
+	CatalogIndex(CatalogReference<E> catalogRef, Function<? super E, ? extends @Nullable K> keyFunction, BoskContext context, Supplier<@Nullable Catalog<E>> currentCatalog) {
+		this.catalogRef = requireNonNull(catalogRef);
+		this.keyFunction = requireNonNull(keyFunction);
+		this.context = requireNonNull(context);
+		this.currentCatalog = requireNonNull(currentCatalog);
+	}
+
+	public CatalogReference<E> catalogReference() {
+		return catalogRef;
+	}
+
+	/**
+	 * @return the entries of the catalog whose key equals {@code key}, in the order they were indexed,
+	 * or an empty catalog if there are none or the catalog does not exist
+	 * @throws works.bosk.exceptions.NoReadSessionException if there is no active {@link Bosk.ReadSession}
+	 */
+	public Catalog<E> get(K key) {
+		Catalog<E> result = sessionVersion().entriesByKey().get(requireNonNull(key));
+		return (result == null) ? Catalog.empty() : result;
+	}
+
+	/**
+	 * @return true if at least one entry of the catalog has the given key
+	 * @throws works.bosk.exceptions.NoReadSessionException if there is no active {@link Bosk.ReadSession}
+	 */
+	public boolean containsKey(K key) {
+		return sessionVersion().entriesByKey().containsKey(requireNonNull(key));
+	}
+
+	/**
+	 * If the session is looking at the tenant's latest catalog,
+	 * but the index hasn't caught up, because nothing has been published for this tenant
+	 * since the index was registered, then we remember the version we derived,
+	 * so later lookups don't need to derive it again.
+	 *
+	 * @return the version for the catalog in the current read session
+	 */
+	private Version<E, K> sessionVersion() {
+		Catalog<E> catalog = catalogRef.valueIfExists();
+		Tenant tenant = context.getTenant();
+		Version<E, K> base = latestByTenant.getOrDefault(tenant, Version.empty());
+		Version<E, K> result = versionFor(base, catalog);
+		if (result != base && catalog != null && catalog == currentCatalog.get()) {
+			// If a newer version was published in the meantime, keep that one
+			latestByTenant.merge(tenant, result, (existing, derived) -> (existing == base) ? derived : existing);
+		}
+		return result;
+	}
+
+	/**
+	 * Called by the bosk whenever it publishes a new root for the current tenant.
+	 *
+	 * @param catalog the catalog in the new root, or null if it doesn't exist
+	 */
+	void advanceTo(@Nullable Catalog<E> catalog) {
+		latestByTenant.put(context.getTenant(), versionFor(catalog));
+	}
+
+	private Version<E, K> versionFor(@Nullable Catalog<E> catalog) {
+		return versionFor(latestByTenant.getOrDefault(context.getTenant(), Version.empty()), catalog);
+	}
+
+	private Version<E, K> versionFor(Version<E, K> base, @Nullable Catalog<E> catalog) {
+		if (catalog == null) {
+			return Version.empty();
+		} else if (catalog == base.catalog()) {
+			return base;
+		} else {
+			return derive(base, catalog);
+		}
+	}
+
+	private Version<E, K> derive(Version<E, K> base, Catalog<E> catalog) {
+		var visitor = new EntryChangeVisitor<Identifier, E>() {
+			PersistentOrderedMap<K, Catalog<E>> entriesByKey = base.entriesByKey();
+
+			@Override
+			public void removed(Identifier id, E priorValue) {
+				remove(priorValue);
+			}
+
+			@Override
+			public void changed(Identifier id, E priorValue, E newValue) {
+				K priorKey = keyFunction.apply(priorValue);
+				K newKey = keyFunction.apply(newValue);
+				if (priorKey != null && priorKey.equals(newKey)) {
+					// Stays in the same bucket, and keeps its position there
+					entriesByKey = entriesByKey.plus(newKey, requireNonNull(entriesByKey.get(newKey)).with(newValue));
+				} else {
+					remove(priorValue);
+					added(id, newValue);
+				}
+			}
+
+			@Override
+			public void added(Identifier id, E newValue) {
+				K key = keyFunction.apply(newValue);
+				if (key != null) {
+					Catalog<E> bucket = entriesByKey.get(key);
+					entriesByKey = entriesByKey.plus(key, (bucket == null) ? Catalog.of(newValue) : bucket.with(newValue));
+				}
+			}
+
+			private void remove(E priorValue) {
+				K key = keyFunction.apply(priorValue);
+				if (key != null) {
+					Catalog<E> bucket = requireNonNull(entriesByKey.get(key)).without(priorValue);
+					entriesByKey = bucket.isEmpty() ? entriesByKey.minus(key) : entriesByKey.plus(key, bucket);
+				}
+			}
+		};
+		catalog.forEachChangeSince(base.catalog(), visitor);
+		return new Version<>(catalog, visitor.entriesByKey);
+	}
+
+	@Override
+	public String toString() {
+		return "CatalogIndex(" + catalogRef + ")";
+	}
+}
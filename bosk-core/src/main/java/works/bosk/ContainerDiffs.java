@@ -0,0 +1,79 @@
+package works.bosk;
+
+import java.util.function.BiConsumer;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Implementation of the {@code forEachChangeSince} methods of the bosk containers.
+ *
+ * <p>
+ * All these methods report changes in the same order:
+ * removals first, in <em>reverse</em> order of the prior version,
+ * because that's likely to be the preferred order for cleanup activities;
+ * then additions and changes, in the order of the current version.
+ * A null container is treated as empty.
+ */
+final class ContainerDiffs {
+	private ContainerDiffs() {}
+
+	/**
+	 * Thanks to {@link PersistentOrderedMap#forEachEntryDifferentFrom},
+	 * when {@code current} was derived from {@code prior} (or vice versa),
+	 * this takes time proportional to the number of changes, not the size of the maps.
+	 */
+	static <K, V> void forEachChange(
+		@Nullable PersistentOrderedMap<K, V> prior,
+		@Nullable PersistentOrderedMap<K, V> current,
+		EntryChangeVisitor<K, ? super V> visitor
+	) {
+		if (prior == current) {
+			// Note object identity comparison: same map means no changes at all
+			return;
+		}
+		PersistentOrderedMap<K, V> before = (prior == null) ? PersistentOrderedMap.empty() : prior;
+		PersistentOrderedMap<K, V> after = (current == null) ? PersistentOrderedMap.empty() : current;
+
+		before.forEachEntryDifferentFromInReverse(after, (key, value) -> {
+			if (!after.containsKey(key)) {
+				visitor.removed(key, value);
+			}
+		});
+
+		after.forEachEntryDifferentFrom(before, (key, newValue) -> {
+			V priorValue = before.get(key);
+			if (priorValue == null) {
+				visitor.added(key, newValue);
+			} else if (priorValue != newValue) {
+				visitor.changed(key, priorValue, newValue);
+			}
+		});
+	}
+
+	/**
+	 * For containers whose exact type isn't known statically, such as those encountered by hooks.
+	 */
+	static <T> void forEachChange(
+		@Nullable EnumerableByIdentifier<T> prior,
+		@Nullable EnumerableByIdentifier<T> current,
+		EntryChangeVisitor<Identifier, ? super T> visitor
+	) {
+		forEachChange(contentsOf(prior), contentsOf(current), visitor);
+	}
+
+	/**
+	 * Visits every entry in order, like diffing against a null prior container,
+	 * but without allocating anything per entry.
+	 */
+	static <T> void forEachEntry(EnumerableByIdentifier<T> container, BiConsumer<Identifier, ? super T> action) {
+		contentsOf(container).forEach(action);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> @Nullable PersistentOrderedMap<Identifier, T> contentsOf(@Nullable EnumerableByIdentifier<T> container) {
+		return switch (container) {
+			case null -> null;
+			case Catalog<?> c -> (PersistentOrderedMap<Identifier, T>) c.contents();
+			case SideTable<?, ?> s -> (PersistentOrderedMap<Identifier, T>) s.valuesById();
+		};
+	}
+}
@@ -0,0 +1,151 @@
+package works.bosk;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.jspecify.annotations.Nullable;
+import works.bosk.exceptions.NonexistentReferenceException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A value computed from a node of the bosk state tree, remembered for as long as that node is reachable.
+ * Created by {@link Bosk#derived}.
+ *
+ * <p>
+ * Results are keyed by the <em>identity</em> of the node, the same comparison hooks use
+ * to decide whether something changed.
+ * Because unchanged subtrees are shared between successive states of the bosk,
+ * a derivation of a node that an update didn't touch is reused in the following state,
+ * while a node that was replaced, even by an equal one, gets a fresh derivation.
+ *
+ * <p>
+ * The function must be a pure function of the node.
+ * Its results must not refer back to the node, or the node will never be collected.
+ * It may be called more than once for the same node if several threads request it at the same time,
+ * but every caller gets the same result.
+ *
+ * @param <T> the type of the node
+ * @param <V> the type of the derived value
+ */
+public final class DerivedValue<T, V> {
+	private final Reference<T> ref;
+	private final Function<? super T, ? extends V> function;
+	private final ConcurrentHashMap<NodeKey, V> memo = new ConcurrentHashMap<>();
+	private final ReferenceQueue<Object> stale = new ReferenceQueue<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	DerivedValue(Reference<T> ref, Function<? super T, ? extends V> function) {
+		this.ref = requireNonNull(ref);
+		this.function = requireNonNull(function);
+	}
+
+	public Reference<T> reference() {
+		return ref;
+	}
+
+	/**
+	 * @return the derivation of {@link #reference()}'s value in the current read session
+	 * @throws NonexistentReferenceException if the referenced node does not exist
+	 */
+	public V value() {
+		return valueFor(ref.value());
+	}
+
+	/**
+	 * @return the derivation of {@link #reference()}'s value in the current read session,
+	 * or null if the referenced node does not exist
+	 */
+	public @Nullable V valueIfExists() {
+		T node = ref.valueIfExists();
+		return (node == null) ? null : valueFor(node);
+	}
+
+	/**
+	 * Useful when the node was obtained some other way,
+	 * such as from a hook whose scope has parameters.
+	 *
+	 * @return the derivation of the given node
+	 */
+	public V valueFor(T node) {
+		expungeStaleEntries();
+		NodeKey lookupKey = new NodeKey(requireNonNull(node), null);
+		V existing = memo.get(lookupKey);
+		java.lang.ref.Reference.reachabilityFence(node); // Keep the lookup key's referent alive during the get
+		if (existing != null) {
+			hits.increment();
+			return existing;
+		}
+		misses.increment();
+		V computed = requireNonNull(function.apply(node), "Derived value must not be null");
+		V winner = memo.putIfAbsent(new NodeKey(node, stale), computed);
+		return (winner == null) ? computed : winner;
+	}
+
+	/**
+	 * @return the number of calls that found a remembered value
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of calls that had to compute the value
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the number of nodes whose derived values are currently remembered
+	 */
+	public int size() {
+		expungeStaleEntries();
+		return memo.size();
+	}
+
+	private void expungeStaleEntries() {
+		NodeKey key;
+		while ((key = (NodeKey) stale.poll()) != null) {
+			memo.remove(key);
+		}
+	}
+
+	/**
+	 * Compares nodes by identity without keeping them reachable.
+	 * A key that has been cleared is equal only to itself, so it can still be removed.
+	 */
+	private static final class NodeKey extends WeakReference<Object> {
+		private final int hash;
+
+		NodeKey(Object node, @Nullable ReferenceQueue<Object> queue) {
+			super(node, queue);
+			this.hash = System.identityHashCode(node);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			} else if (obj instanceof NodeKey other) {
+				Object node = this.get();
+				return node != null && node == other.get();
+			} else {
+				return false;
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "DerivedValue(" + ref + ")";
+	}
+}
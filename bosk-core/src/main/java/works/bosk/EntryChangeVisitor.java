@@ -0,0 +1,31 @@
+package works.bosk;
+
+/**
+ * Receives the differences between two versions of a keyed container,
+ * such as {@link Catalog#forEachChangeSince}.
+ *
+ * <p>
+ * Values are compared by object identity, just as hooks are triggered
+ * only for objects that are not the same object they were before.
+ * Containers share structure between versions, so unchanged entries
+ * are cheap to skip.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public interface EntryChangeVisitor<K, V> {
+	/**
+	 * {@code key} was present in the prior version, but not the current one.
+	 */
+	void removed(K key, V priorValue);
+
+	/**
+	 * {@code key} is present in both versions, but its value is a different object.
+	 */
+	void changed(K key, V priorValue, V newValue);
+
+	/**
+	 * {@code key} is present in the current version, but not the prior one.
+	 */
+	void added(K key, V newValue);
+}
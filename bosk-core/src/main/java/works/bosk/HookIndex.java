@@ -0,0 +1,135 @@
+package works.bosk;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+import static works.bosk.Path.isParameterSegment;
+
+/**
+ * A trie of hook scopes, keyed by path segment, that quickly finds the
+ * registrations that could possibly be affected by an update.
+ *
+ * <p>
+ * A scope is a <em>candidate</em> for a given target path if
+ * the scope {@link Path#matches matches} a prefix of the target,
+ * or the target matches a prefix of the scope.
+ * These are exactly the cases in which {@link Bosk.HookRegistration} could trigger;
+ * scopes for unrelated subtrees are never visited.
+ *
+ * <p>
+ * Parameter segments are wildcards, just as they are for {@link Path#matches},
+ * so all parameters at a given depth share a single trie node regardless of their names.
+ *
+ * <p>
+ * Safe to use concurrently: additions can occur while other threads
+ * are calling {@link #candidatesFor}, though such calls may or may not
+ * see values added concurrently.
+ *
+ * @param <V> the type of object associated with each scope
+ */
+final class HookIndex<V> {
+	private final Node<V> root = new Node<>();
+	private final AtomicLong sequenceNumber = new AtomicLong();
+
+	/**
+	 * @param scope may contain parameters
+	 */
+	void add(Path scope, V value) {
+		Node<V> node = root;
+		for (String segment : scope) {
+			node = node.childFor(segment);
+		}
+		node.values.add(new Entry<>(sequenceNumber.getAndIncrement(), requireNonNull(value)));
+	}
+
+	/**
+	 * @return all values whose scope could be affected by an update to {@code target},
+	 * in the order they were {@link #add added}.
+	 */
+	List<V> candidatesFor(Path target) {
+		List<Entry<V>> found = new ArrayList<>();
+		String[] segments = target.segmentStream().toArray(String[]::new);
+		collectCandidates(root, segments, 0, found);
+		if (found.size() >= 2) {
+			found.sort(Comparator.comparingLong(Entry::sequenceNumber));
+		}
+		List<V> result = new ArrayList<>(found.size());
+		for (Entry<V> entry : found) {
+			result.add(entry.value());
+		}
+		return result;
+	}
+
+	/**
+	 * @return every value in the index, in the order they were {@link #add added}.
+	 */
+	List<V> all() {
+		// Every scope is a candidate for an update to the root
+		return candidatesFor(Path.empty());
+	}
+
+	private static <V> void collectCandidates(Node<V> node, String[] segments, int depth, List<Entry<V>> found) {
+		if (depth == segments.length) {
+			// Everything at or below the target is affected
+			node.collectAll(found);
+		} else {
+			// Scopes ending here are ancestors of the target
+			found.addAll(node.values);
+			String segment = segments[depth];
+			if (isParameterSegment(segment)) {
+				// A parameter in the target matches anything
+				for (Node<V> child : node.literalChildren.values()) {
+					collectCandidates(child, segments, depth + 1, found);
+				}
+			} else {
+				Node<V> literalChild = node.literalChildren.get(segment);
+				if (literalChild != null) {
+					collectCandidates(literalChild, segments, depth + 1, found);
+				}
+			}
+			Node<V> wildcardChild = node.wildcardChild;
+			if (wildcardChild != null) {
+				collectCandidates(wildcardChild, segments, depth + 1, found);
+			}
+		}
+	}
+
+	private record Entry<V>(long sequenceNumber, V value) { }
+
+	private static final class Node<V> {
+		final List<Entry<V>> values = new CopyOnWriteArrayList<>();
+		final Map<String, Node<V>> literalChildren = new ConcurrentHashMap<>();
+		volatile Node<V> wildcardChild;
+
+		Node<V> childFor(String segment) {
+			if (isParameterSegment(segment)) {
+				synchronized (this) {
+					Node<V> result = wildcardChild;
+					if (result == null) {
+						wildcardChild = result = new Node<>();
+					}
+					return result;
+				}
+			} else {
+				return literalChildren.computeIfAbsent(segment, _ -> new Node<>());
+			}
+		}
+
+		void collectAll(List<Entry<V>> found) {
+			found.addAll(values);
+			for (Node<V> child : literalChildren.values()) {
+				child.collectAll(found);
+			}
+			Node<V> wildcardChild = this.wildcardChild;
+			if (wildcardChild != null) {
+				wildcardChild.collectAll(found);
+			}
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package works.bosk;
+
+import works.bosk.BoskConfig.HookExecution;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The guarantees a hook asks for when it is registered with
+ * {@link HookRegistrar#registerHook(String, Reference, BoskHook, HookOptions)}.
+ *
+ * @param coalescing if true, and the hook is already waiting to run for some object when that object changes again,
+ *                   the waiting call is changed to see the newer state, instead of queueing another call.
+ *                   This saves work for hooks that only care about the latest state of each object,
+ *                   at the cost of not seeing every intermediate state.
+ * @param ordering the ordering the hook requires among its calls
+ *                 when the bosk runs hooks {@link HookExecution#CONCURRENT concurrently}
+ */
+public record HookOptions(boolean coalescing, HookOrdering ordering) {
+	public HookOptions {
+		requireNonNull(ordering);
+	}
+
+	/**
+	 * What {@link HookRegistrar#registerHook(String, Reference, BoskHook)} uses:
+	 * no coalescing, and {@link HookOrdering#PER_SCOPE PER_SCOPE} ordering.
+	 */
+	public static final HookOptions DEFAULT = new HookOptions(false, HookOrdering.PER_SCOPE);
+
+	public HookOptions withCoalescing(boolean coalescing) {
+		return new HookOptions(coalescing, ordering);
+	}
+
+	public HookOptions withOrdering(HookOrdering ordering) {
+		return new HookOptions(coalescing, ordering);
+	}
+}
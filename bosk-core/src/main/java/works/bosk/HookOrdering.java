@@ -0,0 +1,35 @@
+package works.bosk;
+
+import works.bosk.BoskConfig.HookExecution;
+
+/**
+ * The ordering a hook requires among its calls when the bosk runs hooks
+ * {@link HookExecution#CONCURRENT concurrently}.
+ * Under {@link HookExecution#SEQUENTIAL SEQUENTIAL} execution, every hook gets the strongest guarantee anyway,
+ * so this has no effect.
+ *
+ * @see HookOptions#ordering()
+ */
+public enum HookOrdering {
+	/**
+	 * Calls for the same object, identified by the hook's scope with its parameters bound,
+	 * run one at a time in the order they were queued.
+	 * Calls for different objects can run concurrently.
+	 */
+	PER_SCOPE,
+
+	/**
+	 * All calls to this hook run one at a time in the order they were queued,
+	 * but can run concurrently with other hooks.
+	 */
+	PER_HOOK,
+
+	/**
+	 * Calls run one at a time in the order they were queued,
+	 * relative to every other call to any hook with this ordering.
+	 * A set of hooks that all use this ordering behave among themselves as they would under
+	 * {@link HookExecution#SEQUENTIAL SEQUENTIAL} execution,
+	 * except that hooks triggered by their updates are not guaranteed to run breadth-first.
+	 */
+	GLOBAL
+}
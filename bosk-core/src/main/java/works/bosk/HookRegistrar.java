@@ -30,4 +30,24 @@ public interface HookRegistrar {
 	 *
 	 */
 	<T> void registerHook(String name, Reference<T> scope, BoskHook<T> hook);
+
+	/**
+	 * Like {@link #registerHook(String, Reference, BoskHook)}, but with the given {@link HookOptions}
+	 * instead of {@link HookOptions#DEFAULT}.
+	 *
+	 * <p>
+	 * Registrars that wrap another registrar should override this to pass the options along.
+	 * The default implementation calls {@link #registerHook(String, Reference, BoskHook)},
+	 * which is correct only for {@link HookOrdering#PER_SCOPE PER_SCOPE} ordering.
+	 * It ignores {@link HookOptions#coalescing coalescing}, which is always correct, just less efficient.
+	 *
+	 * @throws UnsupportedOperationException if this registrar doesn't override this method,
+	 * and {@code options} asks for any ordering other than {@link HookOrdering#PER_SCOPE PER_SCOPE}
+	 */
+	default <T> void registerHook(String name, Reference<T> scope, BoskHook<T> hook, HookOptions options) {
+		if (options.ordering() != HookOrdering.PER_SCOPE) {
+			throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support " + options.ordering() + " ordering for hook " + name);
+		}
+		registerHook(name, scope, hook);
+	}
 }
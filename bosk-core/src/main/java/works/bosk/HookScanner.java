@@ -104,6 +104,8 @@ final class HookScanner {
 		} catch (IllegalAccessException e) {
 			throw new IllegalArgumentException(e);
 		}
+		Hook annotation = method.getAnnotation(Hook.class);
+		HookOptions options = new HookOptions(annotation.coalesce(), hookOrdering(annotation.ordering()));
 		hookRegistrar.registerHook(method.getName(), scope, ref -> {
 			try {
 				List<Object> arguments = new ArrayList<>(argumentFunctions.size());
@@ -112,7 +114,15 @@ final class HookScanner {
 			} catch (Throwable e) {
 				throw new IllegalStateException("Unable to call hook \"" + method.getName() + "\"", e);
 			}
-		});
+		}, options);
+	}
+
+	private static HookOrdering hookOrdering(Hook.Ordering ordering) {
+		return switch (ordering) {
+			case PER_SCOPE -> HookOrdering.PER_SCOPE;
+			case PER_HOOK -> HookOrdering.PER_HOOK;
+			case GLOBAL -> HookOrdering.GLOBAL;
+		};
 	}
 
 	private HookScanner() {}
@@ -1,22 +1,31 @@
 package works.bosk;
 
-import java.util.Objects;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import org.jspecify.annotations.NonNull;
 
 /**
  * The means by which {@link Entity entities} are identified within
  * a particular domain, such as a {@link Catalog} or {@link SideTable}.
+ *
+ * <p>
+ * Identifiers are interned: as long as an identifier for a given string is reachable,
+ * every request for that string returns the same object.
+ * This saves memory when the same id appears in many places in the state tree,
+ * and lets {@link #equals} usually succeed without comparing strings.
  */
 public final class Identifier {
 	@NonNull
 	final String value;
+	private final int hash;
 
 	private Identifier(@NonNull String value) {
 		this.value = value;
+		this.hash = value.hashCode();
 	}
 
-	// TODO: Intern these.  No need to have several Identifier objects for the same value
 	public static Identifier from(String value) {
 		if (value.isEmpty()) {
 			throw new IllegalArgumentException("Identifier can't be empty");
@@ -25,14 +34,14 @@ public final class Identifier {
 		}
 		// TODO: We probably ought to outlaw some characters like NUL (\u0000) but
 		//  that's O(n) in the length of the string, so it's not clear that's worth the overhead.
-		return new Identifier(value);
+		return intern(value);
 	}
 
 	/**
 	 * I'm going to regret adding this.
 	 */
 	public static Identifier unique(String prefix) {
-		return new Identifier(prefix + (uniqueIdCounter.incrementAndGet()));
+		return intern(prefix + (uniqueIdCounter.incrementAndGet()));
 	}
 
 	private static final AtomicLong uniqueIdCounter = new AtomicLong(1000);
@@ -44,15 +53,69 @@ public final class Identifier {
 
 	@Override
 	public boolean equals(Object o) {
-		if (o == null || getClass() != o.getClass()) {
+		if (this == o) {
+			return true;
+		} else if (o instanceof Identifier that) {
+			// Interning makes this rare, but an identifier can be recreated
+			// after its interned copy has been collected
+			return hash == that.hash && value.equals(that.value);
+		} else {
 			return false;
 		}
-		Identifier that = (Identifier) o;
-		return Objects.equals(value, that.value);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hashCode(value);
+		return hash;
 	}
+
+	//
+	// Interning
+	//
+
+	private static Identifier intern(String value) {
+		expungeStaleEntries();
+		while (true) {
+			InternedIdentifier ref = INTERNED.get(value);
+			if (ref == null) {
+				Identifier result = new Identifier(value);
+				if (INTERNED.putIfAbsent(value, new InternedIdentifier(result)) == null) {
+					return result;
+				}
+			} else {
+				Identifier existing = ref.get();
+				if (existing != null) {
+					return existing;
+				}
+				// Collected, but not yet expunged
+				Identifier result = new Identifier(value);
+				if (INTERNED.replace(value, ref, new InternedIdentifier(result))) {
+					return result;
+				}
+			}
+			// Lost a race with another thread; try again
+		}
+	}
+
+	private static void expungeStaleEntries() {
+		InternedIdentifier stale;
+		while ((stale = (InternedIdentifier) STALE.poll()) != null) {
+			INTERNED.remove(stale.value, stale);
+		}
+	}
+
+	/**
+	 * Remembers its key so it can be removed from {@link #INTERNED} once it's been cleared.
+	 */
+	private static final class InternedIdentifier extends WeakReference<Identifier> {
+		final String value;
+
+		InternedIdentifier(Identifier referent) {
+			super(referent, STALE);
+			this.value = referent.value;
+		}
+	}
+
+	private static final ConcurrentHashMap<String, InternedIdentifier> INTERNED = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<Identifier> STALE = new ReferenceQueue<>();
 }
@@ -5,8 +5,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collector;
+import org.jspecify.annotations.Nullable;
 
 /**
  * An immutable {@link List} that can be used in a {@link Bosk}.
@@ -24,22 +28,38 @@ import java.util.stream.Collector;
  * magic way to put arbitrary data structures into a Bosk.
  *
  * <p>
- * The constructor is protected so that you can make your own efficient
+ * The entries are stored in a persistent vector: a 32-way radix tree whose leaves hold the entries.
+ * {@link #with}, {@link #plus}, and removing the last entry with {@link #minus}
+ * copy only one path through the tree, sharing the rest with the original list,
+ * so they take time proportional to the log of the list's size rather than the size itself.
+ *
+ * <p>
+ * The constructor is protected so that you can make your own
  * list-like value types that have additional properties.
- * <strong>But beware</strong>: if you modify the contents of the
- * <code>entries</code> array, you are embarking on an odyssey of vexation and
- * dismay that will make you question your sanity. Your application will not
- * work, and you will be unable to figure out why, because every part of the
- * Bosk library, and of every application written using the library, assume
- * objects are immutable. <strong>You have been warned.</strong>
+ * The constructor copies the <code>entries</code> array, so the caller is free to reuse it.
+ * Note that the update methods return a plain {@link ListValue}, not an instance of the subclass.
  *
  * @author pdoyle
  */
-public class ListValue<T> extends AbstractList<T> {
-	protected final T[] entries;
+public class ListValue<T> extends AbstractList<T> implements RandomAccess {
+	private final Object[] root; // A leaf if shift == 0
+	private final int shift;
+	private final int size;
 
 	protected ListValue(T[] entries) {
-		this.entries = entries;
+		this.size = entries.length;
+		int shift = 0;
+		while (size > (1L << (shift + BITS))) {
+			shift += BITS;
+		}
+		this.shift = shift;
+		this.root = (size == 0) ? EMPTY_NODE : subtree(entries, 0, size, shift);
+	}
+
+	private ListValue(Object[] root, int shift, int size) {
+		this.root = root;
+		this.shift = shift;
+		this.size = size;
 	}
 
 	@SuppressWarnings({"unchecked"})
@@ -53,8 +73,7 @@ public class ListValue<T> extends AbstractList<T> {
 		if (entries.length == 0) {
 			return empty();
 		} else {
-			// Let's just be super cautious, and make a copy of the array.
-			return new ListValue<>(Arrays.copyOf(entries, entries.length));
+			return new ListValue<>(entries);
 		}
 	}
 
@@ -67,24 +86,160 @@ public class ListValue<T> extends AbstractList<T> {
 		}
 	}
 
+	/**
+	 * For constructing a large list one entry at a time
+	 * without building intermediate lists.
+	 */
+	public static <TT> Builder<TT> builder() {
+		return new Builder<>();
+	}
+
+	/**
+	 * Accumulates entries in order, and then produces a {@link ListValue} containing them.
+	 * Cannot be used after {@link #build()} has been called.
+	 */
+	public static final class Builder<T> {
+		private final List<Object[]> fullLeaves = new ArrayList<>();
+		private Object[] leaf = new Object[WIDTH];
+		private int size = 0;
+		private boolean built = false;
+
+		private Builder() {}
+
+		public Builder<T> add(T entry) {
+			checkNotBuilt();
+			int i = size & MASK;
+			leaf[i] = entry;
+			++size;
+			if (i == MASK) {
+				fullLeaves.add(leaf);
+				leaf = new Object[WIDTH];
+			}
+			return this;
+		}
+
+		public int size() {
+			return size;
+		}
+
+		public ListValue<T> build() {
+			checkNotBuilt();
+			built = true;
+			if (size == 0) {
+				return empty();
+			}
+			List<Object[]> nodes = fullLeaves;
+			if ((size & MASK) != 0) {
+				nodes.add(Arrays.copyOf(leaf, size & MASK));
+			}
+			int shift = 0;
+			while (nodes.size() > 1) {
+				List<Object[]> parents = new ArrayList<>((nodes.size() + MASK) / WIDTH);
+				for (int i = 0; i < nodes.size(); i += WIDTH) {
+					parents.add(nodes.subList(i, Math.min(i + WIDTH, nodes.size())).toArray());
+				}
+				nodes = parents;
+				shift += BITS;
+			}
+			return new ListValue<>(nodes.getFirst(), shift, size);
+		}
+
+		private void checkNotBuilt() {
+			if (built) {
+				throw new IllegalStateException("Builder cannot be used after build() is called");
+			}
+		}
+	}
+
 	@Override
 	public final int size() {
-		return entries.length;
+		return size;
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public final T get(int index) {
-		return entries[index];
+		Objects.checkIndex(index, size);
+		return (T) leafFor(index)[index & MASK];
+	}
+
+	/**
+	 * @return a list like this one, except with <code>value</code> at <code>index</code>
+	 * @throws IndexOutOfBoundsException if <code>index</code> is not less than {@link #size()}
+	 */
+	public final ListValue<T> with(int index, T value) {
+		Objects.checkIndex(index, size);
+		if (leafFor(index)[index & MASK] == value) {
+			return this;
+		}
+		return new ListValue<>(assoc(root, shift, index, value), shift, size);
+	}
+
+	/**
+	 * @return a list like this one, except with <code>value</code> appended
+	 */
+	public final ListValue<T> plus(T value) {
+		Object[] newRoot = root;
+		int newShift = shift;
+		if (size != 0 && (size >>> (shift + BITS)) != 0) {
+			newRoot = new Object[]{ root };
+			newShift += BITS;
+		}
+		return new ListValue<>(assoc(newRoot, newShift, size, value), newShift, size + 1);
+	}
+
+	/**
+	 * Removing the last entry shares structure like {@link #with} does;
+	 * removing any other entry must shift all subsequent entries,
+	 * and so takes time proportional to the size of the list.
+	 *
+	 * @return a list like this one, except without the entry at <code>index</code>
+	 * @throws IndexOutOfBoundsException if <code>index</code> is not less than {@link #size()}
+	 */
+	public final ListValue<T> minus(int index) {
+		Objects.checkIndex(index, size);
+		if (size == 1) {
+			return empty();
+		} else if (index == size - 1) {
+			Object[] newRoot = truncated(root, shift, index);
+			int newShift = shift;
+			while (newShift > 0 && newRoot.length == 1) {
+				newRoot = (Object[]) newRoot[0];
+				newShift -= BITS;
+			}
+			return new ListValue<>(newRoot, newShift, index);
+		} else {
+			Builder<T> builder = builder();
+			for (int i = 0; i < size; i++) {
+				if (i != index) {
+					builder.add(get(i));
+				}
+			}
+			return builder.build();
+		}
 	}
 
 	@Override
-	public final T[] toArray() {
-		return Arrays.copyOf(entries, entries.length);
+	@SuppressWarnings("unchecked")
+	public final void forEach(Consumer<? super T> action) {
+		forEachEntry(root, shift, (Consumer<Object>) action);
+	}
+
+	/**
+	 * Note that the runtime type of the returned array is <code>Object[]</code>
+	 * regardless of the type of the entries.
+	 */
+	@Override
+	public final Object[] toArray() {
+		Object[] result = new Object[size];
+		int[] i = {0};
+		forEachEntry(root, shift, e -> result[i[0]++] = e);
+		return result;
 	}
 
 	@Override
 	public final String toString() {
-		return Arrays.toString(entries);
+		return Arrays.toString(toArray());
 	}
 
 	@Override
@@ -97,7 +252,9 @@ public class ListValue<T> extends AbstractList<T> {
 		if (this == o) {
 			return true;
 		} else if (o instanceof ListValue<?> listValue) {
-			return Arrays.equals(entries, listValue.entries);
+			return size == listValue.size
+				&& shift == listValue.shift
+				&& nodesEqual(root, listValue.root, shift);
 		}
 
 		// Fall back on the canonical implementation
@@ -108,7 +265,9 @@ public class ListValue<T> extends AbstractList<T> {
 	public int hashCode() {
 		// Returns the same answer as AbstractList.hashCode, but should
 		// be faster because it doesn't need to instantiate an iterator.
-		return Arrays.hashCode(entries);
+		int[] result = {1};
+		forEachEntry(root, shift, e -> result[0] = 31 * result[0] + Objects.hashCode(e));
+		return result[0];
 	}
 
 	public static <TT>
@@ -121,7 +280,99 @@ public class ListValue<T> extends AbstractList<T> {
 			finisher);
 	}
 
+	//
+	// Vector
+	//
+
+	private static final int BITS = 5;
+	private static final int WIDTH = 1 << BITS;
+	private static final int MASK = WIDTH - 1;
+	private static final Object[] EMPTY_NODE = new Object[0];
+
+	private Object[] leafFor(int index) {
+		Object[] node = root;
+		for (int s = shift; s > 0; s -= BITS) {
+			node = (Object[]) node[(index >>> s) & MASK];
+		}
+		return node;
+	}
+
+	/**
+	 * @return a node at <code>shift</code> holding <code>entries[from]</code> through <code>entries[to-1]</code>
+	 */
+	private static Object[] subtree(Object[] entries, int from, int to, int shift) {
+		if (shift == 0) {
+			return Arrays.copyOfRange(entries, from, to, Object[].class);
+		}
+		int childSpan = 1 << shift;
+		Object[] result = new Object[(to - from + childSpan - 1) >>> shift];
+		for (int i = 0; i < result.length; i++) {
+			int childFrom = from + (i << shift);
+			result[i] = subtree(entries, childFrom, Math.min(childFrom + childSpan, to), shift - BITS);
+		}
+		return result;
+	}
+
+	/**
+	 * Nodes are only as large as they need to be, so small lists stay small.
+	 *
+	 * @return a copy of <code>node</code> with <code>value</code> at <code>index</code>
+	 */
+	private static Object[] assoc(Object @Nullable [] node, int shift, int index, @Nullable Object value) {
+		int i = (index >>> shift) & MASK;
+		Object[] result = (node == null) ? new Object[i + 1] : Arrays.copyOf(node, Math.max(node.length, i + 1));
+		if (shift == 0) {
+			result[i] = value;
+		} else {
+			result[i] = assoc((Object[]) result[i], shift - BITS, index, value);
+		}
+		return result;
+	}
+
+	/**
+	 * @return a copy of <code>node</code> holding only the first <code>newSize</code> entries,
+	 * sharing all but the rightmost path
+	 */
+	private static Object[] truncated(Object[] node, int shift, int newSize) {
+		int lastIndex = newSize - 1;
+		int i = (lastIndex >>> shift) & MASK;
+		Object[] result = Arrays.copyOf(node, i + 1);
+		if (shift != 0) {
+			result[i] = truncated((Object[]) node[i], shift - BITS, newSize);
+		}
+		return result;
+	}
+
+	private static void forEachEntry(Object[] node, int shift, Consumer<Object> action) {
+		if (shift == 0) {
+			for (Object entry : node) {
+				action.accept(entry);
+			}
+		} else {
+			for (Object child : node) {
+				forEachEntry((Object[]) child, shift - BITS, action);
+			}
+		}
+	}
+
+	/**
+	 * Relies on the fact that lists of the same size have the same shape.
+	 */
+	private static boolean nodesEqual(Object[] node, Object[] other, int shift) {
+		if (node == other) {
+			return true;
+		} else if (shift == 0) {
+			return Arrays.equals(node, other);
+		}
+		for (int i = 0; i < node.length; i++) {
+			if (!nodesEqual((Object[]) node[i], (Object[]) other[i], shift - BITS)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@SuppressWarnings("rawtypes")
-	private static final ListValue EMPTY = new ListValue<>(new Object[0]);
+	private static final ListValue EMPTY = new ListValue<>(EMPTY_NODE, 0, 0);
 
 }
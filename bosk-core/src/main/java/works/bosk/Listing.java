@@ -15,13 +15,12 @@ import java.util.function.Function;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
-import org.pcollections.OrderedPSet;
+import org.jspecify.annotations.Nullable;
 import works.bosk.exceptions.NonexistentReferenceException;
 
 import static java.util.Collections.unmodifiableList;
 import static java.util.Collections.unmodifiableMap;
-import static java.util.Collections.unmodifiableSet;
-import static java.util.stream.Collectors.toList;
+import static works.bosk.ListingEntry.LISTING_ENTRY;
 
 /**
  * An immutable ordered collection of references to {@link Entity entities}
@@ -32,13 +31,26 @@ import static java.util.stream.Collectors.toList;
  */
 public final class Listing<E extends Entity> extends AbstractCollection<Reference<E>> {
 	private final CatalogReference<E> domain;
-	private final OrderedPSet<Identifier> ids;
+	private final PersistentOrderedMap<Identifier, ListingEntry> ids;
 
-	Listing(CatalogReference<E> domain, OrderedPSet<Identifier> ids) {
+	Listing(CatalogReference<E> domain, PersistentOrderedMap<Identifier, ListingEntry> ids) {
 		this.domain = domain;
 		this.ids = ids;
 	}
 
+	/**
+	 * A listing is just a set of IDs, but we store it as a map
+	 * so it can share an implementation with the other containers.
+	 * Duplicate IDs are silently deduplicated.
+	 */
+	static PersistentOrderedMap<Identifier, ListingEntry> idMap(Iterable<Identifier> ids) {
+		PersistentOrderedMap.Builder<Identifier, ListingEntry> result = PersistentOrderedMap.builder();
+		for (Identifier id : ids) {
+			result.put(id, LISTING_ENTRY);
+		}
+		return result.build();
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (o == null || getClass() != o.getClass()) {
@@ -50,7 +62,7 @@ public final class Listing<E extends Entity> extends AbstractCollection<Referenc
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(domain, ids);
+		return Objects.hash(domain, ids.keySet());
 	}
 
 	/**
@@ -62,7 +74,7 @@ public final class Listing<E extends Entity> extends AbstractCollection<Referenc
 
 	@Override
 	public String toString() {
-		return domain + "/" + ids;
+		return domain + "/" + ids.keySet();
 	}
 
 	//
@@ -86,7 +98,7 @@ public final class Listing<E extends Entity> extends AbstractCollection<Referenc
 		Reference<?> reference = (Reference<?>) o;
 		return domain.encloses(reference)
 			&& reference.path().truncatedBy(1).equals(domain.path())
-			&& ids.contains(Identifier.from(reference.path().lastSegment()));
+			&& ids.containsKey(Identifier.from(reference.path().lastSegment()));
 	}
 
 	//
@@ -94,19 +106,35 @@ public final class Listing<E extends Entity> extends AbstractCollection<Referenc
 	//
 
 	public Collection<Identifier> ids() {
-		return unmodifiableSet(ids);
+		return ids.keySet();
 	}
 
 	public boolean containsID(Identifier id) {
-		return ids.contains(id);
+		return ids.containsKey(id);
 	}
 
 	public Stream<Identifier> idStream() {
-		return ids.stream();
+		return ids.keySet().stream();
+	}
+
+	/**
+	 * Calls {@code visitor} for each ID that was added or removed since {@code prior}.
+	 * A listing entry has no value of its own, so {@link ListingEntry#LISTING_ENTRY} is passed as the value,
+	 * and {@link EntryChangeVisitor#changed changed} is never called.
+	 *
+	 * @param prior an earlier version of this listing, or null to report every entry as added
+	 * @see Catalog#forEachChangeSince
+	 */
+	public void forEachChangeSince(@Nullable Listing<E> prior, EntryChangeVisitor<Identifier, ? super ListingEntry> visitor) {
+		ContainerDiffs.forEachChange((prior == null) ? null : prior.ids, ids, visitor);
+	}
+
+	PersistentOrderedMap<Identifier, ListingEntry> idMap() {
+		return ids;
 	}
 
 	public Listing<E> withID(Identifier id) {
-		return new Listing<>(domain, ids.plus(id));
+		return new Listing<>(domain, ids.plus(id, LISTING_ENTRY));
 	}
 
 	public Listing<E> withoutID(Identifier id) {
@@ -114,7 +142,11 @@ public final class Listing<E extends Entity> extends AbstractCollection<Referenc
 	}
 
 	public Listing<E> withAllIDs(Stream<Identifier> idsToAdd) {
-		return new Listing<>(domain, ids.plusAll(idsToAdd.collect(toList())));
+		PersistentOrderedMap<Identifier, ListingEntry> result = ids;
+		for (Identifier id : (Iterable<Identifier>) idsToAdd::iterator) {
+			result = result.plus(id, LISTING_ENTRY);
+		}
+		return new Listing<>(domain, result);
 	}
 
 	//
@@ -137,7 +169,7 @@ public final class Listing<E extends Entity> extends AbstractCollection<Referenc
 
 	@Override
 	public Iterator<Reference<E>> iterator() {
-		Iterator<Identifier> idIter = ids.iterator();
+		Iterator<Identifier> idIter = ids.keySet().iterator();
 		return new Iterator<>() {
 			@Override
 			public boolean hasNext() {
@@ -167,7 +199,7 @@ public final class Listing<E extends Entity> extends AbstractCollection<Referenc
 	 * or does not contain an entity of the given <code>id</code>
 	 */
 	public E getValue(Identifier id) {
-		if (ids.contains(id)) {
+		if (ids.containsKey(id)) {
 			return getOrThrow(domain.value(), id);
 		} else {
 			return null;
@@ -179,7 +211,7 @@ public final class Listing<E extends Entity> extends AbstractCollection<Referenc
 	}
 
 	public Spliterator<E> valueSpliterator() {
-		return new DomainLookupSpliterator(ids.spliterator(), domain.value());
+		return new DomainLookupSpliterator(ids.keySet().spliterator(), domain.value());
 	}
 
 	public Iterable<E> values() {
@@ -196,7 +228,7 @@ public final class Listing<E extends Entity> extends AbstractCollection<Referenc
 
 			@Override
 			public Spliterator<E> spliterator() {
-				return new DomainLookupSpliterator(ids.spliterator(), domain);
+				return new DomainLookupSpliterator(ids.keySet().spliterator(), domain);
 			}
 
 			@Override
@@ -218,7 +250,7 @@ public final class Listing<E extends Entity> extends AbstractCollection<Referenc
 
 	public Map<Identifier, E> valueMap() {
 		Map<Identifier, E> result = new LinkedHashMap<>();
-		for (Identifier id : ids) {
+		for (Identifier id : ids.keySet()) {
 			result.put(id, getOrThrow(domain.value(), id));
 		}
 		return unmodifiableMap(result);
@@ -229,7 +261,7 @@ public final class Listing<E extends Entity> extends AbstractCollection<Referenc
 	//
 
 	public static <TT extends Entity> Listing<TT> empty(Reference<Catalog<TT>> domain) {
-		return new Listing<>(CatalogReference.from(domain), OrderedPSet.empty());
+		return new Listing<>(CatalogReference.from(domain), PersistentOrderedMap.empty());
 	}
 
 	public static <TT extends Entity> Listing<TT> of(Reference<Catalog<TT>> domain, Identifier... ids) {
@@ -237,11 +269,50 @@ public final class Listing<E extends Entity> extends AbstractCollection<Referenc
 	}
 
 	public static <TT extends Entity> Listing<TT> of(Reference<Catalog<TT>> domain, Collection<Identifier> ids) {
-		return new Listing<>(CatalogReference.from(domain), OrderedPSet.from(ids));
+		return new Listing<>(CatalogReference.from(domain), idMap(ids));
 	}
 
 	public static <TT extends Entity> Listing<TT> of(Reference<Catalog<TT>> domain, Stream<Identifier> ids) {
-		return of(domain, ids.collect(toList()));
+		return new Listing<>(CatalogReference.from(domain), idMap(ids::iterator));
+	}
+
+	/**
+	 * For constructing a large listing one id at a time,
+	 * without the overhead of creating an intermediate listing for each one.
+	 */
+	public static <TT extends Entity> Builder<TT> builder(Reference<Catalog<TT>> domain) {
+		return new Builder<>(CatalogReference.from(domain));
+	}
+
+	/**
+	 * Accumulates ids in order, and then produces a {@link Listing} containing them.
+	 * Duplicate IDs are silently deduplicated.
+	 * Cannot be used after {@link #build()} has been called.
+	 */
+	public static final class Builder<E extends Entity> {
+		private final CatalogReference<E> domain;
+		private final PersistentOrderedMap.Builder<Identifier, ListingEntry> ids = PersistentOrderedMap.builder();
+
+		private Builder(CatalogReference<E> domain) {
+			this.domain = domain;
+		}
+
+		public Builder<E> add(Identifier id) {
+			ids.put(id, LISTING_ENTRY);
+			return this;
+		}
+
+		public boolean containsID(Identifier id) {
+			return ids.containsKey(id);
+		}
+
+		public int size() {
+			return ids.size();
+		}
+
+		public Listing<E> build() {
+			return new Listing<>(domain, ids.build());
+		}
 	}
 
 	//
@@ -258,10 +329,10 @@ public final class Listing<E extends Entity> extends AbstractCollection<Referenc
 		Function<? super T, Identifier> idMapper
 	) {
 		class Accumulator {
-			OrderedPSet<Identifier> ids = OrderedPSet.empty();
-			void accumulate(T item) { ids = ids.plus(idMapper.apply(item)); }
+			PersistentOrderedMap<Identifier, ListingEntry> ids = PersistentOrderedMap.empty();
+			void accumulate(T item) { ids = ids.plus(idMapper.apply(item), LISTING_ENTRY); }
 			Accumulator combine(Accumulator other) { ids = ids.plusAll(other.ids); return this; }
-			Listing<EE> finish() { return Listing.of(domain, ids); }
+			Listing<EE> finish() { return new Listing<>(CatalogReference.from(domain), ids); }
 		}
 		return Collector.of(
 			Accumulator::new,
@@ -284,7 +355,13 @@ public final class Listing<E extends Entity> extends AbstractCollection<Referenc
 	 * <code>this</code>.
 	 */
 	public Listing<E> filteredBy(Listing<E> other) {
-		return new Listing<>(domain, ids.intersect(other.ids));
+		PersistentOrderedMap<Identifier, ListingEntry> result = ids;
+		for (Identifier id : ids.keySet()) {
+			if (!other.ids.containsKey(id)) {
+				result = result.minus(id);
+			}
+		}
+		return new Listing<>(domain, result);
 	}
 
 	//
@@ -292,7 +369,7 @@ public final class Listing<E extends Entity> extends AbstractCollection<Referenc
 	//
 
 	private Iterator<E> valueIteratorImpl(AddressableByIdentifier<E> domain) {
-		Iterator<Identifier> iter = ids.iterator();
+		Iterator<Identifier> iter = ids.keySet().iterator();
 		return new Iterator<>() {
 			@Override
 			public boolean hasNext() {
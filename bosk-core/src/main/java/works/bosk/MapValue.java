@@ -1,7 +1,6 @@
 package works.bosk;
 
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -9,7 +8,7 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collector;
-import org.pcollections.OrderedPMap;
+import org.jspecify.annotations.Nullable;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Objects.requireNonNull;
@@ -33,9 +32,9 @@ import static java.util.Objects.requireNonNull;
  * @author pdoyle
  */
 public final class MapValue<V> implements Map<String, V> {
-	private final OrderedPMap<String, V> contents;
+	private final PersistentOrderedMap<String, V> contents;
 
-	private MapValue(OrderedPMap<String, V> contents) {
+	private MapValue(PersistentOrderedMap<String, V> contents) {
 		this.contents = contents;
 	}
 
@@ -45,19 +44,19 @@ public final class MapValue<V> implements Map<String, V> {
 	}
 
 	public static <VV> MapValue<VV> singleton(String key, VV value) {
-		return new MapValue<>(OrderedPMap.singleton(key, value));
+		return new MapValue<>(PersistentOrderedMap.<String, VV>empty().plus(key, value));
 	}
 
 	public static <VV> MapValue<VV> fromFunction(Iterable<String> keys, Function<String, VV> valueFunction) {
-		LinkedHashMap<String, VV> map = new LinkedHashMap<>();
+		PersistentOrderedMap.Builder<String, VV> map = PersistentOrderedMap.builder();
 		keys.forEach(key -> addToMap(map, key, valueFunction.apply(key)));
-		return new MapValue<>(OrderedPMap.from(map));
+		return new MapValue<>(map.build());
 	}
 
 	public static <VV> MapValue<VV> fromFunctions(Iterable<String> keys, Function<String, String> keyFunction, Function<String, VV> valueFunction) {
-		LinkedHashMap<String, VV> map = new LinkedHashMap<>();
+		PersistentOrderedMap.Builder<String, VV> map = PersistentOrderedMap.builder();
 		keys.forEach(key -> addToMap(map, keyFunction.apply(key), valueFunction.apply(key)));
-		return new MapValue<>(OrderedPMap.from(map));
+		return new MapValue<>(map.build());
 	}
 
 	/**
@@ -72,12 +71,43 @@ public final class MapValue<V> implements Map<String, V> {
 	 * Preserves the order, if any, of the entries in <code>map</code>.
 	 */
 	public static <VV> MapValue<VV> copyOf(Map<String, ? extends VV> contents) {
-		OrderedPMap<String, VV> map = OrderedPMap.from(contents);
-		map.forEach((k, v) -> {
-			requireNonNull(k);
-			requireNonNull(v);
-		});
-		return new MapValue<>(map);
+		return new MapValue<>(PersistentOrderedMap.copyOf(contents));
+	}
+
+	/**
+	 * For constructing a large map one entry at a time,
+	 * without the overhead of creating an intermediate map for each one.
+	 */
+	public static <VV> Builder<VV> builder() {
+		return new Builder<>();
+	}
+
+	/**
+	 * Accumulates entries in order, and then produces a {@link MapValue} containing them.
+	 * Putting a key that is already present replaces its value without changing its position.
+	 * Cannot be used after {@link #build()} has been called.
+	 */
+	public static final class Builder<V> {
+		private final PersistentOrderedMap.Builder<String, V> contents = PersistentOrderedMap.builder();
+
+		private Builder() {}
+
+		public Builder<V> put(String key, V value) {
+			contents.put(key, value);
+			return this;
+		}
+
+		public boolean containsKey(String key) {
+			return contents.containsKey(key);
+		}
+
+		public int size() {
+			return contents.size();
+		}
+
+		public MapValue<V> build() {
+			return new MapValue<>(contents.build());
+		}
 	}
 
 	/**
@@ -91,10 +121,10 @@ public final class MapValue<V> implements Map<String, V> {
 		Function<? super T, ? extends VV> valueMapper
 	) {
 		class Accumulator {
-			OrderedPMap<String, VV> map = OrderedPMap.empty();
+			PersistentOrderedMap<String, VV> map = PersistentOrderedMap.empty();
 			void accumulate(T item) { map = map.plus(keyMapper.apply(item), valueMapper.apply(item)); }
 			Accumulator combine(Accumulator other) { map = map.plusAll(other.map); return this; }
-			MapValue<VV> finish() { return MapValue.copyOf(map); }
+			MapValue<VV> finish() { return new MapValue<>(map); }
 		}
 		return Collector.of(
 			Accumulator::new,
@@ -104,13 +134,24 @@ public final class MapValue<V> implements Map<String, V> {
 		);
 	}
 
-	private static <VV> void addToMap(LinkedHashMap<String, VV> map, String key, VV newValue) {
+	private static <VV> void addToMap(PersistentOrderedMap.Builder<String, VV> map, String key, VV newValue) {
 		VV existingValue = map.put(requireNonNull(key), requireNonNull(newValue));
 		if (existingValue != null && existingValue != newValue) {
 			throw new IllegalArgumentException("Two different values for the same key \"" + key + "\"");
 		}
 	}
 
+	/**
+	 * Calls {@code visitor} for each entry that differs between {@code prior} and this map.
+	 * Values are compared by object identity.
+	 *
+	 * @param prior an earlier version of this map, or null to report every entry as added
+	 * @see Catalog#forEachChangeSince
+	 */
+	public void forEachChangeSince(@Nullable MapValue<V> prior, EntryChangeVisitor<String, ? super V> visitor) {
+		ContainerDiffs.forEachChange((prior == null) ? null : prior.contents, contents, visitor);
+	}
+
 	public MapValue<V> with(String name, V value) {
 		if (get(name) == value) {
 			return this;
@@ -4,6 +4,7 @@ import java.lang.ref.WeakReference;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -44,12 +45,61 @@ import static java.util.stream.Collectors.toList;
  * methods have a low cost comparable to the identity-based implementations inherited
  * from {@link Object}.
  *
+ * <p>
+ * Each Path holds all its segments, and all its prefixes, in arrays,
+ * so segment access and truncation take constant time,
+ * and comparisons don't need to walk the path one step at a time.
+ * Segment strings are interned too, so they can be compared by identity.
+ *
  * @author pdoyle
  */
-public abstract class Path implements Iterable<String> {
-	Path(){}
+public final class Path implements Iterable<String> {
+	private final String[] segments;
+
+	/**
+	 * {@code prefixes[i]} is this path truncated to {@code i} segments.
+	 */
+	private final Path[] prefixes;
+
+	private final boolean[] isParameter;
+	private final int numParameters;
+
+	/**
+	 * -1 if {@link #numParameters} is zero.
+	 */
+	private final int firstParameterIndex;
 
-	public abstract int length();
+	private final int hash;
+
+	/**
+	 * Creates the root path.
+	 */
+	private Path() {
+		this.segments = new String[0];
+		this.prefixes = new Path[0];
+		this.isParameter = new boolean[0];
+		this.numParameters = 0;
+		this.firstParameterIndex = -1;
+		this.hash = 1;
+	}
+
+	private Path(Path prefix, String segment) {
+		int index = prefix.length();
+		boolean parameter = isParameterSegment(segment);
+		this.segments = Arrays.copyOf(prefix.segments, index + 1);
+		this.segments[index] = segment.intern();
+		this.prefixes = Arrays.copyOf(prefix.prefixes, index + 1);
+		this.prefixes[index] = prefix;
+		this.isParameter = Arrays.copyOf(prefix.isParameter, index + 1);
+		this.isParameter[index] = parameter;
+		this.numParameters = prefix.numParameters + (parameter ? 1 : 0);
+		this.firstParameterIndex = (parameter && prefix.numParameters == 0) ? index : prefix.firstParameterIndex;
+		this.hash = 31 * prefix.hash + segment.hashCode();
+	}
+
+	public int length() {
+		return segments.length;
+	}
 
 	public final boolean isEmpty() { return length() == 0; }
 
@@ -149,22 +199,25 @@ public abstract class Path implements Iterable<String> {
 	 * @throws MalformedPathException if <code>segments</code> contains an invalid path segment.
 	 */
 	public final Path then(List<String> segments) {
-		if (segments.isEmpty()) {
-			return this;
-		} else {
-			String firstSegment = validSegment(segments.getFirst());
-			if (isParameterSegment(firstSegment)) {
-				if (segmentStream().anyMatch(firstSegment::equals)) {
-					throw new MalformedPathException("Duplicate path parameter \"" + firstSegment + "\"");
+		Path result = this;
+		for (String segment: segments) {
+			result = result.thenSegment(segment);
+		}
+		return result;
+	}
+
+	private Path thenSegment(String segment) {
+		String validSegment = validSegment(segment);
+		if (isParameterSegment(validSegment)) {
+			for (String existing: segments) {
+				if (existing.equals(validSegment)) {
+					throw new MalformedPathException("Duplicate path parameter \"" + validSegment + "\"");
 				}
 			}
-			List<String> remainder = segments.subList(1, segments.size());
-			return INTERNER
-				.apply(
-					new InternKey(this, firstSegment),
-					() -> new NestedPath(this, firstSegment))
-				.then(remainder);
 		}
+		return INTERNER.apply(
+			new InternKey(this, validSegment),
+			() -> new Path(this, validSegment));
 	}
 
 	/**
@@ -219,7 +272,7 @@ public abstract class Path implements Iterable<String> {
 		} else if (droppedSegments > length()) {
 			throw new IllegalArgumentException("Cannot truncate " + droppedSegments + " segments from path of length " + length() + ": " + this);
 		} else {
-			return truncatedByImpl(droppedSegments);
+			return prefixes[length() - droppedSegments];
 		}
 	}
 
@@ -238,29 +291,74 @@ public abstract class Path implements Iterable<String> {
 	public final boolean matches(Path other) {
 		if (this == other) {
 			return true;
-		} else if (this.length() == other.length()) {
-			return matchesImpl(other);
-		} else {
+		} else if (this.length() != other.length()) {
 			return false;
 		}
+		for (int i = segments.length - 1; i >= 0; i--) {
+			// Interned segments are equal only if they're identical.
+			// If either segment is a parameter, the other one doesn't matter:
+			// by appropriate choice of binding, we could make them equal.
+			if (this.segments[i] != other.segments[i] && !this.isParameter[i] && !other.isParameter[i]) {
+				return false;
+			} else if (this.prefixes[i] == other.prefixes[i]) {
+				// The rest is identical
+				return true;
+			}
+		}
+		return true;
 	}
 
 	public final String segment(int index) {
-		return this.truncatedBy(length()-1-index).lastSegment();
+		if (0 <= index && index < segments.length) {
+			return segments[index];
+		} else {
+			throw new IllegalArgumentException("No segment " + index + " in path of length " + length() + ": " + this);
+		}
 	}
 
 	/**
 	 * @return the rightmost segment
 	 * @throws IllegalArgumentException if {@link #isEmpty()}
 	 */
-	public abstract String lastSegment();
+	public String lastSegment() {
+		if (isEmpty()) {
+			throw new IllegalArgumentException("Root path has no lastSegment");
+		} else {
+			return segments[segments.length - 1];
+		}
+	}
 
-	public abstract int numParameters();
+	public int numParameters() {
+		return numParameters;
+	}
 
 	/**
 	 * @throws IllegalArgumentException if {@link #numParameters()} is 0
 	 */
-	public abstract int firstParameterIndex();
+	public int firstParameterIndex() {
+		if (numParameters == 0) {
+			throw new IllegalArgumentException("Path has no parameters");
+		} else {
+			return firstParameterIndex;
+		}
+	}
+
+	/**
+	 * Paths are interned, so equal paths are identical.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return this == obj;
+	}
+
+	/**
+	 * Computed when the path is created. Equals the {@link List#hashCode} of the segments,
+	 * so it is consistent from one run to the next.
+	 */
+	@Override
+	public int hashCode() {
+		return hash;
+	}
 
 	@Override
 	public final String toString() {
@@ -269,19 +367,13 @@ public abstract class Path implements Iterable<String> {
 
 	@Override
 	public final Iterator<String> iterator() {
-		return segmentStream().iterator();
+		return asList(segments).iterator();
 	}
 
 	public final Stream<String> segmentStream() {
-		Stream.Builder<String> builder = Stream.builder();
-		addSegmentsTo(builder);
-		return builder.build();
+		return Arrays.stream(segments);
 	}
 
-	protected abstract void addSegmentsTo(Stream.Builder<String> builder);
-	protected abstract Path truncatedByImpl(int n);
-	protected abstract boolean matchesImpl(Path other);
-
 	public final BindingEnvironment parametersFrom(Path definitePath) {
 		assert definitePath.numParameters() == 0: "Parameter " + definitePath.segment(definitePath.firstParameterIndex()) + " must be bound";
 		int commonLength = Math.min(length(), definitePath.length());
@@ -290,20 +382,50 @@ public abstract class Path implements Iterable<String> {
 		assert thisTruncated.matches(definitePathTruncated): "Path mismatch: " + this + " vs " + definitePath;
 
 		BindingEnvironment.Builder result = BindingEnvironment.empty().builder();
-		thisTruncated.addParametersTo(result, definitePathTruncated);
+		for (int i = 0; i < commonLength; i++) {
+			if (isParameter[i]) {
+				result.bind(parameterNameFromSegment(segments[i]), Identifier.from(definitePath.segments[i]));
+			}
+		}
 		return result.build();
 	}
 
 	/**
-	 * Requires <code>definitePath.length()</code> equals {@link #length() this.length()}.
+	 * @param bindings provides values for zero or more parameters. <code>bindings</code> may leave some parameters unbound, and may provide bindings for names not present in this Path.
+	 * @return {@link Path} with parameters substituted for the IDs provided in <code>bindings</code> if any
 	 */
-	protected abstract void addParametersTo(BindingEnvironment.Builder builder, Path definitePath);
+	public Path boundBy(BindingEnvironment bindings) {
+		if (numParameters == 0) {
+			return this;
+		}
+		// Everything before the first bound parameter stays the same
+		int firstBound = firstParameterIndex;
+		while (firstBound < segments.length && boundSegment(firstBound, bindings) == segments[firstBound]) {
+			firstBound++;
+		}
+		if (firstBound == segments.length) {
+			return this;
+		}
+		Path result = prefixes[firstBound];
+		for (int i = firstBound; i < segments.length; i++) {
+			result = result.thenSegment(boundSegment(i, bindings));
+		}
+		return result;
+	}
 
 	/**
-	 * @param bindings provides values for zero or more parameters. <code>bindings</code> may leave some parameters unbound, and may provide bindings for names not present in this Path.
-	 * @return {@link Path} with parameters substituted for the IDs provided in <code>bindings</code> if any
+	 * @return the bound ID's string if segment {@code index} is a bound parameter;
+	 * otherwise, the segment itself
 	 */
-	public abstract Path boundBy(BindingEnvironment bindings);
+	private String boundSegment(int index, BindingEnvironment bindings) {
+		if (isParameter[index]) {
+			Identifier id = bindings.getOrDefault(parameterNameFromSegment(segments[index]), null);
+			if (id != null) {
+				return id.toString();
+			}
+		}
+		return segments[index];
+	}
 
 	/**
 	 * @return a BindingEnvironment sideTable the parameters in this path, in order, to the given <code>ids</code>.
@@ -401,150 +523,7 @@ public abstract class Path implements Iterable<String> {
 			|| (ch == '_');
 	}
 
-	/**
-	 * A {@link Path} that isn't the root path <code>"/"</code>.
-	 * Implemented as a linked list.
-	 */
-	private static final class NestedPath extends Path {
-		private final Path prefix;
-		private final String segment;
-		private final int length;
-
-		public NestedPath(Path prefix, String segment) {
-			this.prefix = prefix;
-			this.segment = segment;
-			this.length = 1 + prefix.length();
-		}
-
-		@Override public int length() { return length; }
-		@Override public String lastSegment() { return segment; }
-
-		@Override
-		public int numParameters() {
-			return prefix.numParameters() + ((isParameterSegment(segment))? 1 : 0);
-		}
-
-		@Override
-		public int firstParameterIndex() {
-			// This is a cumbersome little method. It walks the whole linked list multiple times.
-			// Not super elegant.
-			if (prefix.numParameters() >= 1) {
-				return prefix.firstParameterIndex();
-			} else if (isParameterSegment(segment)) {
-				return prefix.length();
-			} else {
-				throw new IllegalArgumentException("Path has no parameters");
-			}
-		}
-
-		@Override
-		public Path boundBy(BindingEnvironment bindings) {
-			Path newPrefix = prefix.boundBy(bindings);
-			if (isParameterSegment(segment)) {
-				Identifier id = bindings.getOrDefault(parameterNameFromSegment(segment), null);
-				if (id != null) {
-					return newPrefix.then(id.toString());
-				}
-			}
-			return newPrefix.then(segment);
-		}
-
-		@Override
-		protected void addSegmentsTo(Stream.Builder<String> builder) {
-			prefix.addSegmentsTo(builder);
-			builder.add(segment);
-		}
-
-		@Override
-		protected void addParametersTo(BindingEnvironment.Builder builder, Path definitePath) {
-			assert length() == definitePath.length();
-			prefix.addParametersTo(builder, definitePath.truncatedBy(1));
-			if (isParameterSegment(segment)) {
-				builder.bind(parameterNameFromSegment(segment), Identifier.from(definitePath.lastSegment()));
-			}
-		}
-
-		@Override
-		protected Path truncatedByImpl(int n) {
-			if (n == 0) {
-				return this;
-			} else {
-				return prefix.truncatedByImpl(n-1);
-			}
-		}
-
-		@Override
-		protected boolean matchesImpl(Path other) {
-			assert this.length() == other.length();
-			if (this == other) {
-				return true;
-			} else if (lastSegmentMatches(other.lastSegment())) {
-				return prefix.matchesImpl(other.truncatedBy(1));
-			} else {
-				return false;
-			}
-		}
-
-		private boolean lastSegmentMatches(String otherSegment) {
-			if (lastSegment().equals(otherSegment)) {
-				// Either both are the same parameter, or they are two equal non-parameter strings
-				return true;
-			} else {
-				// If either segment is a parameter, the other one doesn't matter:
-				// by appropriate choice of binding, we could make them equal.
-				return isParameterSegment(lastSegment()) || isParameterSegment(otherSegment);
-			}
-		}
-
-	}
-
-	/**
-	 * Special subclass of {@link Path} representing the root path <code>"/"</code>.
-	 *
-	 * <p>
-	 * Implementing this as its own subclass prevents lots of
-	 * corner-case <code>if</code> statements elsewhere.
-	 */
-	private static final class RootPath extends Path {
-		@Override public int length() { return 0; }
-
-		@Override protected void addSegmentsTo(Stream.Builder<String> builder) { }
-		@Override protected void addParametersTo(BindingEnvironment.Builder builder, Path definitePath) { assert definitePath.isEmpty(); }
-
-		@Override
-		public int numParameters() {
-			return 0;
-		}
-
-		@Override
-		public int firstParameterIndex() {
-			throw new IllegalArgumentException("Path has no parameters");
-		}
-
-		@Override
-		public Path boundBy(BindingEnvironment bindings) {
-			return this;
-		}
-
-		@Override
-		public String lastSegment() {
-			throw new IllegalArgumentException("Root path has no lastSegment");
-		}
-
-		@Override
-		protected Path truncatedByImpl(int n) {
-			assert n == 0: "Should never be called with any value of n other than 0";
-			return this;
-		}
-
-		@Override
-		protected boolean matchesImpl(Path other) {
-			assert other.isEmpty(): "Should never be called with a path of a different length";
-			return true;
-		}
-	}
-
-	private static final Path ROOT_PATH = new RootPath();
+	private static final Path ROOT_PATH = new Path();
 
 	private static final Interner<InternKey, Path> INTERNER = new Interner<>();
 
@@ -0,0 +1,919 @@
+package works.bosk;
+
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import org.jspecify.annotations.Nullable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable {@link Map} that iterates in insertion order,
+ * underlying {@link Catalog}, {@link SideTable}, {@link Listing} and {@link MapValue}.
+ *
+ * <p>
+ * The entries live in a persistent vector: a 32-way radix tree indexed by <em>position</em>,
+ * whose leaves hold keys and values in alternating slots.
+ * A CHAMP hash trie maps each key to its position.
+ * <ul>
+ *     <li>
+ *         Replacing the value of an existing key copies one path of the vector,
+ *         and doesn't touch the trie at all.
+ *     </li>
+ *     <li>
+ *         Adding a key appends it to the vector and adds it to the trie.
+ *     </li>
+ *     <li>
+ *         Removing a key leaves its slot vacant.
+ *         Once more than half the slots are vacant, the map is rebuilt without them.
+ *     </li>
+ * </ul>
+ *
+ * <p>
+ * Because entries keep their positions, two versions of the same map
+ * share every vector node in which nothing has changed,
+ * and {@link #forEachEntryDifferentFrom} can skip those nodes without looking inside.
+ *
+ * <p>
+ * Neither keys nor values may be null.
+ */
+final class PersistentOrderedMap<K, V> extends AbstractMap<K, V> {
+	private final TrieNode trie;
+	private final Object @Nullable [] vectorRoot;
+	private final int vectorShift;
+	private final int length; // Number of slots in use, including vacant ones
+	private final int size;
+
+	/**
+	 * When there are vacant slots, positions don't correspond to indexes,
+	 * so {@link KeyList#get} builds this on first use.
+	 * Volatile so other threads never see the array before its contents.
+	 */
+	private volatile Object @Nullable [] keysByIndex;
+
+	private PersistentOrderedMap(TrieNode trie, Object @Nullable [] vectorRoot, int vectorShift, int length, int size) {
+		this.trie = trie;
+		this.vectorRoot = vectorRoot;
+		this.vectorShift = vectorShift;
+		this.length = length;
+		this.size = size;
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static final PersistentOrderedMap EMPTY = new PersistentOrderedMap<>(BitmapNode.EMPTY, null, 0, 0, 0);
+
+	@SuppressWarnings("unchecked")
+	static <KK, VV> PersistentOrderedMap<KK, VV> empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Preserves the order, if any, of the entries in {@code map}.
+	 */
+	static <KK, VV> PersistentOrderedMap<KK, VV> copyOf(Map<? extends KK, ? extends VV> map) {
+		Builder<KK, VV> builder = builder();
+		map.forEach(builder::put);
+		return builder.build();
+	}
+
+	static <KK, VV> Builder<KK, VV> builder() {
+		return new Builder<>();
+	}
+
+	//
+	// Lookups
+	//
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return positionOf(key) >= 0;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public @Nullable V get(Object key) {
+		int position = positionOf(key);
+		if (position < 0) {
+			return null;
+		} else {
+			return (V) leafFor(position)[valueSlot(position)];
+		}
+	}
+
+	private int positionOf(@Nullable Object key) {
+		if (key == null) {
+			return -1;
+		} else {
+			return trie.positionOf(key, hash(key), 0);
+		}
+	}
+
+	//
+	// Updates
+	//
+
+	PersistentOrderedMap<K, V> plus(K key, V value) {
+		requireNonNull(key);
+		requireNonNull(value);
+		int hash = hash(key);
+		int position = trie.positionOf(key, hash, 0);
+		if (position >= 0) {
+			// Replace in place; the trie is unaffected
+			if (leafFor(position)[valueSlot(position)] == value) {
+				return this;
+			} else {
+				return new PersistentOrderedMap<>(trie, assoc(vectorRoot, vectorShift, position, key, value), vectorShift, length, size);
+			}
+		} else {
+			// Append
+			Object[] root = vectorRoot;
+			int shift = vectorShift;
+			if (root != null && (length >>> (shift + BITS)) != 0) {
+				root = new Object[]{ root };
+				shift += BITS;
+			}
+			return new PersistentOrderedMap<>(
+				trie.with(key, hash, 0, length),
+				assoc(root, shift, length, key, value),
+				shift, length + 1, size + 1);
+		}
+	}
+
+	PersistentOrderedMap<K, V> plusAll(Map<? extends K, ? extends V> map) {
+		if (map.size() > size) {
+			// Cheaper to start from scratch
+			Builder<K, V> builder = builder();
+			this.forEach(builder::put);
+			map.forEach(builder::put);
+			return builder.build();
+		}
+		PersistentOrderedMap<K, V> result = this;
+		for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+			result = result.plus(entry.getKey(), entry.getValue());
+		}
+		return result;
+	}
+
+	PersistentOrderedMap<K, V> minus(Object key) {
+		int position = positionOf(key);
+		if (position < 0) {
+			return this;
+		} else if (size == 1) {
+			return empty();
+		}
+		PersistentOrderedMap<K, V> result = new PersistentOrderedMap<>(
+			trie.without(key, hash(key), 0),
+			assoc(vectorRoot, vectorShift, position, null, null),
+			vectorShift,
+			(position == length - 1) ? position : length,
+			size - 1);
+		if (result.length > WIDTH && 2 * result.size < result.length) {
+			return copyOf(result);
+		} else {
+			return result;
+		}
+	}
+
+	//
+	// Views
+	//
+
+	/**
+	 * @return an unmodifiable {@link List} view of the keys, in order.
+	 * Creating the view takes constant time.
+	 * So does {@link List#get}, except that if any entries have been removed,
+	 * the first call on this map takes linear time to build an index, which is then shared by all views.
+	 */
+	List<K> keyList() {
+		return new KeyList();
+	}
+
+	@Override
+	public Set<K> keySet() {
+		return new AbstractSet<>() {
+			@Override public int size() { return size; }
+			@Override public boolean contains(Object o) { return containsKey(o); }
+			@Override public Iterator<K> iterator() { return new KeyIterator(); }
+			@Override public Spliterator<K> spliterator() { return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.IMMUTABLE | Spliterator.NONNULL); }
+		};
+	}
+
+	@Override
+	public Collection<V> values() {
+		return new AbstractCollection<>() {
+			@Override public int size() { return size; }
+			@Override public Iterator<V> iterator() { return new ValueIterator(); }
+			@Override public Spliterator<V> spliterator() { return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL); }
+		};
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return new AbstractSet<>() {
+			@Override public int size() { return size; }
+			@Override public Iterator<Entry<K, V>> iterator() { return new EntryIterator(); }
+
+			@Override
+			public boolean contains(Object o) {
+				return o instanceof Entry<?, ?> entry
+					&& entry.getValue() != null
+					&& entry.getValue().equals(get(entry.getKey()));
+			}
+		};
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		if (vectorRoot != null) {
+			forEachEntry(vectorRoot, vectorShift, (BiConsumer<Object, Object>) action);
+		}
+	}
+
+	private static void forEachEntry(Object[] node, int shift, BiConsumer<Object, Object> action) {
+		if (shift == 0) {
+			for (int slot = 0; slot < node.length; slot += 2) {
+				Object key = node[slot];
+				if (key != null) {
+					action.accept(key, node[slot + 1]);
+				}
+			}
+		} else {
+			for (Object child : node) {
+				if (child != null) {
+					forEachEntry((Object[]) child, shift - BITS, action);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Calls {@code action}, in order, for each entry of this map that doesn't occupy
+	 * the same position in {@code other}, with the same key and value objects.
+	 * Portions of the two maps that share structure are skipped without being examined,
+	 * so when {@code other} is an earlier or later version of this map,
+	 * this takes time proportional to the number of changes rather than the size of the map.
+	 *
+	 * <p>
+	 * This reports a superset of the entries that differ between the two maps:
+	 * an entry found at a different position in {@code other} is reported even if it is otherwise unchanged.
+	 */
+	void forEachEntryDifferentFrom(PersistentOrderedMap<K, V> other, BiConsumer<? super K, ? super V> action) {
+		forEachEntryDifferentFrom(other, false, action);
+	}
+
+	/**
+	 * Like {@link #forEachEntryDifferentFrom}, but visits the entries in reverse order.
+	 */
+	void forEachEntryDifferentFromInReverse(PersistentOrderedMap<K, V> other, BiConsumer<? super K, ? super V> action) {
+		forEachEntryDifferentFrom(other, true, action);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void forEachEntryDifferentFrom(PersistentOrderedMap<K, V> other, boolean reverse, BiConsumer<? super K, ? super V> action) {
+		if (vectorRoot == null || vectorRoot == other.vectorRoot) {
+			return;
+		}
+		int shift = Math.max(vectorShift, other.vectorShift);
+		forEachDifferentEntry(
+			heightened(vectorRoot, vectorShift, shift),
+			heightened(other.vectorRoot, other.vectorShift, shift),
+			shift,
+			reverse,
+			(BiConsumer<Object, Object>) action);
+	}
+
+	/**
+	 * @return a node at {@code toShift} representing the same positions as {@code node}.
+	 * This is exactly how the vector grows when it overflows, so it preserves sharing.
+	 */
+	private static Object @Nullable [] heightened(Object @Nullable [] node, int fromShift, int toShift) {
+		Object[] result = node;
+		for (int shift = fromShift; result != null && shift < toShift; shift += BITS) {
+			result = new Object[]{ result };
+		}
+		return result;
+	}
+
+	private static void forEachDifferentEntry(Object[] node, Object @Nullable [] otherNode, int shift, boolean reverse, BiConsumer<Object, Object> action) {
+		if (node == otherNode) {
+			return;
+		}
+		if (shift == 0) {
+			int numSlots = node.length / 2;
+			for (int n = 0; n < numSlots; n++) {
+				int slot = 2 * (reverse ? numSlots - 1 - n : n);
+				Object key = node[slot];
+				if (key != null) {
+					Object value = node[slot + 1];
+					if (otherNode == null || slot >= otherNode.length || otherNode[slot] != key || otherNode[slot + 1] != value) {
+						action.accept(key, value);
+					}
+				}
+			}
+		} else {
+			int numChildren = 0;
+			while (numChildren < node.length && node[numChildren] != null) {
+				numChildren++;
+			}
+			for (int n = 0; n < numChildren; n++) {
+				int i = reverse ? numChildren - 1 - n : n;
+				Object[] otherChild = (otherNode == null || i >= otherNode.length) ? null : (Object[]) otherNode[i];
+				forEachDifferentEntry((Object[]) node[i], otherChild, shift - BITS, reverse, action);
+			}
+		}
+	}
+
+	//
+	// Object methods
+	//
+
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof PersistentOrderedMap<?, ?> other && other.vectorRoot == vectorRoot) {
+			return true;
+		} else {
+			return super.equals(o);
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		int[] result = { 0 };
+		forEach((k, v) -> result[0] += k.hashCode() ^ v.hashCode());
+		return result[0];
+	}
+
+	//
+	// Iteration
+	//
+
+	private abstract class SlotIterator<T> implements Iterator<T> {
+		private int position = 0;
+		private int remaining = size;
+		private Object @Nullable [] leaf;
+
+		@Override
+		public boolean hasNext() {
+			return remaining > 0;
+		}
+
+		@Override
+		public T next() {
+			if (remaining <= 0) {
+				throw new NoSuchElementException();
+			}
+			while (true) {
+				if (leaf == null || (position & MASK) == 0) {
+					leaf = leafFor(position);
+				}
+				int slot = keySlot(position);
+				++position;
+				Object key = leaf[slot];
+				if (key != null) {
+					--remaining;
+					return element(key, leaf[slot + 1]);
+				}
+			}
+		}
+
+		abstract T element(Object key, Object value);
+	}
+
+	private final class KeyIterator extends SlotIterator<K> {
+		@Override
+		@SuppressWarnings("unchecked")
+		K element(Object key, Object value) {
+			return (K) key;
+		}
+	}
+
+	private final class ValueIterator extends SlotIterator<V> {
+		@Override
+		@SuppressWarnings("unchecked")
+		V element(Object key, Object value) {
+			return (V) value;
+		}
+	}
+
+	private final class EntryIterator extends SlotIterator<Entry<K, V>> {
+		@Override
+		@SuppressWarnings("unchecked")
+		Entry<K, V> element(Object key, Object value) {
+			return new SimpleImmutableEntry<>((K) key, (V) value);
+		}
+	}
+
+	private final class KeyList extends AbstractList<K> {
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public K get(int index) {
+			Objects.checkIndex(index, size);
+			if (size == length) {
+				return (K) leafFor(index)[keySlot(index)];
+			}
+			Object[] keys = keysByIndex;
+			if (keys == null) {
+				// Racy, but every thread builds the same array, and the volatile write publishes its contents
+				keysByIndex = keys = keySet().toArray();
+			}
+			return (K) keys[index];
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return containsKey(o);
+		}
+
+		@Override
+		public Iterator<K> iterator() {
+			return new KeyIterator();
+		}
+
+		@Override
+		public Spliterator<K> spliterator() {
+			return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.IMMUTABLE | Spliterator.NONNULL);
+		}
+	}
+
+	//
+	// Builder
+	//
+
+	/**
+	 * Builds a map by modifying its nodes in place, rather than copying them for every entry,
+	 * and then hands those same nodes over to the map.
+	 * This works because no other object can see those nodes until {@link #build} is called,
+	 * after which the builder can't be used anymore.
+	 *
+	 * <p>
+	 * Vector nodes are allocated at full width, since they're likely to fill up.
+	 */
+	static final class Builder<K, V> {
+		private final BitmapNode trie = BitmapNode.newEmpty();
+		private Object @Nullable [] vectorRoot = null;
+		private int vectorShift = 0;
+		private int size = 0;
+		private boolean built = false;
+
+		/**
+		 * If {@code key} is already present, its value is replaced, but it keeps its original position.
+		 *
+		 * @return the prior value for {@code key}, or null if there was none
+		 */
+		@SuppressWarnings("unchecked")
+		@Nullable V put(K key, V value) {
+			checkNotBuilt();
+			requireNonNull(key);
+			requireNonNull(value);
+			int hash = hash(key);
+			int position = trie.positionOf(key, hash, 0);
+			if (position >= 0) {
+				Object[] leaf = leafFor(position);
+				V prior = (V) leaf[valueSlot(position)];
+				leaf[valueSlot(position)] = value;
+				return prior;
+			}
+
+			position = size;
+			trie.insertInPlace(key, hash, 0, position);
+			if (vectorRoot == null) {
+				vectorRoot = new Object[2 * WIDTH];
+			} else if ((position >>> (vectorShift + BITS)) != 0) {
+				Object[] newRoot = new Object[WIDTH];
+				newRoot[0] = vectorRoot;
+				vectorRoot = newRoot;
+				vectorShift += BITS;
+			}
+			Object[] node = vectorRoot;
+			for (int shift = vectorShift; shift > 0; shift -= BITS) {
+				int i = (position >>> shift) & MASK;
+				Object[] child = (Object[]) node[i];
+				if (child == null) {
+					child = new Object[(shift == BITS) ? 2 * WIDTH : WIDTH];
+					node[i] = child;
+				}
+				node = child;
+			}
+			node[keySlot(position)] = key;
+			node[valueSlot(position)] = value;
+			++size;
+			return null;
+		}
+
+		boolean containsKey(Object key) {
+			checkNotBuilt();
+			return key != null && trie.positionOf(key, hash(key), 0) >= 0;
+		}
+
+		int size() {
+			return size;
+		}
+
+		PersistentOrderedMap<K, V> build() {
+			checkNotBuilt();
+			built = true;
+			if (size == 0) {
+				return empty();
+			} else {
+				// There are no vacant slots, so length == size
+				return new PersistentOrderedMap<>(trie, vectorRoot, vectorShift, size, size);
+			}
+		}
+
+		private Object[] leafFor(int position) {
+			Object[] node = requireNonNull(vectorRoot);
+			for (int shift = vectorShift; shift > 0; shift -= BITS) {
+				node = (Object[]) node[(position >>> shift) & MASK];
+			}
+			return node;
+		}
+
+		private void checkNotBuilt() {
+			if (built) {
+				throw new IllegalStateException("Builder cannot be used after build() is called");
+			}
+		}
+	}
+
+	//
+	// Vector
+	//
+
+	private static final int BITS = 5;
+	private static final int WIDTH = 1 << BITS;
+	private static final int MASK = WIDTH - 1;
+
+	private static int keySlot(int position) {
+		return 2 * (position & MASK);
+	}
+
+	private static int valueSlot(int position) {
+		return keySlot(position) + 1;
+	}
+
+	private Object[] leafFor(int position) {
+		Object[] node = requireNonNull(vectorRoot);
+		for (int shift = vectorShift; shift > 0; shift -= BITS) {
+			node = (Object[]) node[(position >>> shift) & MASK];
+		}
+		return node;
+	}
+
+	/**
+	 * Nodes are only as large as they need to be, so small maps stay small.
+	 *
+	 * @return a copy of {@code node} with the given key and value at {@code position}
+	 */
+	private static Object[] assoc(Object @Nullable [] node, int shift, int position, @Nullable Object key, @Nullable Object value) {
+		Object[] result;
+		if (shift == 0) {
+			int slot = keySlot(position);
+			result = (node == null) ? new Object[slot + 2] : Arrays.copyOf(node, Math.max(node.length, slot + 2));
+			result[slot] = key;
+			result[slot + 1] = value;
+		} else {
+			int i = (position >>> shift) & MASK;
+			result = (node == null) ? new Object[i + 1] : Arrays.copyOf(node, Math.max(node.length, i + 1));
+			result[i] = assoc((Object[]) result[i], shift - BITS, position, key, value);
+		}
+		return result;
+	}
+
+	//
+	// Trie
+	//
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static int fragment(int hash, int shift) {
+		return (hash >>> shift) & MASK;
+	}
+
+	private static int index(int bitmap, int bit) {
+		return Integer.bitCount(bitmap & (bit - 1));
+	}
+
+	private sealed interface TrieNode permits BitmapNode, CollisionNode {
+		/**
+		 * @return the position of {@code key}, or -1 if it is absent
+		 */
+		int positionOf(Object key, int hash, int shift);
+
+		TrieNode with(Object key, int hash, int shift, int position);
+
+		TrieNode without(Object key, int hash, int shift);
+
+		/**
+		 * Adds {@code key}, which must be absent, by modifying this node or its descendants.
+		 */
+		void insertInPlace(Object key, int hash, int shift, int position);
+
+		/**
+		 * @return true if this node contains one key, in which case
+		 * its parent should hold that key directly instead.
+		 */
+		boolean isSingleton();
+
+		Object singletonKey();
+
+		int singletonPosition();
+	}
+
+	/**
+	 * A CHAMP node: keys stored directly in this node come first, followed by child nodes,
+	 * each in the order of their hash fragments.
+	 *
+	 * <p>
+	 * The fields are mutable only for the benefit of {@link #insertInPlace},
+	 * which is used only on nodes created by the {@link Builder} that is calling it.
+	 * Arrays are never modified once they're in a node; they're replaced.
+	 */
+	private static final class BitmapNode implements TrieNode {
+		int dataMap;
+		int nodeMap;
+		Object[] keys;
+		int[] positions;
+		TrieNode[] children;
+
+		BitmapNode(int dataMap, int nodeMap, Object[] keys, int[] positions, TrieNode[] children) {
+			this.dataMap = dataMap;
+			this.nodeMap = nodeMap;
+			this.keys = keys;
+			this.positions = positions;
+			this.children = children;
+		}
+
+		static final BitmapNode EMPTY = new BitmapNode(0, 0, new Object[0], new int[0], new TrieNode[0]);
+
+		static BitmapNode newEmpty() {
+			return new BitmapNode(0, 0, EMPTY.keys, EMPTY.positions, EMPTY.children);
+		}
+
+		@Override
+		public int positionOf(Object key, int hash, int shift) {
+			int bit = 1 << fragment(hash, shift);
+			if ((dataMap & bit) != 0) {
+				int i = index(dataMap, bit);
+				return key.equals(keys[i]) ? positions[i] : -1;
+			} else if ((nodeMap & bit) != 0) {
+				return children[index(nodeMap, bit)].positionOf(key, hash, shift + BITS);
+			} else {
+				return -1;
+			}
+		}
+
+		@Override
+		public TrieNode with(Object key, int hash, int shift, int position) {
+			int bit = 1 << fragment(hash, shift);
+			if ((dataMap & bit) != 0) {
+				int i = index(dataMap, bit);
+				Object existing = keys[i];
+				if (key.equals(existing)) {
+					if (positions[i] == position) {
+						return this;
+					}
+					int[] newPositions = positions.clone();
+					newPositions[i] = position;
+					return new BitmapNode(dataMap, nodeMap, keys, newPositions, children);
+				}
+				TrieNode child = pair(existing, hash(existing), positions[i], key, hash, position, shift + BITS);
+				return new BitmapNode(
+					dataMap ^ bit, nodeMap | bit,
+					removed(keys, i), removed(positions, i),
+					inserted(children, index(nodeMap, bit), child));
+			} else if ((nodeMap & bit) != 0) {
+				int j = index(nodeMap, bit);
+				TrieNode child = children[j];
+				TrieNode newChild = child.with(key, hash, shift + BITS, position);
+				if (newChild == child) {
+					return this;
+				}
+				TrieNode[] newChildren = children.clone();
+				newChildren[j] = newChild;
+				return new BitmapNode(dataMap, nodeMap, keys, positions, newChildren);
+			} else {
+				int i = index(dataMap, bit);
+				return new BitmapNode(
+					dataMap | bit, nodeMap,
+					inserted(keys, i, key), inserted(positions, i, position),
+					children);
+			}
+		}
+
+		@Override
+		public TrieNode without(Object key, int hash, int shift) {
+			int bit = 1 << fragment(hash, shift);
+			if ((dataMap & bit) != 0) {
+				int i = index(dataMap, bit);
+				if (!key.equals(keys[i])) {
+					return this;
+				}
+				return new BitmapNode(
+					dataMap ^ bit, nodeMap,
+					removed(keys, i), removed(positions, i),
+					children);
+			} else if ((nodeMap & bit) != 0) {
+				int j = index(nodeMap, bit);
+				TrieNode child = children[j];
+				TrieNode newChild = child.without(key, hash, shift + BITS);
+				if (newChild == child) {
+					return this;
+				} else if (newChild.isSingleton()) {
+					// Keep the trie canonical by pulling a lone key up into this node
+					int i = index(dataMap, bit);
+					return new BitmapNode(
+						dataMap | bit, nodeMap ^ bit,
+						inserted(keys, i, newChild.singletonKey()), inserted(positions, i, newChild.singletonPosition()),
+						removed(children, j));
+				}
+				TrieNode[] newChildren = children.clone();
+				newChildren[j] = newChild;
+				return new BitmapNode(dataMap, nodeMap, keys, positions, newChildren);
+			} else {
+				return this;
+			}
+		}
+
+		@Override
+		public void insertInPlace(Object key, int hash, int shift, int position) {
+			int bit = 1 << fragment(hash, shift);
+			if ((dataMap & bit) != 0) {
+				int i = index(dataMap, bit);
+				Object existing = keys[i];
+				TrieNode child = pair(existing, hash(existing), positions[i], key, hash, position, shift + BITS);
+				children = inserted(children, index(nodeMap, bit), child);
+				keys = removed(keys, i);
+				positions = removed(positions, i);
+				dataMap ^= bit;
+				nodeMap |= bit;
+			} else if ((nodeMap & bit) != 0) {
+				children[index(nodeMap, bit)].insertInPlace(key, hash, shift + BITS, position);
+			} else {
+				int i = index(dataMap, bit);
+				keys = inserted(keys, i, key);
+				positions = inserted(positions, i, position);
+				dataMap |= bit;
+			}
+		}
+
+		@Override
+		public boolean isSingleton() {
+			return nodeMap == 0 && keys.length == 1;
+		}
+
+		@Override
+		public Object singletonKey() {
+			return keys[0];
+		}
+
+		@Override
+		public int singletonPosition() {
+			return positions[0];
+		}
+
+		private static TrieNode pair(Object key1, int hash1, int position1, Object key2, int hash2, int position2, int shift) {
+			if (shift >= Integer.SIZE) {
+				return new CollisionNode(new Object[]{ key1, key2 }, new int[]{ position1, position2 });
+			}
+			int fragment1 = fragment(hash1, shift);
+			int fragment2 = fragment(hash2, shift);
+			if (fragment1 == fragment2) {
+				TrieNode child = pair(key1, hash1, position1, key2, hash2, position2, shift + BITS);
+				return new BitmapNode(0, 1 << fragment1, EMPTY.keys, EMPTY.positions, new TrieNode[]{ child });
+			} else if (fragment1 < fragment2) {
+				return new BitmapNode((1 << fragment1) | (1 << fragment2), 0, new Object[]{ key1, key2 }, new int[]{ position1, position2 }, EMPTY.children);
+			} else {
+				return new BitmapNode((1 << fragment1) | (1 << fragment2), 0, new Object[]{ key2, key1 }, new int[]{ position2, position1 }, EMPTY.children);
+			}
+		}
+	}
+
+	/**
+	 * Holds keys whose hashes are identical, once all the hash bits have been used up.
+	 */
+	private static final class CollisionNode implements TrieNode {
+		Object[] keys;
+		int[] positions;
+
+		CollisionNode(Object[] keys, int[] positions) {
+			this.keys = keys;
+			this.positions = positions;
+		}
+		@Override
+		public int positionOf(Object key, int hash, int shift) {
+			int i = indexOf(key);
+			return (i < 0) ? -1 : positions[i];
+		}
+
+		@Override
+		public TrieNode with(Object key, int hash, int shift, int position) {
+			int i = indexOf(key);
+			if (i < 0) {
+				return new CollisionNode(inserted(keys, keys.length, key), inserted(positions, positions.length, position));
+			} else if (positions[i] == position) {
+				return this;
+			} else {
+				int[] newPositions = positions.clone();
+				newPositions[i] = position;
+				return new CollisionNode(keys, newPositions);
+			}
+		}
+
+		@Override
+		public TrieNode without(Object key, int hash, int shift) {
+			int i = indexOf(key);
+			if (i < 0) {
+				return this;
+			} else {
+				return new CollisionNode(removed(keys, i), removed(positions, i));
+			}
+		}
+
+		@Override
+		public void insertInPlace(Object key, int hash, int shift, int position) {
+			keys = inserted(keys, keys.length, key);
+			positions = inserted(positions, positions.length, position);
+		}
+
+		@Override
+		public boolean isSingleton() {
+			return keys.length == 1;
+		}
+
+		@Override
+		public Object singletonKey() {
+			return keys[0];
+		}
+
+		@Override
+		public int singletonPosition() {
+			return positions[0];
+		}
+
+		private int indexOf(Object key) {
+			for (int i = 0; i < keys.length; i++) {
+				if (key.equals(keys[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+
+	private static <T> T[] inserted(T[] array, int index, T element) {
+		T[] result = Arrays.copyOf(array, array.length + 1);
+		System.arraycopy(array, index, result, index + 1, array.length - index);
+		result[index] = element;
+		return result;
+	}
+
+	private static int[] inserted(int[] array, int index, int element) {
+		int[] result = Arrays.copyOf(array, array.length + 1);
+		System.arraycopy(array, index, result, index + 1, array.length - index);
+		result[index] = element;
+		return result;
+	}
+
+	private static <T> T[] removed(T[] array, int index) {
+		T[] result = Arrays.copyOf(array, array.length - 1);
+		System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+		return result;
+	}
+
+	private static int[] removed(int[] array, int index) {
+		int[] result = Arrays.copyOf(array, array.length - 1);
+		System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+		return result;
+	}
+}
@@ -6,6 +6,7 @@ import java.util.Optional;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import works.bosk.dereferencers.IdSource;
 import works.bosk.exceptions.InvalidTypeException;
 import works.bosk.exceptions.NonexistentReferenceException;
 
@@ -17,7 +18,7 @@ import static java.util.Arrays.asList;
  *
  * @param <T> The type of object being referenced.
  */
-public sealed interface Reference<T> permits
+public sealed interface Reference<T> extends IdSource permits
 	CatalogReference,
 	ListingReference,
 	RootReference,
@@ -100,10 +101,19 @@ public sealed interface Reference<T> permits
 		forEachValue((v,e)->action.accept(v));
 	}
 
+	/**
+	 * Like {@link #forEachValue(BiConsumer)}, but describes each value with a {@link ReferenceCursor}
+	 * instead of a {@link BindingEnvironment}, so that nothing need be allocated per value
+	 * unless <code>action</code> asks for it.
+	 * Useful for iterating over large numbers of values.
+	 */
+	void forEachValueWithCursor(BiConsumer<T, ReferenceCursor<T>> action);
+
 	default String pathString() {
 		return path().urlEncoded();
 	}
 
+	@Override
 	default Identifier idAt(int segmentNum) { return Identifier.from(path().segment(segmentNum)); }
 
 	/**
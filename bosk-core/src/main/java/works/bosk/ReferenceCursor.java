@@ -0,0 +1,31 @@
+package works.bosk;
+
+/**
+ * Describes the value currently being visited by {@link Reference#forEachValueWithCursor},
+ * without the cost of creating a {@link Reference} or {@link BindingEnvironment} for every value.
+ *
+ * <p>
+ * The same cursor may be reused for every value, so it is valid only during the call
+ * that received it. To hold on to the location of a value, use {@link #reference()}.
+ *
+ * @param <T> The type of the values being visited.
+ */
+public interface ReferenceCursor<T> {
+	/**
+	 * @param parameterName (without the surrounding hyphens)
+	 * @return the ID bound to the given parameter for the current value
+	 * @throws IllegalArgumentException if the reference being iterated has no such parameter
+	 */
+	Identifier parameterValue(String parameterName);
+
+	/**
+	 * @return a new environment binding each parameter of the reference being iterated
+	 * to its {@link #parameterValue value} for the current value
+	 */
+	BindingEnvironment bindings();
+
+	/**
+	 * @return a definite {@link Reference} to the current value, which remains valid after the iteration is over
+	 */
+	Reference<T> reference();
+}
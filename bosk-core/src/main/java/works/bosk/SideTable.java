@@ -2,7 +2,6 @@ package works.bosk;
 
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -14,10 +13,7 @@ import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
-import org.pcollections.OrderedPMap;
-import org.pcollections.OrderedPSet;
-
-import static java.util.Objects.requireNonNull;
+import org.jspecify.annotations.Nullable;
 
 /**
  * A way to associate extra data with {@link Entity entities}
@@ -29,9 +25,9 @@ import static java.util.Objects.requireNonNull;
  */
 public final class SideTable<K extends Entity, V> implements EnumerableByIdentifier<V> {
 	private final CatalogReference<K> domain;
-	private final OrderedPMap<Identifier, V> valuesById;
+	private final PersistentOrderedMap<Identifier, V> valuesById;
 
-	private SideTable(CatalogReference<K> domain, OrderedPMap<Identifier, V> valuesById) {
+	private SideTable(CatalogReference<K> domain, PersistentOrderedMap<Identifier, V> valuesById) {
 		this.domain = domain;
 		this.valuesById = valuesById;
 	}
@@ -49,8 +45,8 @@ public final class SideTable<K extends Entity, V> implements EnumerableByIdentif
 		return domain;
 	}
 
-	public List<Identifier> ids() { return List.copyOf(valuesById.keySet()); }
-	public Listing<K> keys() { return new Listing<>(domain, OrderedPSet.from(valuesById.keySet())); }
+	public List<Identifier> ids() { return valuesById.keyList(); }
+	public Listing<K> keys() { return new Listing<>(domain, Listing.idMap(valuesById.keySet())); }
 	public Collection<V> values() { return valuesById.values(); }
 
 	public Set<Entry<Identifier, V>> idEntrySet() { return valuesById.entrySet(); }
@@ -78,6 +74,21 @@ public final class SideTable<K extends Entity, V> implements EnumerableByIdentif
 		valuesById.forEach(action);
 	}
 
+	/**
+	 * Calls {@code visitor} for each entry that differs between {@code prior} and this side table.
+	 * Values are compared by object identity.
+	 *
+	 * @param prior an earlier version of this side table, or null to report every entry as added
+	 * @see Catalog#forEachChangeSince
+	 */
+	public void forEachChangeSince(@Nullable SideTable<K, V> prior, EntryChangeVisitor<Identifier, ? super V> visitor) {
+		ContainerDiffs.forEachChange((prior == null) ? null : prior.valuesById, valuesById, visitor);
+	}
+
+	PersistentOrderedMap<Identifier, V> valuesById() {
+		return valuesById;
+	}
+
 	public SideTable<K, V> with(Identifier id, V value) {
 		return new SideTable<>(this.domain, valuesById.plus(id, value));
 	}
@@ -110,7 +121,7 @@ public final class SideTable<K extends Entity, V> implements EnumerableByIdentif
 	 * with {@link #empty(Reference, Class)}.
 	 */
 	public static <KK extends Entity, VV> SideTable<KK, VV> empty(Reference<Catalog<KK>> domain) {
-		return new SideTable<>(CatalogReference.from(domain), OrderedPMap.empty());
+		return new SideTable<>(CatalogReference.from(domain), PersistentOrderedMap.empty());
 	}
 
 	public static <KK extends Entity, VV> SideTable<KK, VV> empty(Reference<Catalog<KK>> domain, Class<VV> ignored) {
@@ -118,7 +129,7 @@ public final class SideTable<K extends Entity, V> implements EnumerableByIdentif
 	}
 
 	public static <KK extends Entity, VV> SideTable<KK, VV> of(Reference<Catalog<KK>> domain, Identifier id, VV value) {
-		return new SideTable<>(CatalogReference.from(domain), OrderedPMap.singleton(id, value));
+		return new SideTable<>(CatalogReference.from(domain), PersistentOrderedMap.<Identifier, VV>empty().plus(id, value));
 	}
 
 	public static <KK extends Entity, VV> SideTable<KK, VV> of(Reference<Catalog<KK>> domain, KK key, VV value) {
@@ -134,23 +145,18 @@ public final class SideTable<K extends Entity, V> implements EnumerableByIdentif
 	}
 
 	public static <KK extends Entity, VV> SideTable<KK, VV> copyOf(Reference<Catalog<KK>> domain, Map<Identifier, VV> contents) {
-		OrderedPMap<Identifier, VV> map = OrderedPMap.from(contents);
-		map.forEach((k, v) -> {
-			requireNonNull(k);
-			requireNonNull(v);
-		});
-		return new SideTable<>(CatalogReference.from(domain), map);
+		return new SideTable<>(CatalogReference.from(domain), PersistentOrderedMap.copyOf(contents));
 	}
 
 	public static <KK extends Entity, VV> SideTable<KK, VV> fromFunction(Reference<Catalog<KK>> domain, Stream<Identifier> keyIDs, Function<Identifier, VV> function) {
-		LinkedHashMap<Identifier, VV> map = new LinkedHashMap<>();
+		PersistentOrderedMap.Builder<Identifier, VV> map = PersistentOrderedMap.builder();
 		keyIDs.forEachOrdered(id -> {
 			VV existing = map.put(id, function.apply(id));
 			if (existing != null) {
 				throw new IllegalArgumentException("Multiple entries with id \"" + id + "\"");
 			}
 		});
-		return new SideTable<>(CatalogReference.from(domain), OrderedPMap.from(map));
+		return new SideTable<>(CatalogReference.from(domain), map.build());
 	}
 
 	public static <T, KK extends Entity, VV> Collector<T, ?, SideTable<KK, VV>> toSideTable(
@@ -159,10 +165,10 @@ public final class SideTable<K extends Entity, V> implements EnumerableByIdentif
 		Function<? super T, ? extends VV> valueMapper
 	) {
 		class Accumulator {
-			OrderedPMap<Identifier, VV> map = OrderedPMap.empty();
+			PersistentOrderedMap<Identifier, VV> map = PersistentOrderedMap.empty();
 			void accumulate(T item) { map = map.plus(idMapper.apply(item), valueMapper.apply(item)); }
 			Accumulator combine(Accumulator other) { map = map.plusAll(other.map); return this; }
-			SideTable<KK, VV> finish() { return SideTable.copyOf(domain, map); }
+			SideTable<KK, VV> finish() { return new SideTable<>(CatalogReference.from(domain), map); }
 		}
 		return Collector.of(
 			Accumulator::new,
@@ -173,7 +179,7 @@ public final class SideTable<K extends Entity, V> implements EnumerableByIdentif
 	}
 
 	public static <KK extends Entity, VV> SideTable<KK, VV> fromEntries(Reference<Catalog<KK>> domain, Stream<Entry<Identifier, VV>> entries) {
-		LinkedHashMap<Identifier, VV> map = new LinkedHashMap<>();
+		PersistentOrderedMap.Builder<Identifier, VV> map = PersistentOrderedMap.builder();
 		entries.forEachOrdered(entry -> {
 			Identifier id = entry.getKey();
 			VV value = entry.getValue();
@@ -182,23 +188,28 @@ public final class SideTable<K extends Entity, V> implements EnumerableByIdentif
 				throw new IllegalArgumentException("Multiple entries with id \"" + id + "\"");
 			}
 		});
-		return new SideTable<>(CatalogReference.from(domain), OrderedPMap.from(map));
+		return new SideTable<>(CatalogReference.from(domain), map.build());
 	}
 
 	public static <KK extends Entity, VV> Builder<KK, VV> builder(Reference<Catalog<KK>> domain) {
 		return new Builder<>(CatalogReference.from(domain));
 	}
 
+	/**
+	 * Accumulates entries in order, and then produces a {@link SideTable} containing them.
+	 * Putting an id that is already present replaces its value without changing its position.
+	 * Cannot be used after {@link #build()} has been called.
+	 */
 	public static class Builder<KK extends Entity, VV> {
 		private final CatalogReference<KK> domain;
-		private OrderedPMap<Identifier, VV> map = OrderedPMap.empty();
+		private final PersistentOrderedMap.Builder<Identifier, VV> map = PersistentOrderedMap.builder();
 
 		public Builder(CatalogReference<KK> domain) {
 			this.domain = domain;
 		}
 
 		public Builder<KK, VV> put(Identifier id, VV value) {
-			map = map.plus(id, value);
+			map.put(id, value);
 			return this;
 		}
 
@@ -206,8 +217,12 @@ public final class SideTable<K extends Entity, V> implements EnumerableByIdentif
 			return put(key.id(), value);
 		}
 
+		public boolean hasID(Identifier id) {
+			return map.containsKey(id);
+		}
+
 		public SideTable<KK, VV> build() {
-			return new SideTable<>(domain, map);
+			return new SideTable<>(domain, map.build());
 		}
 	}
 
@@ -0,0 +1,121 @@
+package works.bosk;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.jspecify.annotations.Nullable;
+import works.bosk.BoskConfig.SnapshotRetention;
+import works.bosk.BoskDriver.EntireState;
+
+/**
+ * A ring buffer of the most recent {@link EntireState}s published by a bosk,
+ * each tagged with a revision number that increases by one with every update.
+ *
+ * <p>
+ * Retained states share most of their structure with each other,
+ * so the memory cost of each revision is roughly proportional to the size
+ * of the update that produced it, rather than the size of the whole tree.
+ *
+ * <p>
+ * Revisions are recorded by one thread at a time, with {@code this} as the lock,
+ * but can be looked up concurrently without locking.
+ */
+final class SnapshotHistory<R extends StateTreeNode> {
+	private final AtomicReferenceArray<@Nullable Version<R>> ring;
+	private final long maxAgeNanos;
+
+	/**
+	 * The revision of the newest state. Written only while holding the lock.
+	 */
+	private volatile long latestRevision = -1;
+
+	/**
+	 * Revisions older than this have been evicted. Written only while holding the lock.
+	 */
+	private volatile long oldestRevision = 0;
+
+	record Version<R extends StateTreeNode>(long revision, EntireState<R> state, long recordedNanos) { }
+
+	SnapshotHistory(SnapshotRetention retention) {
+		this.ring = new AtomicReferenceArray<>(retention.maxCount());
+		this.maxAgeNanos = saturatedNanos(retention.maxAge());
+	}
+
+	/**
+	 * @return the revision assigned to {@code state}
+	 */
+	long record(EntireState<R> state) {
+		assert Thread.holdsLock(this);
+		long now = System.nanoTime();
+		long revision = latestRevision + 1;
+		ring.set(slot(revision), new Version<>(revision, state, now));
+		latestRevision = revision;
+		evictOlderThan(Math.max(oldestRevision, revision - ring.length() + 1), now);
+		return revision;
+	}
+
+	long latestRevision() {
+		return latestRevision;
+	}
+
+	/**
+	 * The latest revision is always available, no matter how old it is,
+	 * because it's the current state of the bosk.
+	 *
+	 * @return the retained version with the given revision number, or null if
+	 * it has been evicted or does not yet exist
+	 */
+	@Nullable Version<R> versionAt(long revision) {
+		if (revision < oldestRevision || revision > latestRevision) {
+			return null;
+		}
+		Version<R> result = ring.get(slot(revision));
+		if (result == null || result.revision() != revision) {
+			// Overwritten since we checked the bounds
+			return null;
+		} else if (revision != latestRevision && isExpired(result, System.nanoTime())) {
+			return null;
+		} else {
+			return result;
+		}
+	}
+
+	/**
+	 * Clears the slots of evicted versions so their states can be garbage-collected.
+	 * Expired versions are only cleared here, so they stay reachable until the next update.
+	 */
+	private void evictOlderThan(long firstRetained, long now) {
+		long latest = latestRevision;
+		while (firstRetained < latest) {
+			Version<R> candidate = ring.get(slot(firstRetained));
+			if (candidate == null || candidate.revision() != firstRetained || isExpired(candidate, now)) {
+				firstRetained++;
+			} else {
+				break;
+			}
+		}
+		for (long r = oldestRevision; r < firstRetained; r++) {
+			int slot = slot(r);
+			Version<R> evicted = ring.get(slot);
+			if (evicted != null && evicted.revision() == r) {
+				ring.set(slot, null);
+			}
+		}
+		oldestRevision = firstRetained;
+	}
+
+	private boolean isExpired(Version<R> version, long now) {
+		return now - version.recordedNanos() > maxAgeNanos;
+	}
+
+	private int slot(long revision) {
+		return (int) (revision % ring.length());
+	}
+
+	private static long saturatedNanos(Duration duration) {
+		try {
+			return duration.toNanos();
+		} catch (ArithmeticException e) {
+			return Long.MAX_VALUE;
+		}
+	}
+}
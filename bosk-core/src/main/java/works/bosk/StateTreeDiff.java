@@ -0,0 +1,220 @@
+package works.bosk;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import works.bosk.BoskDriver.Update;
+import works.bosk.BoskDriver.Update.Deletion;
+import works.bosk.BoskDriver.Update.Replacement;
+import works.bosk.exceptions.InvalidTypeException;
+
+import static works.bosk.ReferenceUtils.getterMethod;
+import static works.bosk.StateTreeSerializer.isImplicitParameter;
+
+/**
+ * Computes the updates that would turn one state tree into another.
+ *
+ * <p>
+ * The two trees are walked together, and any subtree that is the same object in both
+ * is skipped without being visited, so when one tree was derived from the other,
+ * the time taken is proportional to the size of the changes rather than the size of the trees.
+ * Trees that share no structure, such as one freshly deserialized from a database,
+ * are still compared correctly, by descending until the values are {@link Object#equals equal}.
+ *
+ * <p>
+ * The resulting updates target the deepest nodes that changed:
+ * <ul>
+ *     <li>
+ *         Fields of {@link StateTreeNode}s are compared individually,
+ *         skipping {@link Phantom}s and implicit references;
+ *         an {@link Optional} field that became empty produces a {@link Deletion}.
+ *     </li>
+ *     <li>
+ *         Entries of {@link Catalog}s, {@link SideTable}s, and {@link Listing}s are compared individually,
+ *         so added and removed entries produce {@link Replacement}s and {@link Deletion}s of just those entries.
+ *     </li>
+ *     <li>
+ *         A {@link TaggedUnion} whose case is unchanged is compared within that case.
+ *     </li>
+ *     <li>
+ *         Anything else, including {@link ListValue} and {@link MapValue}, which can't be the target of a reference,
+ *         is replaced in its entirety if it is not equal.
+ *     </li>
+ * </ul>
+ * Removals within a container are reported before additions and changes,
+ * in the order described by {@link Catalog#forEachChangeSince}.
+ * Applying the updates in order to the prior tree produces a tree equal to the current one.
+ */
+public final class StateTreeDiff {
+	private final RootReference<?> rootRef;
+	private final Consumer<? super Update> action;
+
+	private StateTreeDiff(RootReference<?> rootRef, Consumer<? super Update> action) {
+		this.rootRef = rootRef;
+		this.action = action;
+	}
+
+	/**
+	 * @param prior the root to compare against, or null to replace the whole tree
+	 * @return the updates that would turn {@code prior} into {@code current}
+	 */
+	public static <R extends StateTreeNode> List<Update> updatesBetween(RootReference<R> rootRef, @Nullable R prior, R current) {
+		List<Update> result = new ArrayList<>();
+		forEachUpdate(rootRef, prior, current, result::add);
+		return result;
+	}
+
+	/**
+	 * Like {@link #updatesBetween}, but passes the updates to {@code action} as they're found.
+	 */
+	public static <R extends StateTreeNode> void forEachUpdate(RootReference<R> rootRef, @Nullable R prior, R current, Consumer<? super Update> action) {
+		new StateTreeDiff(rootRef, action).diff(Path.empty(), prior, current);
+	}
+
+	private void diff(Path path, @Nullable Object prior, @Nullable Object current) {
+		if (prior == current) {
+			// Note object identity comparison: the entire subtree is unchanged
+			return;
+		} else if (current == null) {
+			action.accept(new Deletion<>(refAt(path)));
+		} else if (prior == null || prior.getClass() != current.getClass()) {
+			replace(path, current);
+		} else {
+			switch (current) {
+				case Catalog<?> c -> diffEntries(path, ((Catalog<?>) prior).contents(), c.contents());
+				case SideTable<?, ?> s -> {
+					SideTable<?, ?> p = (SideTable<?, ?>) prior;
+					if (p.domain().equals(s.domain())) {
+						diffEntries(path, p.valuesById(), s.valuesById());
+					} else {
+						replace(path, current);
+					}
+				}
+				case Listing<?> l -> {
+					Listing<?> p = (Listing<?>) prior;
+					if (p.domain().equals(l.domain())) {
+						diffEntries(path, p.idMap(), l.idMap());
+					} else {
+						replace(path, current);
+					}
+				}
+				case TaggedUnion<?> u -> {
+					VariantCase priorVariant = ((TaggedUnion<?>) prior).variant();
+					String tag = u.variant().tag();
+					if (priorVariant.tag().equals(tag)) {
+						diff(path.then(tag), priorVariant, u.variant());
+					} else {
+						replace(path, current);
+					}
+				}
+				case Entity e when !e.id().equals(((Entity) prior).id()) -> replace(path, current);
+				case StateTreeNode n when n instanceof Record -> diffFields(path, n, (StateTreeNode) prior);
+				default -> {
+					if (!prior.equals(current)) {
+						replace(path, current);
+					}
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void diffEntries(Path path, PersistentOrderedMap<Identifier, ?> prior, PersistentOrderedMap<Identifier, ?> current) {
+		EntryChangeVisitor<Identifier, Object> visitor = new EntryChangeVisitor<>() {
+			@Override
+			public void removed(Identifier id, Object priorValue) {
+				action.accept(new Deletion<>(refAt(path.then(id.toString()))));
+			}
+
+			@Override
+			public void changed(Identifier id, Object priorValue, Object newValue) {
+				diff(path.then(id.toString()), priorValue, newValue);
+			}
+
+			@Override
+			public void added(Identifier id, Object newValue) {
+				replace(path.then(id.toString()), newValue);
+			}
+		};
+		ContainerDiffs.forEachChange(
+			(PersistentOrderedMap<Identifier, Object>) prior,
+			(PersistentOrderedMap<Identifier, Object>) current,
+			visitor);
+	}
+
+	private void diffFields(Path path, StateTreeNode current, StateTreeNode prior) {
+		for (FieldGetter field : FIELDS.get(current.getClass())) {
+			Object priorValue = field.get(prior);
+			Object currentValue = field.get(current);
+			if (priorValue == currentValue) {
+				continue;
+			}
+			Path fieldPath = path.then(field.name());
+			if (currentValue instanceof Optional<?> c && priorValue instanceof Optional<?> p) {
+				// References to Optional fields refer to their contents
+				diff(fieldPath, p.orElse(null), c.orElse(null));
+			} else {
+				diff(fieldPath, priorValue, currentValue);
+			}
+		}
+	}
+
+	private void replace(Path path, Object newValue) {
+		action.accept(new Replacement<>(refAt(path), newValue));
+	}
+
+	/**
+	 * References are created only for nodes that changed,
+	 * so unchanged parts of the tree cost no allocations beyond their comparison.
+	 */
+	private Reference<Object> refAt(Path path) {
+		try {
+			return rootRef.then(Object.class, path);
+		} catch (InvalidTypeException e) {
+			throw new AssertionError("Every path in the state tree should be valid: " + path, e);
+		}
+	}
+
+	private record FieldGetter(String name, MethodHandle getter) {
+		Object get(StateTreeNode node) {
+			try {
+				return (Object) getter.invokeExact((Object) node);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException("Unable to get field \"" + name + "\" of " + node.getClass().getSimpleName(), e);
+			}
+		}
+	}
+
+	/**
+	 * The fields that can be the target of a {@link Reference}, in record component order.
+	 */
+	private static final ClassValue<List<FieldGetter>> FIELDS = new ClassValue<>() {
+		@Override
+		protected List<FieldGetter> computeValue(@NonNull Class<?> nodeClass) {
+			List<FieldGetter> result = new ArrayList<>();
+			for (RecordComponent component : nodeClass.getRecordComponents()) {
+				if (isImplicitParameter(nodeClass, component) || Phantom.class.isAssignableFrom(component.getType())) {
+					continue;
+				}
+				try {
+					MethodHandle getter = MethodHandles.lookup()
+						.unreflect(getterMethod(nodeClass, component.getName()))
+						.asType(MethodType.methodType(Object.class, Object.class));
+					result.add(new FieldGetter(component.getName(), getter));
+				} catch (IllegalAccessException | InvalidTypeException e) {
+					throw new IllegalStateException("Error in class " + nodeClass.getSimpleName() + ": " + e.getMessage(), e);
+				}
+			}
+			return List.copyOf(result);
+		}
+	};
+}
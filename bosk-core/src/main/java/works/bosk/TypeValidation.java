@@ -96,8 +96,9 @@ public final class TypeValidation {
 				}
 				// Otherwise, any valid entryType is ok
 				validateType(entryType, alreadyValidated);
-				if (ListValue.class.isAssignableFrom(theClass)) try {
-					// For ListValue, deserialization currently supports only one constructor that accepts an array
+				if (ListValue.class.isAssignableFrom(theClass) && theClass != ListValue.class) try {
+					// For ListValue subclasses, deserialization currently supports only one constructor that accepts an array.
+					// ListValue itself is created using its static factory methods.
 					Constructor<?> ctor = ReferenceUtils.theOnlyConstructorFor(theClass);
 					Class<?>[] parameterTypes = ctor.getParameterTypes();
 					if (parameterTypes.length != 1 || !parameterTypes[0].isArray()) {
@@ -36,13 +36,16 @@ import static org.objectweb.asm.Opcodes.ACC_FINAL;
 import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
 import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
 import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ACONST_NULL;
 import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARETURN;
 import static org.objectweb.asm.Opcodes.CHECKCAST;
 import static org.objectweb.asm.Opcodes.DUP;
 import static org.objectweb.asm.Opcodes.GETFIELD;
 import static org.objectweb.asm.Opcodes.H_INVOKESTATIC;
 import static org.objectweb.asm.Opcodes.IFEQ;
 import static org.objectweb.asm.Opcodes.IFNE;
+import static org.objectweb.asm.Opcodes.IFNONNULL;
 import static org.objectweb.asm.Opcodes.ILOAD;
 import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
 import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
@@ -295,6 +298,23 @@ public final class ClassBuilder<T> {
 		methodVisitor().visitLdcInsn(value);
 	}
 
+	/**
+	 * Emit ACONST_NULL: <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-6.html#jvms-6.5.aconst_null">...</a>
+	 */
+	public void pushNull() {
+		beginPush();
+		methodVisitor().visitInsn(ACONST_NULL);
+	}
+
+	/**
+	 * If the top operand stack value is null, return it from the current method;
+	 * otherwise, leave it on the stack and carry on.
+	 */
+	public void returnIfNull() {
+		dup();
+		branchAround(() -> methodVisitor().visitInsn(ARETURN), IFNONNULL, 1);
+	}
+
 	/**
 	 * Emit DUP: <a href="https://docs.oracle.com/javase/specs/jvms/se8/html/jvms-6.html#jvms-6.5.dup">...</a>
 	 */
@@ -0,0 +1,118 @@
+package works.bosk.dereferencers;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.jspecify.annotations.Nullable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Like a {@link java.util.WeakHashMap} wrapped in {@link java.util.Collections#synchronizedMap},
+ * but lookups take no locks, so threads that hit the cache don't contend with each other.
+ * A mapping, once made, is never replaced, until the key is collected.
+ *
+ * <p>
+ * Values are held strongly, so a value must not refer to its own key,
+ * or the key will never be collected.
+ */
+final class ConcurrentWeakKeyMap<K, V> {
+	private final ConcurrentHashMap<Object, V> map = new ConcurrentHashMap<>();
+	private final ReferenceQueue<K> stale = new ReferenceQueue<>();
+
+	public @Nullable V get(K key) {
+		return map.get(new LookupKey<>(key));
+	}
+
+	/**
+	 * @return the existing value, or null if {@code value} was added
+	 */
+	public @Nullable V putIfAbsent(K key, V value) {
+		expungeStaleEntries();
+		return map.putIfAbsent(new WeakKey<>(key, stale), value);
+	}
+
+	/**
+	 * As with {@link ConcurrentHashMap#computeIfAbsent}, {@code function} is called at most once,
+	 * and it must not modify this map.
+	 */
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+		V existing = get(key);
+		if (existing != null) {
+			return existing;
+		}
+		expungeStaleEntries();
+		return map.computeIfAbsent(new WeakKey<>(key, stale), _ -> function.apply(key));
+	}
+
+	public int size() {
+		expungeStaleEntries();
+		return map.size();
+	}
+
+	private void expungeStaleEntries() {
+		java.lang.ref.Reference<? extends K> ref;
+		while ((ref = stale.poll()) != null) {
+			map.remove(ref);
+		}
+	}
+
+	/**
+	 * A key as stored in the map.
+	 * Once its referent has been collected, it is equal only to itself, so it can still be removed.
+	 */
+	private static final class WeakKey<K> extends WeakReference<K> {
+		private final int hash;
+
+		WeakKey(K key, ReferenceQueue<K> queue) {
+			super(requireNonNull(key), queue);
+			this.hash = key.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			K key = this.get();
+			if (key == null) {
+				return false;
+			} else if (obj instanceof WeakKey<?> other) {
+				return key.equals(other.get());
+			} else if (obj instanceof LookupKey<?> other) {
+				return key.equals(other.key);
+			} else {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Used only for lookups, to avoid creating a {@link WeakReference} each time.
+	 */
+	private record LookupKey<K>(K key) {
+		LookupKey {
+			requireNonNull(key);
+		}
+
+		@Override
+		public int hashCode() {
+			return key.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof WeakKey<?> other) {
+				return key.equals(other.get());
+			} else {
+				return obj instanceof LookupKey<?> other && key.equals(other.key);
+			}
+		}
+	}
+}
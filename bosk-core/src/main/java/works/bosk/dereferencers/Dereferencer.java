@@ -1,5 +1,6 @@
 package works.bosk.dereferencers;
 
+import org.jspecify.annotations.Nullable;
 import works.bosk.Bosk.NonexistentEntryException;
 import works.bosk.Path;
 import works.bosk.Reference;
@@ -21,19 +22,20 @@ import works.bosk.Reference;
  */
 public interface Dereferencer {
 	/**
-	 * <em>Evolution note:</em>
-	 * Note that dereferencer throws if the entry is nonexistent.
-	 * This was intended to short-circuit the evaluation, but actually
-	 * has the effect of doing a stack walk even for callers like {@link Reference#valueIfExists()}
-	 * that are anticipating nulls. TODO: Find a way to return null instead of throwing here.
+	 * Nonexistent objects are indicated by returning null, rather than by throwing,
+	 * so that callers like {@link Reference#valueIfExists()} that are anticipating nulls
+	 * don't pay for constructing an exception and walking the stack.
+	 * (The bosk state tree never contains nulls, so there's no ambiguity.)
+	 *
+	 * <p>
+	 * This needs only the IDs from the reference, so it accepts any {@link IdSource}.
 	 *
 	 * @param source the bosk root object
-	 * @param ref points to the object to get
-	 * @return the object pointed to by <code>ref</code>
-	 * @throws NonexistentEntryException if any segment of
-	 * <code>ref</code> refers to an object that does not exist
+	 * @param ids supplies the IDs of the object to get; usually the {@link Reference} itself
+	 * @return the object pointed to by <code>ids</code>, or null if any segment of
+	 * <code>ids</code> refers to an object that does not exist
 	 */
-	Object get(Object source, Reference<?> ref) throws NonexistentEntryException;
+	@Nullable Object getIfExists(Object source, IdSource ids);
 
 	/**
 	 * @param source the bosk root object
@@ -42,23 +44,62 @@ public interface Dereferencer {
 	 *            the reference's path is ignored
 	 * @param newValue the object to put in the container
 	 * @return a new version of the bosk root object, equivalent to <code>source</code> in every respect
-	 * except that the object containing <code>ref</code> now contains <code>newValue</code>
-	 * @throws NonexistentEntryException if any segment of
-	 * <code>ref</code> refers to an object that does not exist, except the last segment,
-	 * which is ignored.
+	 * except that the object containing <code>ref</code> now contains <code>newValue</code>;
+	 * or null if any segment of <code>ref</code> refers to an object that does not exist,
+	 * except the last segment, which is ignored.
 	 */
-	Object with(Object source, Reference<?> ref, Object newValue) throws NonexistentEntryException;
+	@Nullable Object withIfExists(Object source, Reference<?> ref, Object newValue);
 
 	/**
 	 * @param source the bosk root object
 	 * @param ref points to the object to remove
 	 * @return a new version of the bosk root object, equivalent to <code>source</code> in every respect
-	 * except that the object at <code>ref</code> is gone.
+	 * except that the object at <code>ref</code> is gone;
+	 * or null if any segment of <code>ref</code> refers to an object that does not exist
+	 * @throws IllegalArgumentException if <code>ref</code> points at something that cannot be deleted,
+	 * like a non-{@link java.util.Optional} object field, as opposed to something like a Catalog entry
+	 */
+	@Nullable Object withoutIfExists(Object source, Reference<?> ref);
+
+	/**
+	 * Like {@link #getIfExists}, but throws if the object does not exist.
+	 *
+	 * @throws NonexistentEntryException if any segment of
+	 * <code>ref</code> refers to an object that does not exist
+	 */
+	default Object get(Object source, Reference<?> ref) throws NonexistentEntryException {
+		return existing(getIfExists(source, ref), ref);
+	}
+
+	/**
+	 * Like {@link #withIfExists}, but throws if the containing object does not exist.
+	 *
+	 * @throws NonexistentEntryException if any segment of
+	 * <code>ref</code> refers to an object that does not exist, except the last segment,
+	 * which is ignored.
+	 */
+	default Object with(Object source, Reference<?> ref, Object newValue) throws NonexistentEntryException {
+		return existing(withIfExists(source, ref, newValue), ref);
+	}
+
+	/**
+	 * Like {@link #withoutIfExists}, but throws if the object does not exist.
+	 *
 	 * @throws IllegalArgumentException if <code>ref</code> points at something that cannot be deleted,
 	 * like a non-{@link java.util.Optional} object field, as opposed to something like a Catalog entry
 	 * @throws NonexistentEntryException if any segment of
 	 * <code>ref</code> refers to an object that does not exist
 	 */
-	Object without(Object source, Reference<?> ref) throws NonexistentEntryException;
+	default Object without(Object source, Reference<?> ref) throws NonexistentEntryException {
+		return existing(withoutIfExists(source, ref), ref);
+	}
+
+	private static Object existing(@Nullable Object result, Reference<?> ref) throws NonexistentEntryException {
+		if (result == null) {
+			throw new NonexistentEntryException(ref.path());
+		} else {
+			return result;
+		}
+	}
 
 }
@@ -1,18 +1,17 @@
 package works.bosk.dereferencers;
 
 import java.util.Optional;
-import works.bosk.Bosk.NonexistentEntryException;
-import works.bosk.Catalog;
+import org.jspecify.annotations.Nullable;
 import works.bosk.Identifier;
 import works.bosk.Listing;
 import works.bosk.Reference;
-import works.bosk.SideTable;
 import works.bosk.VariantCase;
 
 import static works.bosk.ListingEntry.LISTING_ENTRY;
 
 /**
  * Helper methods called by compiled {@link Dereferencer}s.
+ * Nonexistent objects are indicated by returning null, never by throwing.
  *
  * <p>
  * Because compiled code is loaded by a different {@link ClassLoader}, it will
@@ -24,10 +23,6 @@ public abstract class DereferencerRuntime implements Dereferencer {
 		throw new IllegalArgumentException("Cannot remove " + ref.path() + " from " + notCollection.getClass().getSimpleName());
 	}
 
-	protected static Object throwNonexistentEntry(Reference<?> ref) throws NonexistentEntryException {
-		throw new NonexistentEntryException(ref.path());
-	}
-
 	protected static Object throwCannotReplacePhantom(Reference<?> ref) {
 		throw new IllegalArgumentException("Cannot replace phantom " + ref);
 	}
@@ -36,25 +31,15 @@ public abstract class DereferencerRuntime implements Dereferencer {
 		throw new IllegalArgumentException("Cannot replace VariantCase inside TaggedUnion " + ref);
 	}
 
-	protected static Object optionalOrThrow(Optional<?> optional, Reference<?> ref) throws NonexistentEntryException {
-		return optional.orElseThrow(() -> new NonexistentEntryException(ref.path()));
-	}
-
-	protected static Object catalogEntryOrThrow(Catalog<?> catalog, Identifier id, Reference<?> ref) throws NonexistentEntryException {
-		Object result = catalog.get(id);
-		if (result == null) {
-			throw new NonexistentEntryException(ref.path());
-		} else {
-			return result;
-		}
+	protected static @Nullable Object optionalOrNull(Optional<?> optional) {
+		return optional.orElse(null);
 	}
 
-	@SuppressWarnings("SameReturnValue")
-	protected static Object listingEntryOrThrow(Listing<?> listing, Identifier id, Reference<?> ref) throws NonexistentEntryException {
+	protected static @Nullable Object listingEntryOrNull(Listing<?> listing, Identifier id) {
 		if (listing.containsID(id)) {
 			return LISTING_ENTRY;
 		} else {
-			throw new NonexistentEntryException(ref.path());
+			return null;
 		}
 	}
 
@@ -62,28 +47,19 @@ public abstract class DereferencerRuntime implements Dereferencer {
 		return listing.withID(id);
 	}
 
-	protected static Object sideTableEntryOrThrow(SideTable<?,?> sideTable, Identifier id, Reference<?> ref) throws NonexistentEntryException {
-		Object result = sideTable.get(id);
-		if (result == null) {
-			throw new NonexistentEntryException(ref.path());
-		} else {
-			return result;
-		}
-	}
-
-	protected static Object instanceofOrNonexistent(Object object, Class<?> desiredClass, Reference<?> ref) throws NonexistentEntryException {
+	protected static @Nullable Object instanceofOrNull(Object object, Class<?> desiredClass) {
 		if (desiredClass.isInstance(object)) {
 			return object;
 		} else {
-			throw new NonexistentEntryException(ref.path());
+			return null;
 		}
 	}
 
-	protected static Object tagCheck(VariantCase variantCase, String desiredTag, Reference<?> ref) throws NonexistentEntryException {
+	protected static @Nullable Object tagCheck(VariantCase variantCase, String desiredTag) {
 		if (desiredTag.equals(variantCase.tag())) {
 			return variantCase;
 		} else {
-			throw new NonexistentEntryException(ref.path());
+			return null;
 		}
 	}
 }
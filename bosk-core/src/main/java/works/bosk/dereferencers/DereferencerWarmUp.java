@@ -0,0 +1,146 @@
+package works.bosk.dereferencers;
+
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import works.bosk.Catalog;
+import works.bosk.Listing;
+import works.bosk.Path;
+import works.bosk.Phantom;
+import works.bosk.SideTable;
+import works.bosk.StateTreeNode;
+import works.bosk.StateTreeSerializer;
+import works.bosk.TaggedUnion;
+import works.bosk.exceptions.InvalidTypeException;
+
+import static works.bosk.ReferenceUtils.parameterType;
+import static works.bosk.ReferenceUtils.rawClass;
+
+/**
+ * Compiles the {@link Dereferencer}s for every path in a bosk's state tree ahead of time,
+ * so the first request to use each one doesn't pay for the compilation and class loading.
+ */
+public final class DereferencerWarmUp {
+	private DereferencerWarmUp() {}
+
+	/**
+	 * Compiles a dereferencer for every path returned by {@link #allPaths}, in parallel.
+	 * Returns when they are all done.
+	 *
+	 * <p>
+	 * A path that fails to compile is logged and left out of the result;
+	 * it will fail again, with the same exception, when it's used.
+	 *
+	 * @return the time taken to compile each path, in the order of {@link #allPaths}
+	 */
+	public static Map<Path, Duration> warmUp(PathCompiler compiler, Type rootType) throws InvalidTypeException {
+		List<Path> paths = allPaths(rootType);
+		Map<Path, Duration> durations = new ConcurrentHashMap<>();
+		try (ForkJoinPool pool = new ForkJoinPool()) {
+			List<ForkJoinTask<?>> tasks = paths.stream()
+				.<ForkJoinTask<?>>map(path -> pool.submit(() -> compile(compiler, path, durations)))
+				.toList();
+			tasks.forEach(ForkJoinTask::join);
+		}
+		Map<Path, Duration> result = new LinkedHashMap<>();
+		for (Path path: paths) {
+			Duration duration = durations.get(path);
+			if (duration != null) {
+				result.put(path, duration);
+			}
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	private static void compile(PathCompiler compiler, Path path, Map<Path, Duration> durations) {
+		long start = System.nanoTime();
+		try {
+			compiler.compiled(path);
+		} catch (InvalidTypeException | RuntimeException e) {
+			LOGGER.warn("Unable to warm up dereferencer for {}", path, e);
+			return;
+		}
+		Duration duration = Duration.ofNanos(System.nanoTime() - start);
+		LOGGER.debug("Warmed up dereferencer for {} in {}", path, duration);
+		durations.put(path, duration);
+	}
+
+	/**
+	 * Walks the state tree type the same way as {@link works.bosk.TypeValidation},
+	 * but doesn't check anything.
+	 *
+	 * <p>
+	 * Recursive types are followed only until a type repeats, since otherwise
+	 * there would be an unlimited number of paths.
+	 *
+	 * @return every path in a state tree of the given type, parameterized wherever it crosses a container,
+	 * including the root path
+	 * @throws InvalidTypeException if {@code rootType} has an invalid {@link TaggedUnion}
+	 */
+	public static List<Path> allPaths(Type rootType) throws InvalidTypeException {
+		List<Path> result = new ArrayList<>();
+		addPaths(Path.empty(), rootType, new HashSet<>(), result);
+		return result;
+	}
+
+	private static void addPaths(Path path, Type type, Set<Type> typesInProgress, List<Path> result) throws InvalidTypeException {
+		result.add(path);
+		if (!typesInProgress.add(type)) {
+			return;
+		}
+		Class<?> theClass = rawClass(type);
+		if (Catalog.class.isAssignableFrom(theClass)) {
+			addPaths(path.then(parameterAt(path)), parameterType(type, Catalog.class, 0), typesInProgress, result);
+		} else if (Listing.class.isAssignableFrom(theClass)) {
+			// Listing entries have no contents of their own
+			result.add(path.then(parameterAt(path)));
+		} else if (SideTable.class.isAssignableFrom(theClass)) {
+			addPaths(path.then(parameterAt(path)), parameterType(type, SideTable.class, 1), typesInProgress, result);
+		} else if (TaggedUnion.class.isAssignableFrom(theClass)) {
+			Class<?> caseStaticClass = rawClass(parameterType(type, TaggedUnion.class, 0));
+			for (Map.Entry<String, Type> entry: StateTreeSerializer.getVariantCaseMap(caseStaticClass).entrySet()) {
+				addPaths(path.then(entry.getKey()), entry.getValue(), typesInProgress, result);
+			}
+		} else if (StateTreeNode.class.isAssignableFrom(theClass) && theClass.isRecord()) {
+			for (RecordComponent component: theClass.getRecordComponents()) {
+				Path fieldPath = path.then(component.getName());
+				Type fieldType = component.getGenericType();
+				Class<?> fieldClass = rawClass(fieldType);
+				if (Optional.class.isAssignableFrom(fieldClass)) {
+					// The path to an Optional field refers to the Optional's contents
+					addPaths(fieldPath, parameterType(fieldType, Optional.class, 0), typesInProgress, result);
+				} else if (Phantom.class.isAssignableFrom(fieldClass)) {
+					// Phantoms never exist, so there's nothing inside them to reach
+					result.add(fieldPath);
+				} else {
+					addPaths(fieldPath, fieldType, typesInProgress, result);
+				}
+			}
+		}
+		// Anything else is a leaf
+		typesInProgress.remove(type);
+	}
+
+	/**
+	 * Parameter names only need to be unique within the path;
+	 * the compiler files each dereferencer under its own fully parameterized path regardless.
+	 */
+	private static String parameterAt(Path path) {
+		return "-p" + path.length() + "-";
+	}
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DereferencerWarmUp.class);
+}
@@ -0,0 +1,29 @@
+package works.bosk.dereferencers;
+
+import org.jspecify.annotations.Nullable;
+import works.bosk.Reference;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * One of the changes applied by {@link PathCompiler#withAll}.
+ *
+ * @param newValue the object to place at {@code target}, or null if the target is to be deleted
+ */
+public record Graft(Reference<?> target, @Nullable Object newValue) {
+	public Graft {
+		requireNonNull(target);
+	}
+
+	public static Graft replacement(Reference<?> target, Object newValue) {
+		return new Graft(target, requireNonNull(newValue));
+	}
+
+	public static Graft deletion(Reference<?> target) {
+		return new Graft(target, null);
+	}
+
+	public boolean isDeletion() {
+		return newValue == null;
+	}
+}
@@ -0,0 +1,21 @@
+package works.bosk.dereferencers;
+
+import works.bosk.Identifier;
+import works.bosk.Path;
+import works.bosk.Reference;
+
+/**
+ * Supplies the IDs a {@link Dereferencer} needs in order to find an object.
+ * Every {@link Reference} is one, but so is anything else that can say
+ * which ID belongs at each segment of a {@link Path},
+ * which lets internal code look objects up without creating a {@link Reference}.
+ *
+ * <p>
+ * Like {@link Dereferencer}, this must be public because compiled code can't access package-private classes.
+ */
+public interface IdSource {
+	/**
+	 * @return the ID at the given segment of the path being dereferenced
+	 */
+	Identifier idAt(int segmentNum);
+}
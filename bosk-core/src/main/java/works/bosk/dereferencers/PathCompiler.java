@@ -15,7 +15,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import lombok.Value;
 import org.jspecify.annotations.NonNull;
@@ -43,7 +42,6 @@ import works.bosk.exceptions.NotYetImplementedException;
 import static java.lang.invoke.MethodHandles.collectArguments;
 import static java.lang.invoke.MethodHandles.permuteArguments;
 import static java.util.Collections.synchronizedList;
-import static java.util.Collections.synchronizedMap;
 import static java.util.Locale.ROOT;
 import static java.util.stream.Collectors.joining;
 import static works.bosk.Path.isParameterSegment;
@@ -65,15 +63,27 @@ import static works.bosk.util.ReflectionHelpers.boxedClass;
  */
 public final class PathCompiler {
 	private final Type sourceType;
-	private final Map<Path, DereferencerBuilder> memoizedBuilders = synchronizedMap(new WeakHashMap<>());
-	private final Map<DereferencerBuilder, Dereferencer> memoizedDereferencers = synchronizedMap(new WeakHashMap<>());
+
+	/**
+	 * Consulted on every {@link Reference} creation and every dereferencer lookup,
+	 * from any thread, so lookups must not take a lock.
+	 */
+	private final ConcurrentWeakKeyMap<Path, DereferencerBuilder> memoizedBuilders = new ConcurrentWeakKeyMap<>();
+	private final ConcurrentWeakKeyMap<DereferencerBuilder, Dereferencer> memoizedDereferencers = new ConcurrentWeakKeyMap<>();
+
+	/**
+	 * Builders for the single-step dereferencers used by {@link #withAll}.
+	 * There's a bounded number of these for the same reason there's a bounded
+	 * number of {@link #keepAliveFullyParameterizedPaths}, so we can hold them strongly.
+	 */
+	private final Map<StepKey, DereferencerBuilder> memoizedStepBuilders = new ConcurrentHashMap<>();
 
 	private PathCompiler(Type sourceType) {
 		this.sourceType = sourceType;
 	}
 
 	/**
-	 * The weak hashmaps are a bit too weak. We can't use normal maps because there
+	 * The weak-keyed maps are a bit too weak. We can't use normal maps because there
 	 * could be an unlimited number of different Paths, so that would be a memory leak.
 	 * But if the builders for parameterized paths get collected, then they won't be
 	 * reused as they should be, and performance could suffer dramatically due to
@@ -155,6 +165,146 @@ public final class PathCompiler {
 		}
 	}
 
+	//
+	// Multi-graft
+	//
+
+	/**
+	 * Applies the given grafts to <code>source</code> in order, producing the same result
+	 * as applying them one at a time using {@link Dereferencer#with} and {@link Dereferencer#without},
+	 * except that each enclosing object is rebuilt just once for each consecutive run
+	 * of grafts that lie inside it, rather than once per graft.
+	 * If 500 consecutive grafts replace entries of the same {@link Catalog},
+	 * the catalog gets 500 new entries, but its ancestors, up to and including the root,
+	 * are rebuilt only once.
+	 *
+	 * <p>
+	 * A graft whose enclosing objects don't exist
+	 * is skipped without affecting the others,
+	 * just as if the corresponding {@link Dereferencer#withIfExists} call had returned null
+	 * and the caller had ignored it.
+	 *
+	 * @param source the bosk root object
+	 * @return a new version of the bosk root object with all the grafts applied,
+	 * or <code>source</code> itself if none had any effect
+	 * @throws IllegalArgumentException if any graft deletes an object that cannot be deleted
+	 */
+	public Object withAll(Object source, List<Graft> grafts) throws InvalidTypeException {
+		Object result = source;
+		int runStart = 0;
+		for (int i = 0; i <= grafts.size(); i++) {
+			if (i == grafts.size() || grafts.get(i).target().path().isEmpty()) {
+				result = applyAll(this, result, 0, grafts.subList(runStart, i));
+				if (i < grafts.size()) {
+					Graft rootGraft = grafts.get(i);
+					if (rootGraft.isDeletion()) {
+						DereferencerRuntime.invalidWithout(result, rootGraft.target());
+					}
+					result = rootGraft.newValue();
+				}
+				runStart = i + 1;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param compiler has the type of <code>node</code> as its source type
+	 * @param depth the length of the path to <code>node</code>
+	 * @param grafts all have targets strictly inside <code>node</code>
+	 */
+	private static Object applyAll(PathCompiler compiler, Object node, int depth, List<Graft> grafts) throws InvalidTypeException {
+		Object result = node;
+		int runStart = 0;
+		while (runStart < grafts.size()) {
+			// Consecutive grafts inside the same child object are applied together.
+			// Non-consecutive ones are not, because that could change the order of entries in containers.
+			String segment = grafts.get(runStart).target().path().segment(depth);
+			int runEnd = runStart + 1;
+			while (runEnd < grafts.size() && segment.equals(grafts.get(runEnd).target().path().segment(depth))) {
+				runEnd++;
+			}
+			result = applyToChild(compiler, result, depth, segment, grafts.subList(runStart, runEnd));
+			runStart = runEnd;
+		}
+		return result;
+	}
+
+	/**
+	 * @param grafts all have targets at or inside the child object of <code>parent</code> named by <code>segment</code>
+	 */
+	private static Object applyToChild(PathCompiler compiler, Object parent, int depth, String segment, List<Graft> grafts) throws InvalidTypeException {
+		DereferencerBuilder stepBuilder = compiler.stepBuilderFor(segment, depth);
+		Dereferencer step = compiler.memoizedDereferencers.computeIfAbsent(stepBuilder, DereferencerBuilder::buildInstance);
+
+		// All the grafts agree on the path segments up to this depth, so any of them can supply the ID we need
+		Reference<?> ref = grafts.getFirst().target();
+		Object originalChild = step.getIfExists(parent, ref);
+
+		Object child = originalChild; // null means nonexistent
+		int runStart = 0;
+		while (runStart < grafts.size()) {
+			Graft graft = grafts.get(runStart);
+			if (graft.target().path().length() == depth + 1) {
+				child = graft.newValue();
+				runStart++;
+			} else {
+				int runEnd = runStart + 1;
+				while (runEnd < grafts.size() && grafts.get(runEnd).target().path().length() > depth + 1) {
+					runEnd++;
+				}
+				if (child == null) {
+					LOGGER.debug("Ignoring {} grafts inside nonexistent {}", runEnd - runStart, ref.path().truncatedTo(depth + 1));
+				} else {
+					PathCompiler childCompiler = withSourceType(stepBuilder.targetType());
+					child = applyAll(childCompiler, child, depth + 1, grafts.subList(runStart, runEnd));
+				}
+				runStart = runEnd;
+			}
+		}
+
+		if (child == originalChild) {
+			return parent;
+		}
+		Object result = (child == null)
+			? step.withoutIfExists(parent, ref)
+			: step.withIfExists(parent, ref, child);
+		if (result == null) {
+			throw new AssertionError("Single-step dereferencer should not need to look up enclosing objects");
+		}
+		return result;
+	}
+
+	/**
+	 * Note that the resulting builder's {@link DereferencerBuilder#fullyParameterizedPath()}
+	 * is not meaningful, since its source object is not the bosk root.
+	 *
+	 * @return a builder for a {@link Dereferencer} whose source object is of this compiler's
+	 * source type, and which operates on just the one segment of the given reference's
+	 * path at index <code>segmentNum</code>.
+	 */
+	private DereferencerBuilder stepBuilderFor(String segment, int segmentNum) throws InvalidTypeException {
+		Class<?> sourceClass = rawClass(sourceType);
+		boolean isContainerEntry = Catalog.class.isAssignableFrom(sourceClass)
+			|| Listing.class.isAssignableFrom(sourceClass)
+			|| SideTable.class.isAssignableFrom(sourceClass);
+		// Container entry steps take their ID from the reference, so the same one works for every ID
+		StepKey key = new StepKey(isContainerEntry ? ANY_ENTRY : segment, segmentNum);
+		DereferencerBuilder result = memoizedStepBuilders.get(key);
+		if (result == null) {
+			result = new StepwiseDereferencerBuilder(segment, segmentNum, here());
+			DereferencerBuilder previous = memoizedStepBuilders.putIfAbsent(key, result);
+			if (previous != null) {
+				return previous;
+			}
+		}
+		return result;
+	}
+
+	private record StepKey(String segment, int segmentNum) { }
+
+	private static final String ANY_ENTRY = "-entry-";
+
 	/**
 	 * Contains code generation logic representing the actions relating to a single segment within a Path.
 	 */
@@ -177,7 +327,7 @@ public final class PathCompiler {
 		/**
 		 * <dl>
 		 *     <dt>Initial stack</dt><dd>penultimateObject</dd>
-		 *     <dt>Final stack</dt><dd>targetObject</dd>
+		 *     <dt>Final stack</dt><dd>targetObject, or null if it does not exist</dd>
 		 * </dl>
 		 */
 		void generate_get();
@@ -233,6 +383,16 @@ public final class PathCompiler {
 			LOGGER.debug("Steps for {}: {}", path, steps);
 		}
 
+		/**
+		 * Builds a dereferencer for just one step, whose source object is the object at
+		 * depth <code>segmentNum</code> along the path of the reference it's given.
+		 */
+		public StepwiseDereferencerBuilder(String segment, int segmentNum, StackWalker.StackFrame sourceFileOrigin) throws InvalidTypeException {
+			super("STEP_DEREFERENCER", rawClass(sourceType).getClassLoader(), sourceFileOrigin);
+			steps = List.of(newSegmentStep(sourceType, segment, segmentNum));
+			LOGGER.debug("Step for {} at {}: {}", segment, segmentNum, steps);
+		}
+
 		/**
 		 * @param currentType the type within which {@code segment} is defined
 		 */
@@ -337,6 +497,7 @@ public final class PathCompiler {
 			pushSourceObject(rawClass(sourceType));
 			for (Step step : steps) {
 				step.generate_get();
+				returnIfNull();
 				castTo(step.targetClass());
 			}
 		}
@@ -378,6 +539,7 @@ public final class PathCompiler {
 		/**
 		 * Push values on the stack for each segment in order, except for the last segment
 		 * (because that one usually needs special treatment).
+		 * If any of them does not exist, returns null from the generated method.
 		 *
 		 * <p>
 		 * Initial stack: (nothing)
@@ -388,6 +550,7 @@ public final class PathCompiler {
 			for (Step step : steps.subList(0, steps.size() - 1)) {
 				dup();
 				step.generate_get();
+				returnIfNull();
 				castTo(step.targetClass());
 			}
 		}
@@ -539,7 +702,6 @@ public final class PathCompiler {
 			@Override
 			public void generate_get() {
 				pushIdAt(segmentNum);
-				pushReference();
 				invoke(CATALOG_GET);
 			}
 
@@ -582,7 +744,6 @@ public final class PathCompiler {
 			@Override
 			public void generate_get() {
 				pushIdAt(segmentNum);
-				pushReference();
 				invoke(LISTING_GET);
 			}
 
@@ -619,7 +780,6 @@ public final class PathCompiler {
 			@Override
 			public void generate_get() {
 				pushIdAt(segmentNum);
-				pushReference();
 				invoke(SIDE_TABLE_GET);
 			}
 
@@ -655,8 +815,7 @@ public final class PathCompiler {
 			@Override
 			public void generate_get() {
 				fieldStep.generate_get();
-				pushReference();
-				invoke(OPTIONAL_OR_THROW);
+				invoke(OPTIONAL_OR_NULL);
 			}
 
 			@Override
@@ -689,9 +848,9 @@ public final class PathCompiler {
 
 			@Override
 			public void generate_get() {
+				// Phantoms never exist
 				pop();
-				pushReference();
-				invoke(THROW_NONEXISTENT_ENTRY);
+				pushNull();
 			}
 
 			@Override
@@ -734,7 +893,6 @@ public final class PathCompiler {
 
 				// On a tag mismatch, report nonexistent
 				cb.pushString(name);
-				pushReference();
 				invoke(TAG_CHECK);
 			}
 
@@ -800,17 +958,17 @@ public final class PathCompiler {
 	 */
 	private static final class RootDereferencer implements Dereferencer {
 		@Override
-		public Object get(Object source, Reference<?> ref) {
+		public Object getIfExists(Object source, IdSource ids) {
 			return source;
 		}
 
 		@Override
-		public Object with(Object source, Reference<?> ref, Object newValue) {
+		public Object withIfExists(Object source, Reference<?> ref, Object newValue) {
 			return newValue;
 		}
 
 		@Override
-		public Object without(Object source, Reference<?> ref) {
+		public Object withoutIfExists(Object source, Reference<?> ref) {
 			return DereferencerRuntime.invalidWithout(source, ref);
 		}
 	}
@@ -839,30 +997,29 @@ public final class PathCompiler {
 	static final Method CATALOG_GET, CATALOG_WITH, CATALOG_WITHOUT;
 	static final Method LISTING_GET, LISTING_WITH, LISTING_WITHOUT;
 	static final Method SIDE_TABLE_GET, SIDE_TABLE_WITH, SIDE_TABLE_WITHOUT;
-	static final Method OPTIONAL_OF, OPTIONAL_OR_THROW, OPTIONAL_EMPTY;
+	static final Method OPTIONAL_OF, OPTIONAL_OR_NULL, OPTIONAL_EMPTY;
 	static final Method TAGGED_UNION_VALUE, TAG_CHECK, THROW_CANNOT_REPLACE_VARIANT_CASE;
-	static final Method THROW_NONEXISTENT_ENTRY, THROW_CANNOT_REPLACE_PHANTOM;
-	static final Method INSTANCEOF_OR_NONEXISTENT, INVALID_WITHOUT;
+	static final Method THROW_CANNOT_REPLACE_PHANTOM;
+	static final Method INSTANCEOF_OR_NULL, INVALID_WITHOUT;
 
 	static {
 		try {
-			CATALOG_GET = DereferencerRuntime.class.getDeclaredMethod("catalogEntryOrThrow", Catalog.class, Identifier.class, Reference.class);
+			CATALOG_GET = Catalog.class.getDeclaredMethod("get", Identifier.class);
 			CATALOG_WITH = Catalog.class.getDeclaredMethod("with", Entity.class);
 			CATALOG_WITHOUT = Catalog.class.getDeclaredMethod("without", Identifier.class);
-			INSTANCEOF_OR_NONEXISTENT = DereferencerRuntime.class.getDeclaredMethod("instanceofOrNonexistent", Object.class, Class.class, Reference.class);
-			LISTING_GET = DereferencerRuntime.class.getDeclaredMethod("listingEntryOrThrow", Listing.class, Identifier.class, Reference.class);
+			INSTANCEOF_OR_NULL = DereferencerRuntime.class.getDeclaredMethod("instanceofOrNull", Object.class, Class.class);
+			LISTING_GET = DereferencerRuntime.class.getDeclaredMethod("listingEntryOrNull", Listing.class, Identifier.class);
 			LISTING_WITH = DereferencerRuntime.class.getDeclaredMethod("listingWith", Listing.class, Identifier.class, Object.class);
 			LISTING_WITHOUT = Listing.class.getDeclaredMethod("withoutID", Identifier.class);
-			SIDE_TABLE_GET = DereferencerRuntime.class.getDeclaredMethod("sideTableEntryOrThrow", SideTable.class, Identifier.class, Reference.class);
+			SIDE_TABLE_GET = SideTable.class.getDeclaredMethod("get", Identifier.class);
 			SIDE_TABLE_WITH = SideTable.class.getDeclaredMethod("with", Identifier.class, Object.class);
 			SIDE_TABLE_WITHOUT = SideTable.class.getDeclaredMethod("without", Identifier.class);
 			OPTIONAL_OF = Optional.class.getDeclaredMethod("ofNullable", Object.class);
-			OPTIONAL_OR_THROW = DereferencerRuntime.class.getDeclaredMethod("optionalOrThrow", Optional.class, Reference.class);
+			OPTIONAL_OR_NULL = DereferencerRuntime.class.getDeclaredMethod("optionalOrNull", Optional.class);
 			OPTIONAL_EMPTY = Optional.class.getDeclaredMethod("empty");
 			TAGGED_UNION_VALUE = TaggedUnion.class.getDeclaredMethod("variant");
-			TAG_CHECK = DereferencerRuntime.class.getDeclaredMethod("tagCheck", VariantCase.class, String.class, Reference.class);
+			TAG_CHECK = DereferencerRuntime.class.getDeclaredMethod("tagCheck", VariantCase.class, String.class);
 			THROW_CANNOT_REPLACE_VARIANT_CASE = DereferencerRuntime.class.getDeclaredMethod("throwCannotReplaceVariantCase", Reference.class);
-			THROW_NONEXISTENT_ENTRY = DereferencerRuntime.class.getDeclaredMethod("throwNonexistentEntry", Reference.class);
 			THROW_CANNOT_REPLACE_PHANTOM = DereferencerRuntime.class.getDeclaredMethod("throwCannotReplacePhantom", Reference.class);
 			INVALID_WITHOUT = DereferencerRuntime.class.getDeclaredMethod("invalidWithout", Object.class, Reference.class);
 		} catch (NoSuchMethodException e) {
@@ -59,6 +59,7 @@ abstract class SkeletonDereferencerBuilder implements DereferencerBuilder {
 
 	/**
 	 * Pushes the {@link Reference} object onto the operand stack.
+	 * In {@link #generate_get()}, this is only an {@link IdSource}.
 	 */
 	protected final void pushReference() {
 		cb.pushLocal(cb.parameter(2));
@@ -95,6 +96,17 @@ abstract class SkeletonDereferencerBuilder implements DereferencerBuilder {
 		cb.castTo(expectedType);
 	}
 
+	/**
+	 * Pushes null onto the operand stack.
+	 */
+	protected final void pushNull() { cb.pushNull(); }
+
+	/**
+	 * If the top operand is null, returns it, indicating that the desired object does not exist.
+	 * Otherwise, leaves it on the stack.
+	 */
+	protected final void returnIfNull() { cb.returnIfNull(); }
+
 	/**
 	 * Pushes the given value onto the operand stack.
 	 */
@@ -110,7 +122,7 @@ abstract class SkeletonDereferencerBuilder implements DereferencerBuilder {
 	}
 
 	/**
-	 * Pushes the result of calling <code>reference.{@link Reference#idAt idAt}(segmentNum)</code>.
+	 * Pushes the result of calling <code>reference.{@link IdSource#idAt idAt}(segmentNum)</code>.
 	 *
 	 * <p>
 	 * Equivalent to:
@@ -118,26 +130,26 @@ abstract class SkeletonDereferencerBuilder implements DereferencerBuilder {
 	 * <pre>
 	 * pushReference();
 	 * pushInt(segmentNum);
-	 * invoke(REFERENCE_ID_AT);
+	 * invoke(ID_SOURCE_ID_AT);
 	 * </pre>
 	 */
 	protected final void pushIdAt(int segmentNum) {
 		pushReference();
 		pushInt(segmentNum);
-		invoke(REFERENCE_ID_AT);
+		invoke(ID_SOURCE_ID_AT);
 	}
 
 	static {
 		try {
-			REFERENCE_ID_AT = Reference.class.getDeclaredMethod("idAt", int.class);
+			ID_SOURCE_ID_AT = IdSource.class.getDeclaredMethod("idAt", int.class);
 
-			DEREFERENCER_GET = Dereferencer.class.getDeclaredMethod("get", Object.class, Reference.class);
-			DEREFERENCER_WITH = Dereferencer.class.getDeclaredMethod("with", Object.class, Reference.class, Object.class);
-			DEREFERENCER_WITHOUT = Dereferencer.class.getDeclaredMethod("without", Object.class, Reference.class);
+			DEREFERENCER_GET = Dereferencer.class.getDeclaredMethod("getIfExists", Object.class, IdSource.class);
+			DEREFERENCER_WITH = Dereferencer.class.getDeclaredMethod("withIfExists", Object.class, Reference.class, Object.class);
+			DEREFERENCER_WITHOUT = Dereferencer.class.getDeclaredMethod("withoutIfExists", Object.class, Reference.class);
 		} catch (NoSuchMethodException e) {
 			throw new AssertionError(e);
 		}
 	}
 
-	private final static Method REFERENCE_ID_AT, DEREFERENCER_GET, DEREFERENCER_WITH, DEREFERENCER_WITHOUT;
+	private final static Method ID_SOURCE_ID_AT, DEREFERENCER_GET, DEREFERENCER_WITH, DEREFERENCER_WITHOUT;
 }
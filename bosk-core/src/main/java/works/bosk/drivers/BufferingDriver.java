@@ -2,6 +2,7 @@ package works.bosk.drivers;
 
 import java.io.IOException;
 import java.util.Deque;
+import java.util.List;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
@@ -27,6 +28,8 @@ import works.bosk.exceptions.InvalidTypeException;
  * <strong>not</strong> submitted downstream atomically: other updates from other
  * threads may be interleaved. (They are, of course, submitted downstream
  * in the order they were submitted to this driver.)
+ * Updates that must be applied atomically can be submitted together using
+ * {@link #submitBatch}, which passes the batch downstream intact.
  *
  * @author pdoyle
  */
@@ -75,6 +78,12 @@ public class BufferingDriver implements BoskDriver {
 		enqueue(d -> d.submitConditionalDeletion(target, precondition, requiredValue));
 	}
 
+	@Override
+	public void submitBatch(List<? extends Update> updates) {
+		List<Update> batch = List.copyOf(updates);
+		enqueue(d -> d.submitBatch(batch));
+	}
+
 	@Override
 	public void flush() throws InterruptedException, IOException {
 		for (Consumer<BoskDriver> update = updateQueue.pollFirst(); update != null; update = updateQueue.pollFirst()) {
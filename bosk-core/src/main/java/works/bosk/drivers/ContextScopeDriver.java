@@ -1,6 +1,7 @@
 package works.bosk.drivers;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.function.Function;
 import works.bosk.BoskContext;
 import works.bosk.BoskContext.ContextScope;
@@ -73,6 +74,13 @@ public final class ContextScopeDriver implements BoskDriver {
 		}
 	}
 
+	@Override
+	public void submitBatch(List<? extends Update> updates) {
+		try (var _ = scopeSupplier.apply(context)) {
+			downstream.submitBatch(updates);
+		}
+	}
+
 	@Override
 	public void flush() throws IOException, InterruptedException {
 		try (var _ = scopeSupplier.apply(context)) {
@@ -1,6 +1,7 @@
 package works.bosk.drivers;
 
 import java.io.IOException;
+import java.util.List;
 import works.bosk.BoskDriver;
 import works.bosk.DriverFactory;
 import works.bosk.Identifier;
@@ -58,6 +59,11 @@ public class ForwardingDriver implements BoskDriver {
 		downstream.submitConditionalDeletion(target, precondition, requiredValue);
 	}
 
+	@Override
+	public void submitBatch(List<? extends Update> updates) {
+		downstream.submitBatch(updates);
+	}
+
 	@Override
 	public void flush() throws InterruptedException, IOException {
 		downstream.flush();
@@ -1,6 +1,7 @@
 package works.bosk.drivers;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -9,6 +10,12 @@ import java.util.function.Consumer;
 import works.bosk.Bosk;
 import works.bosk.BoskContext;
 import works.bosk.BoskDriver;
+import works.bosk.BoskDriver.Update;
+import works.bosk.BoskDriver.Update.ConditionalCreation;
+import works.bosk.BoskDriver.Update.ConditionalDeletion;
+import works.bosk.BoskDriver.Update.ConditionalReplacement;
+import works.bosk.BoskDriver.Update.Deletion;
+import works.bosk.BoskDriver.Update.Replacement;
 import works.bosk.BoskInfo;
 import works.bosk.DriverFactory;
 import works.bosk.DriverStack;
@@ -210,6 +217,14 @@ public class ReplicaSet<R extends StateTreeNode> {
 					r.correspondingReference(precondition), requiredValue));
 		}
 
+		@Override
+		public void submitBatch(List<? extends Update> updates) {
+			broadcast(r -> r.driver
+				.submitBatch(updates.stream()
+					.map(r::correspondingUpdate)
+					.toList()));
+		}
+
 		@Override
 		public void flush() throws IOException, InterruptedException {
 			// We don't broadcast flushes.
@@ -246,6 +261,20 @@ public class ReplicaSet<R extends StateTreeNode> {
 			return boskInfo.rootReference();
 		}
 
+		@SuppressWarnings("unchecked")
+		private Update correspondingUpdate(Update original) {
+			Reference<Object> target = (Reference<Object>) correspondingReference(original.target());
+			return switch (original) {
+				case Replacement<?> u -> new Replacement<>(target, u.newValue());
+				case ConditionalReplacement<?> u -> new ConditionalReplacement<>(target, u.newValue(),
+					correspondingReference(u.precondition()), u.requiredValue());
+				case ConditionalCreation<?> u -> new ConditionalCreation<>(target, u.newValue());
+				case Deletion<?> _ -> new Deletion<>(target);
+				case ConditionalDeletion<?> u -> new ConditionalDeletion<>(target,
+					correspondingReference(u.precondition()), u.requiredValue());
+			};
+		}
+
 		@SuppressWarnings("unchecked")
 		private <T> Reference<T> correspondingReference(Reference<T> original) {
 			try {
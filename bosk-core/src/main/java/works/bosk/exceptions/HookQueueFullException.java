@@ -0,0 +1,14 @@
+package works.bosk.exceptions;
+
+/**
+ * Thrown when an update is submitted while the bosk's hook queue is full,
+ * under the {@link works.bosk.BoskConfig.HookQueueOverflowPolicy#FAIL FAIL} policy.
+ * The update has no effect.
+ *
+ * @see works.bosk.BoskConfig.HookQueueLimit
+ */
+public class HookQueueFullException extends IllegalStateException {
+	public HookQueueFullException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,13 @@
+package works.bosk.exceptions;
+
+/**
+ * Thrown when asked for a revision of the bosk state that
+ * has been discarded from the snapshot history, or that doesn't exist yet.
+ *
+ * @see works.bosk.BoskConfig.SnapshotRetention
+ */
+public class RevisionUnavailableException extends RuntimeException {
+	public RevisionUnavailableException(long revision) {
+		super("Revision " + revision + " is not available");
+	}
+}
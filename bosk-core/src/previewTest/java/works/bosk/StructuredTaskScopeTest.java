@@ -0,0 +1,48 @@
+package works.bosk;
+
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.StructuredTaskScope.Subtask;
+import org.junit.jupiter.api.Test;
+import works.bosk.libtesting.AbstractBoskTest;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * {@link StructuredTaskScope} is still a preview API,
+ * so these tests live in their own source set, compiled and run with preview features enabled.
+ */
+class StructuredTaskScopeTest extends AbstractBoskTest {
+
+	@Test
+	void inReadSession_forkedSubtasksSeeSnapshot() throws Exception {
+		Bosk<TestRoot> bosk = setUpBosk(BoskConfig.simpleDriver());
+		Reference<TestRoot> rootRef = bosk.rootReference();
+		bosk.inReadSession(() -> {
+			TestRoot sessionRoot = rootRef.value();
+			bosk.driver().submitReplacement(rootRef, sessionRoot.withId(Identifier.from("newID")));
+			bosk.driver().flush();
+			assertSame(sessionRoot, valueFromSubtask(rootRef), "Subtask should see the session's snapshot, not the update");
+			return null;
+		});
+	}
+
+	@Test
+	void inReadSession_promotesReadSessionForForkedSubtasks() throws Exception {
+		Bosk<TestRoot> bosk = setUpBosk(BoskConfig.simpleDriver());
+		Reference<TestRoot> rootRef = bosk.rootReference();
+		try (var _ = bosk.readSession()) {
+			TestRoot sessionRoot = rootRef.value();
+			bosk.driver().submitReplacement(rootRef, sessionRoot.withId(Identifier.from("newID")));
+			bosk.driver().flush();
+			assertSame(sessionRoot, bosk.inReadSession(() -> valueFromSubtask(rootRef)));
+		}
+	}
+
+	private static <T> T valueFromSubtask(Reference<T> ref) throws InterruptedException {
+		try (var scope = StructuredTaskScope.open()) {
+			Subtask<T> subtask = scope.fork(ref::value);
+			scope.join();
+			return subtask.get();
+		}
+	}
+}
@@ -1,9 +1,12 @@
 package works.bosk;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeoutException;
 import org.junit.jupiter.api.BeforeEach;
@@ -145,6 +148,41 @@ class BoskContextTest extends AbstractDriverTest {
 		}
 	}
 
+	@Test
+	void updatesToDifferentTenants_concurrent_noneLost() throws Exception {
+		if (scenario.tenancyModel instanceof Implicit) {
+			// Not relevant; there's only one tree
+			return;
+		}
+		Refs refs = bosk.buildReferences(Refs.class);
+		int numUpdates = 1000;
+		List<TenantId> tenants = List.of(tenant1, tenant2);
+		try (var virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (TenantId tenant : tenants) {
+				futures.add(virtualThreads.submit(() -> {
+					try (var _ = bosk.context().withTenant(tenant)) {
+						for (int i = 1; i <= numUpdates; i++) {
+							bosk.driver().submitReplacement(refs.string(), tenant.tenant() + "_" + i);
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(10, SECONDS);
+			}
+		}
+		for (TenantId tenant : tenants) {
+			try (
+				var _ = bosk.context().withTenant(tenant);
+				var _ = bosk.readSession()
+			) {
+				assertEquals(tenant.tenant() + "_" + numUpdates, refs.string().value(),
+					"Each tenant should see all its own updates, regardless of the other tenant's");
+			}
+		}
+	}
+
 	@Test
 	void wrongOrder_throws() {
 		var context = bosk.context();
@@ -1,10 +1,25 @@
 package works.bosk;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
+import works.bosk.exceptions.NoReadSessionException;
+import works.bosk.exceptions.RevisionUnavailableException;
 import works.bosk.libtesting.AbstractBoskTest;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static works.bosk.testing.BoskTestUtils.boskName;
 
 class BoskTest extends AbstractBoskTest {
@@ -24,4 +39,190 @@ class BoskTest extends AbstractBoskTest {
 		assertEquals(TestRoot.class, bosk.rootReference().targetClass());
 	}
 
+	@Test
+	void inReadSession_holdsSnapshot() throws Exception {
+		Bosk<TestRoot> bosk = setUpBosk(BoskConfig.simpleDriver());
+		Reference<TestRoot> rootRef = bosk.rootReference();
+		assertThrows(NoReadSessionException.class, rootRef::value);
+
+		TestRoot originalRoot = bosk.inReadSession(rootRef::value);
+		bosk.inReadSession(() -> {
+			assertSame(originalRoot, rootRef.value());
+			bosk.driver().submitReplacement(rootRef, originalRoot.withId(Identifier.from("newID")));
+			bosk.driver().flush();
+			assertSame(originalRoot, rootRef.value(), "Update should not be visible in the same session");
+			assertSame(originalRoot, bosk.inReadSession(rootRef::value), "Nested session should use the same snapshot");
+			try (var _ = bosk.readSession()) {
+				assertSame(originalRoot, rootRef.value(), "Nested ReadSession should use the same snapshot");
+			}
+			try (var _ = bosk.supersedingReadSession()) {
+				assertNotSame(originalRoot, rootRef.value(), "Superseding session should see the update");
+			}
+			assertSame(originalRoot, rootRef.value(), "Closing the superseding session should restore the snapshot");
+			return null;
+		});
+		assertThrows(NoReadSessionException.class, rootRef::value);
+	}
+
+	@Test
+	void inReadSession_usesEnclosingReadSession() {
+		Bosk<TestRoot> bosk = setUpBosk(BoskConfig.simpleDriver());
+		Reference<TestRoot> rootRef = bosk.rootReference();
+		try (var _ = bosk.readSession()) {
+			TestRoot sessionRoot = rootRef.value();
+			assertSame(sessionRoot, bosk.inReadSession(rootRef::value));
+		}
+	}
+
+	@Test
+	void sessionExecutor_seesSessionSnapshot() throws Exception {
+		Bosk<TestRoot> bosk = setUpBosk(BoskConfig.simpleDriver());
+		Reference<TestRoot> rootRef = bosk.rootReference();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try (var session = bosk.readSession()) {
+			TestRoot sessionRoot = rootRef.value();
+			bosk.driver().submitReplacement(rootRef, sessionRoot.withId(Identifier.from("newID")));
+			bosk.driver().flush();
+
+			CompletableFuture<TestRoot> fromExecutor = CompletableFuture.supplyAsync(rootRef::value, session.executor(executor));
+			assertSame(sessionRoot, fromExecutor.get());
+			assertSame(sessionRoot, executor.submit(session.wrap(rootRef::value)).get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void sessionForkJoinPool_parallelStreamSeesSessionSnapshot() throws Exception {
+		Bosk<TestRoot> bosk = setUpBosk(BoskConfig.simpleDriver());
+		Reference<TestRoot> rootRef = bosk.rootReference();
+		try (
+			var session = bosk.readSession();
+			var pool = session.newForkJoinPool(4)
+		) {
+			TestRoot sessionRoot = rootRef.value();
+			bosk.driver().submitReplacement(rootRef, sessionRoot.withId(Identifier.from("newID")));
+			bosk.driver().flush();
+
+			List<TestRoot> roots = pool.submit(() -> IntStream.range(0, 1000)
+				.parallel()
+				.mapToObj(_ -> rootRef.value())
+				.toList()
+			).join();
+			roots.forEach(root -> assertSame(sessionRoot, root));
+		}
+	}
+
+
+	@Test
+	void readSessionAt_seesRetainedRevisions() throws Exception {
+		Bosk<TestRoot> bosk = setUpBoskRetaining(3, Duration.ofHours(1));
+		Reference<TestRoot> rootRef = bosk.rootReference();
+		Reference<String> stringRef = rootRef
+			.thenCatalog(TestEntity.class, TestRoot.Fields.entities)
+			.then(Identifier.from("parent"))
+			.then(String.class, TestEntity.Fields.string);
+
+		long initialRevision = bosk.currentRevision();
+		TestRoot initialRoot = bosk.inReadSession(rootRef::value);
+		bosk.driver().submitReplacement(stringRef, "new value");
+		bosk.driver().flush();
+		assertEquals(initialRevision + 1, bosk.currentRevision());
+
+		try (var _ = bosk.readSessionAt(initialRevision)) {
+			assertSame(initialRoot, rootRef.value());
+		}
+		try (var _ = bosk.readSessionAt(bosk.currentRevision())) {
+			assertEquals("new value", stringRef.value());
+		}
+
+		bosk.driver().submitReplacement(stringRef, "newer value");
+		bosk.driver().submitReplacement(stringRef, "newest value");
+		bosk.driver().flush();
+		assertThrows(RevisionUnavailableException.class, () -> bosk.readSessionAt(initialRevision),
+			"Only three revisions are retained");
+		assertThrows(RevisionUnavailableException.class, () -> bosk.readSessionAt(bosk.currentRevision() + 1));
+		try (var _ = bosk.readSessionAt(initialRevision + 1)) {
+			assertEquals("new value", stringRef.value());
+		}
+	}
+
+	@Test
+	void readSessionAt_expiredRevision_throws() throws Exception {
+		Bosk<TestRoot> bosk = setUpBoskRetaining(10, Duration.ZERO);
+		long initialRevision = bosk.currentRevision();
+		bosk.driver().submitReplacement(bosk.rootReference(), bosk.inReadSession(bosk.rootReference()::value).withId(Identifier.from("newID")));
+		bosk.driver().flush();
+		Thread.sleep(2);
+		assertThrows(RevisionUnavailableException.class, () -> bosk.readSessionAt(initialRevision));
+		try (var _ = bosk.readSessionAt(bosk.currentRevision())) {
+			assertEquals(Identifier.from("newID"), bosk.rootReference().value().id(),
+				"Current revision is retained no matter how old it is");
+		}
+	}
+
+	@Test
+	void changesSince_reportsOnlyChangedEntries() throws Exception {
+		Bosk<TestRoot> bosk = setUpBoskRetaining(10, Duration.ofHours(1));
+		CatalogReference<TestChild> childrenRef = bosk.rootReference()
+			.thenCatalog(TestEntity.class, TestRoot.Fields.entities)
+			.then(Identifier.from("parent"))
+			.thenCatalog(TestChild.class, TestEntity.Fields.children);
+		Reference<TestChild> child2Ref = childrenRef.then(Identifier.from("child2"));
+		Reference<TestChild> child3Ref = childrenRef.then(Identifier.from("child3"));
+		Reference<TestEnum> child1EnumRef = childrenRef.then(Identifier.from("child1")).then(TestEnum.class, TestChild.Fields.testEnum);
+
+		long initialRevision = bosk.currentRevision();
+		assertTrue(bosk.changesSince(initialRevision).isEmpty());
+
+		bosk.driver().submitReplacement(child2Ref.then(String.class, TestChild.Fields.string), "changed");
+		bosk.driver().submitDeletion(child3Ref);
+		bosk.driver().flush();
+
+		Bosk<TestRoot>.RevisionDiff diff = bosk.changesSince(initialRevision);
+		assertEquals(initialRevision, diff.priorRevision());
+		assertEquals(bosk.currentRevision(), diff.currentRevision());
+		assertFalse(diff.isEmpty());
+		assertTrue(diff.hasChanged(childrenRef));
+		assertFalse(diff.hasChanged(child1EnumRef));
+		assertNotNull(diff.priorValue(child3Ref));
+		assertNull(diff.currentValue(child3Ref));
+
+		List<String> changes = new ArrayList<>();
+		diff.forEachChange(childrenRef, new EntryChangeVisitor<>() {
+			@Override
+			public void added(Identifier id, TestChild newValue) {
+				changes.add("added " + id);
+			}
+
+			@Override
+			public void changed(Identifier id, TestChild priorValue, TestChild newValue) {
+				changes.add("changed " + id);
+			}
+
+			@Override
+			public void removed(Identifier id, TestChild priorValue) {
+				changes.add("removed " + id);
+			}
+		});
+		assertEquals(List.of("removed child3", "changed child2"), changes);
+	}
+
+	@Test
+	void snapshotHistory_disabledByDefault() {
+		Bosk<TestRoot> bosk = setUpBosk(BoskConfig.simpleDriver());
+		assertThrows(IllegalStateException.class, bosk::currentRevision);
+		assertThrows(IllegalStateException.class, () -> bosk.readSessionAt(0));
+	}
+
+	private static Bosk<TestRoot> setUpBoskRetaining(int maxCount, Duration maxAge) {
+		return new Bosk<>(
+			boskName(),
+			TestRoot.class,
+			AbstractBoskTest::initialState,
+			BoskConfig.<TestRoot>builder()
+				.retainSnapshots(maxCount, maxAge)
+				.build()
+		);
+	}
 }
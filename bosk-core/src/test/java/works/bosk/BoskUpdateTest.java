@@ -1,12 +1,18 @@
 package works.bosk;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import works.bosk.BoskConfig.UpdateStrategy;
 import works.bosk.annotations.ReferencePath;
 import works.bosk.exceptions.InvalidTypeException;
 import works.bosk.libtesting.AbstractBoskTest;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static works.bosk.testing.BoskTestUtils.boskName;
 
@@ -150,6 +156,39 @@ public class BoskUpdateTest extends AbstractBoskTest {
 		assertValueEquals(originalParent.string(), ref);
 	}
 
+	@Test
+	void optimisticStrategy_concurrentUpdates_noneLost() throws Exception {
+		bosk = new Bosk<>(
+			boskName(),
+			TestRoot.class,
+			AbstractBoskTest::initialState,
+			BoskConfig.<TestRoot>builder()
+				.updateStrategy(UpdateStrategy.OPTIMISTIC)
+				.build());
+		refs = bosk.buildReferences(Refs.class);
+		List<Identifier> childIDs = List.of(CHILD_1_ID, Identifier.from("child2"), Identifier.from("child3"));
+		int numUpdates = 1000;
+		try (var virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (Identifier childID : childIDs) {
+				Reference<TestChild> ref = refs.child(PARENT_ID, childID);
+				futures.add(virtualThreads.submit(() -> {
+					for (int i = 1; i <= numUpdates; i++) {
+						bosk.driver().submitReplacement(ref, new TestChild(childID, childID + "_" + i, TestEnum.OK, Catalog.empty()));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(10, SECONDS);
+			}
+		}
+		for (Identifier childID : childIDs) {
+			assertValueEquals(
+				new TestChild(childID, childID + "_" + numUpdates, TestEnum.OK, Catalog.empty()),
+				refs.child(PARENT_ID, childID));
+		}
+	}
+
 	<T> void assertValueEquals(T expected, Reference<T> ref) throws IOException, InterruptedException {
 		bosk.driver().flush();
 		try (var _ = bosk.readSession()) {
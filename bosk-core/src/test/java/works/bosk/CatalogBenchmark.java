@@ -7,10 +7,12 @@ import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
 import works.bosk.exceptions.InvalidTypeException;
 import works.bosk.libtesting.AbstractBoskTest;
 import works.bosk.libtesting.TestEntityBuilder;
@@ -25,9 +27,15 @@ public class CatalogBenchmark {
 
 	@State(Scope.Benchmark)
 	public static class BenchmarkState {
+		@Param({"1000", "10000", "100000", "1000000"})
+		int initialSize;
+
 		private Catalog<AbstractBoskTest.TestEntity> catalog;
+		private Catalog<AbstractBoskTest.TestEntity> catalogWithReplacement;
 		private LinkedHashMap<Identifier, AbstractBoskTest.TestEntity> map;
 		private AbstractBoskTest.TestEntity newEntity;
+		private AbstractBoskTest.TestEntity replacementEntity;
+		private Identifier middleID;
 
 		@Setup(Level.Trial)
 		public void setup() throws InvalidTypeException {
@@ -37,12 +45,14 @@ public class CatalogBenchmark {
 				AbstractBoskTest::initialState,
 				BoskConfig.simple());
 			TestEntityBuilder teb = new TestEntityBuilder(bosk);
-			int initialSize = 100_000;
 			catalog = Catalog.of(IntStream.rangeClosed(1, initialSize).mapToObj(i ->
 				teb.blankEntity(Identifier.from("Entity_" + i), AbstractBoskTest.TestEnum.OK)));
 			map = new LinkedHashMap<>();
 			catalog.forEach(e -> map.put(e.id(), e));
 			newEntity = teb.blankEntity(Identifier.from("New entity"), AbstractBoskTest.TestEnum.OK);
+			middleID = Identifier.from("Entity_" + (initialSize / 2));
+			replacementEntity = teb.blankEntity(middleID, AbstractBoskTest.TestEnum.NOT_SO_OK);
+			catalogWithReplacement = catalog.with(replacementEntity);
 		}
 	}
 
@@ -66,4 +76,45 @@ public class CatalogBenchmark {
 		return state.map.put(state.newEntity.id(), state.newEntity);
 	}
 
+	@Benchmark
+	@BenchmarkMode(Throughput)
+	public Object catalogGet(BenchmarkState state) {
+		return state.catalog.get(state.middleID);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Throughput)
+	public Object catalogWith_replacement(BenchmarkState state) {
+		return state.catalog.with(state.replacementEntity);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Throughput)
+	public Object catalogWithout(BenchmarkState state) {
+		return state.catalog.without(state.middleID);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Throughput)
+	public void catalogIterate(BenchmarkState state, Blackhole blackhole) {
+		for (AbstractBoskTest.TestEntity entity : state.catalog) {
+			blackhole.consume(entity);
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Throughput)
+	public Object catalogIds(BenchmarkState state) {
+		return state.catalog.ids();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Throughput)
+	public void forEachChangeSince_oneReplacement(BenchmarkState state, Blackhole blackhole) {
+		state.catalogWithReplacement.forEachChangeSince(state.catalog, new EntryChangeVisitor<>() {
+			@Override public void added(Identifier id, AbstractBoskTest.TestEntity newValue) { blackhole.consume(newValue); }
+			@Override public void changed(Identifier id, AbstractBoskTest.TestEntity priorValue, AbstractBoskTest.TestEntity newValue) { blackhole.consume(newValue); }
+			@Override public void removed(Identifier id, AbstractBoskTest.TestEntity priorValue) { blackhole.consume(priorValue); }
+		});
+	}
 }
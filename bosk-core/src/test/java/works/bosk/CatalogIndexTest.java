@@ -0,0 +1,188 @@
+package works.bosk;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import works.bosk.BoskContext.Tenant;
+import works.bosk.BoskContext.Tenant.TenantId;
+import works.bosk.BoskDriver.EntireState.MultiTree;
+import works.bosk.annotations.ReferencePath;
+import works.bosk.exceptions.InvalidTypeException;
+import works.bosk.libtesting.AbstractBoskTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static works.bosk.BoskConfig.simpleDriver;
+import static works.bosk.libtesting.AbstractBoskTest.TestEnum.NOT_SO_OK;
+import static works.bosk.libtesting.AbstractBoskTest.TestEnum.OK;
+import static works.bosk.testing.BoskTestUtils.boskName;
+
+class CatalogIndexTest extends AbstractBoskTest {
+	Bosk<TestRoot> bosk;
+	Refs refs;
+	CatalogIndex<TestChild, TestEnum> byEnum;
+
+	public interface Refs {
+		@ReferencePath("/entities/parent") Reference<TestEntity> parent();
+		@ReferencePath("/entities/parent/children") CatalogReference<TestChild> children();
+		@ReferencePath("/entities/parent/children/-child-") Reference<TestChild> child(Identifier child);
+		@ReferencePath("/entities/-entity-/children") CatalogReference<TestChild> anyChildren();
+	}
+
+	static final Identifier CHILD1 = Identifier.from("child1");
+	static final Identifier CHILD2 = Identifier.from("child2");
+	static final Identifier CHILD3 = Identifier.from("child3");
+
+	@BeforeEach
+	void setup() throws InvalidTypeException {
+		bosk = setUpBosk(simpleDriver());
+		refs = bosk.buildReferences(Refs.class);
+		byEnum = bosk.registerIndex(refs.children(), TestChild::testEnum);
+	}
+
+	@Test
+	void initialState_indexed() {
+		try (var _ = bosk.readSession()) {
+			assertEquals(List.of(CHILD1, CHILD3), byEnum.get(OK).ids());
+			assertEquals(List.of(CHILD2), byEnum.get(NOT_SO_OK).ids());
+		}
+	}
+
+	@Test
+	void updates_reflected() throws IOException, InterruptedException {
+		TestChild child1 = child(CHILD1, NOT_SO_OK);
+		TestChild child4 = child(Identifier.from("child4"), OK);
+		bosk.driver().submitReplacement(refs.child(CHILD1), child1);
+		bosk.driver().submitReplacement(refs.child(child4.id()), child4);
+		bosk.driver().submitDeletion(refs.child(CHILD2));
+		bosk.driver().flush();
+		try (var _ = bosk.readSession()) {
+			assertEquals(List.of(CHILD3, child4.id()), byEnum.get(OK).ids());
+			assertEquals(List.of(CHILD1), byEnum.get(NOT_SO_OK).ids());
+			assertEquals(child1, byEnum.get(NOT_SO_OK).get(CHILD1));
+		}
+	}
+
+	@Test
+	void sameKey_entryReplaced() throws IOException, InterruptedException {
+		TestChild child3 = child(CHILD3, OK).withString("changed");
+		bosk.driver().submitReplacement(refs.child(CHILD3), child3);
+		bosk.driver().flush();
+		try (var _ = bosk.readSession()) {
+			assertEquals(List.of(CHILD1, CHILD3), byEnum.get(OK).ids());
+			assertEquals(child3, byEnum.get(OK).get(CHILD3));
+		}
+	}
+
+	@Test
+	void olderSession_seesItsOwnSnapshot() throws IOException, InterruptedException {
+		try (var _ = bosk.readSession()) {
+			bosk.driver().submitDeletion(refs.child(CHILD1));
+			bosk.driver().flush();
+			assertEquals(List.of(CHILD1, CHILD3), byEnum.get(OK).ids());
+		}
+		try (var _ = bosk.readSession()) {
+			assertEquals(List.of(CHILD3), byEnum.get(OK).ids());
+		}
+	}
+
+	@Test
+	void lastEntryRemoved_keyAbsent() throws IOException, InterruptedException {
+		bosk.driver().submitDeletion(refs.child(CHILD2));
+		bosk.driver().flush();
+		try (var _ = bosk.readSession()) {
+			assertFalse(byEnum.containsKey(NOT_SO_OK));
+			assertTrue(byEnum.get(NOT_SO_OK).isEmpty());
+		}
+	}
+
+	@Test
+	void catalogDeleted_empty() throws IOException, InterruptedException {
+		bosk.driver().submitDeletion(refs.parent());
+		bosk.driver().flush();
+		try (var _ = bosk.readSession()) {
+			assertTrue(byEnum.get(OK).isEmpty());
+		}
+	}
+
+	@Test
+	void multipleTenants_indexedSeparately() throws InvalidTypeException, IOException, InterruptedException {
+		TenantId tenant1 = Tenant.setTo(Identifier.from("tenant1"));
+		TenantId tenant2 = Tenant.setTo(Identifier.from("tenant2"));
+		Bosk<TestRoot> multiBosk = new Bosk<>(
+			boskName(),
+			TestRoot.class,
+			b -> MultiTree.<TestRoot>empty()
+				.with(tenant1, initialRoot(b))
+				.with(tenant2, initialRoot(b)),
+			BoskConfig.<TestRoot>builder()
+				.tenancyModel(BoskConfig.TenancyModel.PERSISTENT)
+				.build());
+		Refs multiRefs = multiBosk.buildReferences(Refs.class);
+		CatalogIndex<TestChild, TestEnum> index = multiBosk.registerIndex(multiRefs.children(), TestChild::testEnum);
+
+		try (var _ = multiBosk.context().withTenant(tenant1)) {
+			multiBosk.driver().submitReplacement(multiRefs.child(CHILD1), child(CHILD1, NOT_SO_OK));
+			multiBosk.driver().flush();
+		}
+		try (var _ = multiBosk.context().withTenant(tenant2)) {
+			multiBosk.driver().submitDeletion(multiRefs.child(CHILD2));
+			multiBosk.driver().flush();
+		}
+		for (int i = 0; i < 2; i++) {
+			// Alternate between tenants to make sure neither disturbs the other
+			try (var _ = multiBosk.context().withTenant(tenant1); var _ = multiBosk.readSession()) {
+				assertEquals(List.of(CHILD3), index.get(OK).ids());
+				assertEquals(List.of(CHILD1, CHILD2), index.get(NOT_SO_OK).ids());
+			}
+			try (var _ = multiBosk.context().withTenant(tenant2); var _ = multiBosk.readSession()) {
+				assertEquals(List.of(CHILD1, CHILD3), index.get(OK).ids());
+				assertFalse(index.containsKey(NOT_SO_OK));
+			}
+		}
+	}
+
+	@Test
+	void tenantNotUpdated_indexedOnlyOnce() throws InvalidTypeException {
+		TenantId tenant = Tenant.setTo(Identifier.from("tenant"));
+		Bosk<TestRoot> multiBosk = new Bosk<>(
+			boskName(),
+			TestRoot.class,
+			b -> MultiTree.<TestRoot>empty().with(tenant, initialRoot(b)),
+			BoskConfig.<TestRoot>builder()
+				.tenancyModel(BoskConfig.TenancyModel.PERSISTENT)
+				.build());
+		Refs multiRefs = multiBosk.buildReferences(Refs.class);
+		AtomicInteger keysComputed = new AtomicInteger();
+		CatalogIndex<TestChild, TestEnum> index = multiBosk.registerIndex(multiRefs.children(), child -> {
+			keysComputed.incrementAndGet();
+			return child.testEnum();
+		});
+
+		try (var _ = multiBosk.context().withTenant(tenant); var _ = multiBosk.readSession()) {
+			assertEquals(List.of(CHILD1, CHILD3), index.get(OK).ids());
+			int afterFirstLookup = keysComputed.get();
+			assertEquals(List.of(CHILD2), index.get(NOT_SO_OK).ids());
+			assertTrue(index.containsKey(OK));
+			assertEquals(afterFirstLookup, keysComputed.get(), "Later lookups should reuse the version derived by the first");
+		}
+	}
+
+	@Test
+	void noReadSession_throws() {
+		assertThrows(IllegalStateException.class, () -> byEnum.get(OK));
+	}
+
+	@Test
+	void parameterizedCatalog_throws() {
+		assertThrows(IllegalArgumentException.class, () -> bosk.registerIndex(refs.anyChildren(), TestChild::testEnum));
+	}
+
+	private static TestChild child(Identifier id, TestEnum testEnum) {
+		return new TestChild(id, id.toString(), testEnum, Catalog.empty());
+	}
+}
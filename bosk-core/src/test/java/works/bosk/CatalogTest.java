@@ -293,6 +293,25 @@ class CatalogTest {
 		assertEquals(expectedValues, actualValues);
 	}
 
+	@ParameterizedTest
+	@MethodSource("distinctCases")
+	void builder_matchesOf(BasicEntity[] contents) {
+		Catalog.Builder<BasicEntity> builder = Catalog.builder();
+		for (BasicEntity entity : contents) {
+			assertFalse(builder.containsID(entity.id()));
+			builder.add(entity);
+			assertTrue(builder.containsID(entity.id()));
+		}
+		assertEquals(Catalog.of(contents), builder.build());
+		assertThrows(IllegalStateException.class, () -> builder.add(wrongEntity));
+	}
+
+	@Test
+	void builder_duplicateID_throws() {
+		Catalog.Builder<BasicEntity> builder = Catalog.<BasicEntity>builder().add(b);
+		assertThrows(IllegalArgumentException.class, () -> builder.add(bNot));
+	}
+
 	@Test
 	void without_preservesOrder() {
 		BasicEntity[] contents = new BasicEntity[]{
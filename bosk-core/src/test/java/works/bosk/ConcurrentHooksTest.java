@@ -0,0 +1,114 @@
+package works.bosk;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import works.bosk.BoskConfig.HookExecution;
+import works.bosk.annotations.ReferencePath;
+import works.bosk.exceptions.InvalidTypeException;
+import works.bosk.libtesting.AbstractBoskTest;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static works.bosk.testing.BoskTestUtils.boskName;
+
+class ConcurrentHooksTest extends AbstractBoskTest {
+	Bosk<TestRoot> bosk;
+	Refs refs;
+	final CountDownLatch releaseSlowHook = new CountDownLatch(1);
+
+	public interface Refs {
+		@ReferencePath("/entities/parent/children/-child-/string") Reference<String> childString(Identifier child);
+	}
+
+	static final Identifier CHILD1 = Identifier.from("child1");
+	static final Identifier CHILD2 = Identifier.from("child2");
+
+	@BeforeEach
+	void setup() throws InvalidTypeException {
+		bosk = new Bosk<>(
+			boskName(),
+			TestRoot.class,
+			AbstractBoskTest::initialState,
+			BoskConfig.<TestRoot>builder()
+				.hookExecution(HookExecution.CONCURRENT)
+				.build());
+		refs = bosk.buildReferences(Refs.class);
+	}
+
+	@AfterEach
+	void cleanup() {
+		releaseSlowHook.countDown();
+	}
+
+	@Test
+	void slowHook_doesNotStallOthers() throws InterruptedException {
+		AtomicBoolean slowHookArmed = new AtomicBoolean(false);
+		CountDownLatch slowHookStarted = new CountDownLatch(1);
+		bosk.hookRegistrar().registerHook("slow", refs.childString(CHILD1), _ -> {
+			if (slowHookArmed.getAndSet(false)) {
+				slowHookStarted.countDown();
+				releaseSlowHook.await();
+			}
+		});
+		CountDownLatch fastHookSawUpdate = new CountDownLatch(1);
+		bosk.hookRegistrar().registerHook("fast", refs.childString(CHILD2), ref -> {
+			if ("updated".equals(ref.value())) {
+				fastHookSawUpdate.countDown();
+			}
+		});
+
+		slowHookArmed.set(true);
+		bosk.driver().submitReplacement(refs.childString(CHILD1), "updated");
+		assertTrue(slowHookStarted.await(10, SECONDS));
+		bosk.driver().submitReplacement(refs.childString(CHILD2), "updated");
+		assertTrue(fastHookSawUpdate.await(10, SECONDS), "Fast hook should run while the slow one is still running");
+	}
+
+	@Test
+	void perScope_callsRunInOrder() throws InterruptedException {
+		int numUpdates = 50;
+		StringBuilder seen = new StringBuilder();
+		CountDownLatch done = new CountDownLatch(1);
+		bosk.hookRegistrar().registerHook("recorder", refs.childString(CHILD1), ref -> {
+			String value = ref.value();
+			Thread.sleep(1); // Give later calls a chance to overtake, if they could
+			seen.append(value).append(',');
+			if (value.equals("v" + (numUpdates - 1))) {
+				done.countDown();
+			}
+		}, HookOptions.DEFAULT.withOrdering(HookOrdering.PER_SCOPE));
+		StringBuilder expected = new StringBuilder("child1,");
+		for (int i = 0; i < numUpdates; i++) {
+			bosk.driver().submitReplacement(refs.childString(CHILD1), "v" + i);
+			expected.append("v").append(i).append(',');
+		}
+		assertTrue(done.await(10, SECONDS));
+		assertEquals(expected.toString(), seen.toString());
+	}
+
+	@Test
+	void global_callsDoNotOverlap() throws InterruptedException {
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		CountDownLatch calls = new CountDownLatch(2 + 2 * 10);
+		BoskHook<String> hook = _ -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			Thread.sleep(1);
+			running.decrementAndGet();
+			calls.countDown();
+		};
+		bosk.hookRegistrar().registerHook("global1", refs.childString(CHILD1), hook, HookOptions.DEFAULT.withOrdering(HookOrdering.GLOBAL));
+		bosk.hookRegistrar().registerHook("global2", refs.childString(CHILD2), hook, HookOptions.DEFAULT.withOrdering(HookOrdering.GLOBAL));
+		for (int i = 0; i < 10; i++) {
+			bosk.driver().submitReplacement(refs.childString(CHILD1), "v" + i);
+			bosk.driver().submitReplacement(refs.childString(CHILD2), "v" + i);
+		}
+		assertTrue(calls.await(10, SECONDS));
+		assertEquals(1, maxRunning.get());
+	}
+}
@@ -0,0 +1,95 @@
+package works.bosk;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import works.bosk.annotations.ReferencePath;
+import works.bosk.exceptions.InvalidTypeException;
+import works.bosk.libtesting.AbstractBoskTest;
+
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static works.bosk.BoskConfig.simpleDriver;
+
+class ContainerDiffsTest extends AbstractBoskTest {
+	Refs refs;
+
+	public interface Refs {
+		@ReferencePath("/entities/parent/children") CatalogReference<TestChild> children();
+	}
+
+	final TestChild a = child("a");
+	final TestChild b = child("b");
+	final TestChild c = child("c");
+	final TestChild d = child("d");
+
+	@BeforeEach
+	void setup() throws InvalidTypeException {
+		refs = setUpBosk(simpleDriver()).buildReferences(Refs.class);
+	}
+
+	@Test
+	void catalog_reportsOnlyDifferences() {
+		Catalog<TestChild> prior = Catalog.of(a, b, c);
+		TestChild newB = b.withString("new");
+		Catalog<TestChild> current = prior.without(a).with(newB).without(c).with(d);
+		assertEquals(List.of("removed c", "removed a", "changed b", "added d"), changes(prior, current));
+	}
+
+	@Test
+	void catalog_sameObject_noChanges() {
+		Catalog<TestChild> catalog = Catalog.of(a, b, c);
+		assertEquals(emptyList(), changes(catalog, catalog));
+		assertEquals(emptyList(), changes(catalog, catalog.with(b)), "Replacing an entry with itself is not a change");
+	}
+
+	@Test
+	void catalog_nullPrior_allAdded() {
+		assertEquals(List.of("added a", "added b"), changes(null, Catalog.of(a, b)));
+	}
+
+	@Test
+	void sideTable_reportsOnlyDifferences() {
+		SideTable<TestChild, String> prior = SideTable.<TestChild, String>empty(refs.children())
+			.with(a, "a")
+			.with(b, "b");
+		List<String> changes = new ArrayList<>();
+		prior.without(a).with(b, "new b").with(c, "c").forEachChangeSince(prior, recorder(changes));
+		assertEquals(List.of("removed a", "changed b", "added c"), changes);
+	}
+
+	@Test
+	void listing_reportsAdditionsAndRemovals() {
+		Listing<TestChild> prior = Listing.of(refs.children(), a.id(), b.id());
+		List<String> changes = new ArrayList<>();
+		prior.withoutID(a.id()).withID(b.id()).withID(c.id()).forEachChangeSince(prior, recorder(changes));
+		assertEquals(List.of("removed a", "added c"), changes);
+	}
+
+	@Test
+	void mapValue_reportsOnlyDifferences() {
+		MapValue<String> prior = MapValue.<String>empty().with("x", "1").with("y", "2");
+		List<String> changes = new ArrayList<>();
+		prior.without("x").with("y", "3").with("z", "4").forEachChangeSince(prior, recorder(changes));
+		assertEquals(List.of("removed x", "changed y", "added z"), changes);
+	}
+
+	private static List<String> changes(Catalog<TestChild> prior, Catalog<TestChild> current) {
+		List<String> result = new ArrayList<>();
+		current.forEachChangeSince(prior, recorder(result));
+		return result;
+	}
+
+	private static <K, V> EntryChangeVisitor<K, V> recorder(List<String> changes) {
+		return new EntryChangeVisitor<>() {
+			@Override public void removed(K key, V priorValue) { changes.add("removed " + key); }
+			@Override public void changed(K key, V priorValue, V newValue) { changes.add("changed " + key); }
+			@Override public void added(K key, V newValue) { changes.add("added " + key); }
+		};
+	}
+
+	private static TestChild child(String id) {
+		return new TestChild(Identifier.from(id), id, TestEnum.OK, Catalog.empty());
+	}
+}
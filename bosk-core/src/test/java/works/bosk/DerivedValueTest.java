@@ -0,0 +1,96 @@
+package works.bosk;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import works.bosk.annotations.ReferencePath;
+import works.bosk.exceptions.InvalidTypeException;
+import works.bosk.libtesting.AbstractBoskTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static works.bosk.BoskConfig.simpleDriver;
+
+class DerivedValueTest extends AbstractBoskTest {
+	Bosk<TestRoot> bosk;
+	Refs refs;
+	AtomicInteger calls;
+	DerivedValue<Catalog<TestChild>, Integer> childCount;
+
+	public interface Refs {
+		@ReferencePath("/entities/parent") Reference<TestEntity> parent();
+		@ReferencePath("/entities/parent/string") Reference<String> parentString();
+		@ReferencePath("/entities/parent/children") CatalogReference<TestChild> children();
+		@ReferencePath("/entities/parent/children/-child-") Reference<TestChild> child(Identifier child);
+	}
+
+	@BeforeEach
+	void setup() throws InvalidTypeException {
+		bosk = setUpBosk(simpleDriver());
+		refs = bosk.buildReferences(Refs.class);
+		calls = new AtomicInteger();
+		childCount = bosk.derived(refs.children(), c -> {
+			calls.incrementAndGet();
+			return c.size();
+		});
+	}
+
+	@Test
+	void sameSnapshot_computedOnce() {
+		try (var _ = bosk.readSession()) {
+			assertEquals(3, childCount.value());
+			assertEquals(3, childCount.value());
+		}
+		assertEquals(1, calls.get());
+		assertEquals(1, childCount.hits());
+		assertEquals(1, childCount.misses());
+	}
+
+	@Test
+	void unrelatedUpdate_reused() throws IOException, InterruptedException {
+		try (var _ = bosk.readSession()) {
+			assertEquals(3, childCount.value());
+		}
+		bosk.driver().submitReplacement(refs.parentString(), "changed");
+		bosk.driver().flush();
+		try (var _ = bosk.readSession()) {
+			assertEquals(3, childCount.value());
+		}
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void changedNode_recomputed() throws IOException, InterruptedException {
+		try (var _ = bosk.readSession()) {
+			assertEquals(3, childCount.value());
+		}
+		bosk.driver().submitDeletion(refs.child(Identifier.from("child1")));
+		bosk.driver().flush();
+		try (var _ = bosk.readSession()) {
+			assertEquals(2, childCount.value());
+		}
+		assertEquals(2, calls.get());
+		assertEquals(2, childCount.misses());
+	}
+
+	@Test
+	void nonexistentNode_null() throws IOException, InterruptedException {
+		bosk.driver().submitDeletion(refs.parent());
+		bosk.driver().flush();
+		try (var _ = bosk.readSession()) {
+			assertNull(childCount.valueIfExists());
+		}
+		assertEquals(0, calls.get());
+	}
+
+	@Test
+	void equalButDistinctNode_recomputed() {
+		Catalog<TestChild> children = Catalog.of(new TestChild(Identifier.from("x"), "x", TestEnum.OK, Catalog.empty()));
+		assertEquals(1, childCount.valueFor(children));
+		assertEquals(1, childCount.valueFor(Catalog.of(children.stream())));
+		assertEquals(2, calls.get());
+		assertEquals(1, childCount.valueFor(children));
+		assertEquals(2, calls.get());
+	}
+}
@@ -0,0 +1,60 @@
+package works.bosk;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import works.bosk.exceptions.InvalidTypeException;
+import works.bosk.libtesting.AbstractBoskTest;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static works.bosk.BoskConfig.simpleDriver;
+
+/**
+ * Measures the cost of submitting a small update to a bosk with many hooks
+ * registered on unrelated parts of the state tree.
+ */
+@Fork(0)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OutputTimeUnit(NANOSECONDS)
+public class HookDispatchBenchmark extends AbstractBoskTest {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+		@Param({"1", "10", "100", "1000"})
+		int numHooks;
+
+		private BoskDriver driver;
+		private Reference<String> parentString;
+		private int counter = 0;
+
+		@Setup(Level.Trial)
+		public void setup() throws InvalidTypeException {
+			Bosk<TestRoot> bosk = setUpBosk(simpleDriver());
+			driver = bosk.driver();
+			parentString = bosk.rootReference().then(String.class, Path.of(
+				TestRoot.Fields.entities, "parent", TestEntity.Fields.string));
+			for (int i = 0; i < numHooks; i++) {
+				// Each hook watches a different, nonexistent child, so none of them ever fire
+				Reference<TestChild> scope = bosk.rootReference().then(TestChild.class, Path.of(
+					TestRoot.Fields.entities, "-entity-", TestEntity.Fields.children, "child_" + i));
+				bosk.hookRegistrar().registerHook("hook_" + i, scope, _ -> { });
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public void unrelatedUpdate(BenchmarkState state) {
+		state.driver.submitReplacement(state.parentString, "value_" + (state.counter++ & 0xF));
+	}
+}
@@ -0,0 +1,76 @@
+package works.bosk;
+
+import java.util.concurrent.Semaphore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import works.bosk.BoskConfig.HookExecution;
+import works.bosk.exceptions.InvalidTypeException;
+import works.bosk.libtesting.AbstractBoskTest;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static works.bosk.testing.BoskTestUtils.boskName;
+
+/**
+ * Compares {@link HookExecution#SEQUENTIAL SEQUENTIAL} and {@link HookExecution#CONCURRENT CONCURRENT}
+ * hook execution when an update triggers several hooks that each block briefly,
+ * as hooks doing I/O would.
+ */
+@Fork(0)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OutputTimeUnit(MICROSECONDS)
+public class HookExecutionBenchmark extends AbstractBoskTest {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+		@Param({"SEQUENTIAL", "CONCURRENT"})
+		HookExecution hookExecution;
+
+		@Param({"1", "10", "100"})
+		int numHooks;
+
+		private BoskDriver driver;
+		private Reference<String> parentString;
+		private final Semaphore hooksFinished = new Semaphore(0);
+		private int counter = 0;
+
+		@Setup(Level.Trial)
+		public void setup() throws InvalidTypeException, InterruptedException {
+			Bosk<TestRoot> bosk = new Bosk<>(
+				boskName(),
+				TestRoot.class,
+				AbstractBoskTest::initialState,
+				BoskConfig.<TestRoot>builder()
+					.hookExecution(hookExecution)
+					.build());
+			driver = bosk.driver();
+			parentString = bosk.rootReference().then(String.class, Path.of(
+				TestRoot.Fields.entities, "parent", TestEntity.Fields.string));
+			for (int i = 0; i < numHooks; i++) {
+				bosk.hookRegistrar().registerHook("hook_" + i, parentString, _ -> {
+					Thread.sleep(1);
+					hooksFinished.release();
+				});
+			}
+			// Each hook is called once on registration
+			hooksFinished.acquire(numHooks);
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public void updateAndAwaitHooks(BenchmarkState state) throws InterruptedException {
+		state.driver.submitReplacement(state.parentString, "value_" + (state.counter++ & 0xF));
+		state.hooksFinished.acquire(state.numHooks);
+	}
+}
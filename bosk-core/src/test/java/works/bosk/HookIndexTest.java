@@ -0,0 +1,81 @@
+package works.bosk;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HookIndexTest {
+	HookIndex<String> index;
+
+	@BeforeEach
+	void setupIndex() {
+		index = new HookIndex<>();
+		index.add(Path.empty(), "root");
+		index.add(Path.parseParameterized("/entities/-entity-"), "anyEntity");
+		index.add(Path.parseParameterized("/entities/-entity-/children/-child-"), "anyChild");
+		index.add(Path.parse("/entities/parent/string"), "parentString");
+		index.add(Path.parse("/entities/other"), "other");
+		index.add(Path.parseParameterized("/entities/parent/children/-c-"), "parentChild");
+	}
+
+	@Test
+	void ancestorsAndDescendants_included() {
+		assertEquals(
+			List.of("root", "anyEntity", "anyChild", "parentString", "parentChild"),
+			index.candidatesFor(Path.parse("/entities/parent")));
+	}
+
+	@Test
+	void unrelatedSubtrees_excluded() {
+		assertEquals(
+			List.of("root", "anyEntity", "parentString"),
+			index.candidatesFor(Path.parse("/entities/parent/string")));
+		assertEquals(
+			List.of("root", "anyEntity", "anyChild", "parentChild"),
+			index.candidatesFor(Path.parse("/entities/parent/children/child1")));
+		assertEquals(
+			List.of("root", "anyEntity", "anyChild", "other"),
+			index.candidatesFor(Path.parse("/entities/other")));
+	}
+
+	@Test
+	void rootTarget_includesEverything() {
+		assertEquals(
+			List.of("root", "anyEntity", "anyChild", "parentString", "other", "parentChild"),
+			index.candidatesFor(Path.empty()));
+	}
+
+	@Test
+	void all_inRegistrationOrder() {
+		assertEquals(
+			List.of("root", "anyEntity", "anyChild", "parentString", "other", "parentChild"),
+			index.all());
+	}
+
+	@Test
+	void parameterizedTarget_matchesAllSiblings() {
+		assertEquals(
+			List.of("root", "anyEntity", "parentString", "other"),
+			index.candidatesFor(Path.parseParameterized("/entities/-e-/string")));
+	}
+
+	@Test
+	void emptyIndex_noCandidates() {
+		assertEquals(emptyList(), new HookIndex<String>().candidatesFor(Path.parse("/entities/parent")));
+	}
+
+	@Test
+	void duplicateScopes_keepRegistrationOrder() {
+		HookIndex<String> dups = new HookIndex<>();
+		dups.add(Path.parse("/a/b"), "first");
+		dups.add(Path.parseParameterized("/a/-x-"), "second");
+		dups.add(Path.parse("/a/b"), "third");
+		dups.add(Path.parse("/a"), "fourth");
+		assertEquals(
+			List.of("first", "second", "third", "fourth"),
+			dups.candidatesFor(Path.parse("/a/b/c")));
+	}
+}
@@ -0,0 +1,173 @@
+package works.bosk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import works.bosk.BoskConfig.HookQueueOverflowPolicy;
+import works.bosk.annotations.ReferencePath;
+import works.bosk.exceptions.HookQueueFullException;
+import works.bosk.exceptions.InvalidTypeException;
+import works.bosk.libtesting.AbstractBoskTest;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static works.bosk.BoskConfig.HookQueueOverflowPolicy.BLOCK;
+import static works.bosk.BoskConfig.HookQueueOverflowPolicy.COALESCE;
+import static works.bosk.BoskConfig.HookQueueOverflowPolicy.FAIL;
+import static works.bosk.testing.BoskTestUtils.boskName;
+
+class HookQueueLimitTest extends AbstractBoskTest {
+	Bosk<TestRoot> bosk;
+	Refs refs;
+	final List<String> seen = Collections.synchronizedList(new ArrayList<>());
+	final AtomicBoolean blockNext = new AtomicBoolean(false);
+	final CountDownLatch hookStarted = new CountDownLatch(1);
+	final CountDownLatch releaseHook = new CountDownLatch(1);
+	Thread drainer;
+
+	public interface Refs {
+		@ReferencePath("/entities/parent/string") Reference<String> parentString();
+	}
+
+	@AfterEach
+	void cleanup() throws InterruptedException {
+		releaseHook.countDown();
+		if (drainer != null) {
+			drainer.join();
+		}
+	}
+
+	@Test
+	void fail_rejectsUpdate() throws Exception {
+		setupWithBusyHook(FAIL);
+		assertThrows(HookQueueFullException.class, () -> bosk.driver().submitReplacement(refs.parentString(), "c"));
+		finishHooks();
+		assertEquals(List.of("parent", "a", "b"), seen);
+		try (var _ = bosk.readSession()) {
+			assertEquals("b", refs.parentString().value());
+		}
+	}
+
+	@Test
+	void coalesce_latestStateSeenOnce() throws Exception {
+		setupWithBusyHook(COALESCE);
+		bosk.driver().submitReplacement(refs.parentString(), "c");
+		bosk.driver().submitReplacement(refs.parentString(), "d");
+		assertEquals(1, bosk.hookQueueDepth());
+		finishHooks();
+		assertEquals(List.of("parent", "a", "d"), seen);
+		assertEquals(1, bosk.hookQueueHighWaterMark());
+	}
+
+	@Test
+	void block_waitsForSpace() throws Exception {
+		setupWithBusyHook(BLOCK);
+		Thread submitter = Thread.ofPlatform().start(() -> bosk.driver().submitReplacement(refs.parentString(), "c"));
+		submitter.join(200);
+		assertTrue(submitter.isAlive(), "Submitter should wait for the hook queue to have space");
+		finishHooks();
+		submitter.join();
+		assertEquals(List.of("parent", "a", "b", "c"), seen);
+		assertEquals(0, bosk.hookQueueDepth());
+	}
+
+	@Test
+	void block_hookWorkersOnExecutorNotHeldBack() throws Exception {
+		assertHookWorkersNotHeldBack((session, work) -> {
+			try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+				CompletableFuture.runAsync(work, session.executor(executor)).get(10, SECONDS);
+			}
+		});
+	}
+
+	@Test
+	void block_hookWorkersInForkJoinPoolNotHeldBack() throws Exception {
+		assertHookWorkersNotHeldBack((session, work) -> {
+			try (var pool = session.newForkJoinPool(1)) {
+				pool.submit(work).get(10, SECONDS);
+			}
+		});
+	}
+
+	interface FanOut {
+		void runAndWait(Bosk<TestRoot>.ReadSession session, Runnable work) throws Exception;
+	}
+
+	/**
+	 * A hook hands updates to worker threads and waits for them.
+	 * The second update finds the queue full, but must not wait for the hook to finish,
+	 * since the hook is waiting for it.
+	 */
+	private void assertHookWorkersNotHeldBack(FanOut fanOut) throws Exception {
+		bosk = new Bosk<>(
+			boskName(),
+			TestRoot.class,
+			AbstractBoskTest::initialState,
+			BoskConfig.<TestRoot>builder()
+				.boundedHookQueue(1, BLOCK)
+				.build());
+		refs = bosk.buildReferences(Refs.class);
+		AtomicReference<Exception> failure = new AtomicReference<>();
+		bosk.hookRegistrar().registerHook("fanOut", refs.parentString(), ref -> {
+			seen.add(ref.value());
+			if ("a".equals(ref.value())) {
+				try (var session = bosk.readSession()) {
+					fanOut.runAndWait(session, () -> {
+						bosk.driver().submitReplacement(refs.parentString(), "b");
+						bosk.driver().submitReplacement(refs.parentString(), "c");
+					});
+				} catch (Exception e) {
+					failure.set(e);
+				}
+			}
+		});
+		bosk.driver().submitReplacement(refs.parentString(), "a");
+		bosk.driver().flush();
+		assertNull(failure.get());
+		assertEquals(List.of("parent", "a", "b", "c"), seen);
+	}
+
+	/**
+	 * Leaves a hook running on another thread, and one more queued behind it,
+	 * so a queue with capacity 1 is full.
+	 */
+	private void setupWithBusyHook(HookQueueOverflowPolicy policy) throws InvalidTypeException, InterruptedException {
+		bosk = new Bosk<>(
+			boskName(),
+			TestRoot.class,
+			AbstractBoskTest::initialState,
+			BoskConfig.<TestRoot>builder()
+				.boundedHookQueue(1, policy)
+				.build());
+		refs = bosk.buildReferences(Refs.class);
+		bosk.hookRegistrar().registerHook("recorder", refs.parentString(), ref -> {
+			seen.add(ref.value());
+			if (blockNext.getAndSet(false)) {
+				hookStarted.countDown();
+				releaseHook.await();
+			}
+		});
+		blockNext.set(true);
+		drainer = Thread.ofPlatform().start(() -> bosk.driver().submitReplacement(refs.parentString(), "a"));
+		assertTrue(hookStarted.await(10, SECONDS));
+		bosk.driver().submitReplacement(refs.parentString(), "b");
+		assertEquals(1, bosk.hookQueueDepth());
+	}
+
+	private void finishHooks() throws InterruptedException {
+		releaseHook.countDown();
+		drainer.join();
+		drainer = null;
+	}
+}
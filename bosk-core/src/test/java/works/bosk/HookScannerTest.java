@@ -2,7 +2,9 @@ package works.bosk;
 
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import works.bosk.BoskDriver.EntireState;
@@ -94,6 +96,44 @@ class HookScannerTest {
 		), registrations);
 	}
 
+	@Test
+	void annotationAttributes_passedAsOptions() throws InvalidTypeException {
+		class Hooks {
+			@Hook("/string") void stringChanged() { }
+			@Hook(value = "/integer", coalesce = true, ordering = Hook.Ordering.PER_HOOK) void integerChanged() { }
+		}
+
+		Map<String, HookOptions> options = new HashMap<>();
+		HookScanner.registerHooks(new Hooks(), bosk.rootReference(), new HookRegistrar() {
+			@Override
+			public <T> void registerHook(String name, Reference<T> scope, BoskHook<T> hook) {
+				throw new AssertionError("Options should be passed along");
+			}
+
+			@Override
+			public <T> void registerHook(String name, Reference<T> scope, BoskHook<T> hook, HookOptions hookOptions) {
+				options.put(name, hookOptions);
+			}
+		}, MethodHandles.lookup());
+
+		assertEquals(Map.of(
+			"stringChanged", HookOptions.DEFAULT,
+			"integerChanged", new HookOptions(true, HookOrdering.PER_HOOK)
+		), options);
+	}
+
+	@Test
+	void orderingNotSupportedByRegistrar_throws() {
+		class Hooks {
+			@Hook(value = "/string", ordering = Hook.Ordering.GLOBAL) void stringChanged() { }
+		}
+		HookRegistrar plainRegistrar = new HookRegistrar() {
+			@Override
+			public <T> void registerHook(String name, Reference<T> scope, BoskHook<T> hook) { }
+		};
+		assertThrows(UnsupportedOperationException.class, () -> HookScanner.registerHooks(new Hooks(), bosk.rootReference(), plainRegistrar, MethodHandles.lookup()));
+	}
+
 	@Test
 	void objectParameter_throws() {
 		class Hooks {
@@ -16,6 +16,9 @@ import org.junit.jupiter.api.TestInfo;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
+import works.bosk.BoskDriver.Update.ConditionalCreation;
+import works.bosk.BoskDriver.Update.ConditionalReplacement;
+import works.bosk.BoskDriver.Update.Replacement;
 import works.bosk.annotations.Hook;
 import works.bosk.annotations.ReferencePath;
 import works.bosk.exceptions.InvalidTypeException;
@@ -119,6 +122,22 @@ public class HooksTest extends AbstractBoskTest {
 		assertEquals("initial", observed, "Thread locals should not propagate into hooks");
 	}
 
+	@Test
+	void coalescing_waitingCallSeesLatestState() {
+		List<String> seen = new ArrayList<>();
+		bosk.hookRegistrar().registerHook("child1String", refs.childString(child1), ref -> seen.add(ref.value()), HookOptions.DEFAULT.withCoalescing(true));
+		AtomicBoolean firstTime = new AtomicBoolean(true);
+		bosk.hookRegistrar().registerHook("burst", refs.parentString(), _ -> {
+			if (firstTime.getAndSet(false)) {
+				// Hooks run breadth-first, so none of these updates' hooks run until this one finishes
+				for (String value : List.of("v1", "v2", "v3")) {
+					bosk.driver().submitReplacement(refs.childString(child1), value);
+				}
+			}
+		});
+		assertEquals(List.of("child1", "v3"), seen, "Waiting call should be coalesced and see the latest state");
+	}
+
 	@ParameterizedTest
 	@EnumSource(Variant.class)
 	void basic_noIrrelevantHooks(Variant variant) {
@@ -153,6 +172,41 @@ public class HooksTest extends AbstractBoskTest {
 		checkInterleavedHooks("Hooks for object and parent should fire when field changes", newParent, newChild);
 	}
 
+	@Test
+	void basic_batchTriggersHooksOnce() {
+		bosk.hookRegistrar().registerHook("Any child", refs.anyChild(), recorder.hookNamed("Any child"));
+		bosk.hookRegistrar().registerHook("parent", refs.parent(), recorder.hookNamed("parent"));
+		recorder.restart();
+
+		bosk.driver().submitBatch(List.of(
+			new Replacement<>(refs.childString(child1), "batch v1"),
+			new Replacement<>(refs.childString(child3), "batch v3"),
+			new Replacement<>(refs.childString(child1), "batch v1 again")));
+
+		TestChild newChild1 = originalChild1.withString("batch v1 again");
+		TestChild newChild3 = originalChild3.withString("batch v3");
+		TestEntity newParent = originalParent.withChildren(originalParent.children().with(newChild1).with(newChild3));
+		assertEquals(
+			asList(
+				new HookRecorder.Event("Any child", HookRecorder.Event.Kind.CHANGED, refs.child(child1), newChild1),
+				new HookRecorder.Event("Any child", HookRecorder.Event.Kind.CHANGED, refs.child(child3), newChild3),
+				new HookRecorder.Event("parent", HookRecorder.Event.Kind.CHANGED, refs.parent(), newParent)),
+			recorder.events(),
+			"Hooks should fire once for each changed object, observing the state after the entire batch");
+	}
+
+	@Test
+	void basic_batchWithNoEffect_noHooks() {
+		bosk.hookRegistrar().registerHook("Any child", refs.anyChild(), recorder.hookNamed("Any child"));
+		recorder.restart();
+
+		bosk.driver().submitBatch(List.of(
+			new ConditionalReplacement<>(refs.childString(child1), "nope", refs.rootID(), Identifier.from("wrongID")),
+			new ConditionalCreation<>(refs.child(child2), originalChild2.withString("nope"))));
+
+		assertEquals(emptyList(), recorder.events(), "Hooks shouldn't fire if no update in the batch took effect");
+	}
+
 	@ParameterizedTest
 	@EnumSource(Variant.class)
 	void basic_parentReplacementSameChildren(Variant variant) {
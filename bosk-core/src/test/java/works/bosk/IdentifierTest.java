@@ -4,6 +4,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 import java.lang.reflect.AnnotatedElement;
 import java.util.List;
+import org.junit.jupiter.api.Test;
 import works.bosk.junit.InjectFrom;
 import works.bosk.junit.InjectedTest;
 import works.bosk.junit.Injector;
@@ -11,6 +12,8 @@ import works.bosk.junit.Injector;
 import static java.lang.annotation.ElementType.PARAMETER;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @InjectFrom({IdentifierTest.ValidInjector.class, IdentifierTest.InvalidInjector.class})
@@ -21,6 +24,18 @@ class IdentifierTest {
 		assertEquals(validString, Identifier.from(validString).toString());
 	}
 
+	@InjectedTest
+	void validString_interned(String validString) {
+		assertSame(Identifier.from(validString), Identifier.from(new String(validString)));
+	}
+
+	@Test
+	void unique_interned() {
+		Identifier unique = Identifier.unique("unique");
+		assertSame(unique, Identifier.from(unique.toString()));
+		assertNotEquals(unique, Identifier.unique("unique"));
+	}
+
 	@InjectedTest
 	void invalidString_throws(@Invalid String invalidString) {
 		assertThrows(IllegalArgumentException.class, () -> Identifier.from(invalidString));
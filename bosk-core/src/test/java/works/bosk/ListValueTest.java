@@ -1,11 +1,13 @@
 package works.bosk;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.Random;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -43,6 +45,79 @@ class ListValueTest {
 		assertEquals(asList(contents), ListValue.of(contents));
 	}
 
+	@ParameterizedTest
+	@MethodSource("provideArrayArguments")
+	void testBuilder(String[] contents) {
+		ListValue.Builder<String> builder = ListValue.builder();
+		for (String entry : contents) {
+			builder.add(entry);
+		}
+		assertEquals(ListValue.of(contents), builder.build());
+		assertThrows(IllegalStateException.class, () -> builder.add("z"));
+	}
+
+	@Test
+	void testBuilder_manyEntries() {
+		ListValue.Builder<Integer> builder = ListValue.builder();
+		Integer[] expected = new Integer[1000];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = i;
+			builder.add(i);
+		}
+		assertEquals(ListValue.of(expected), builder.build());
+	}
+
+	@Test
+	void testUpdates_matchArrayList() {
+		Random random = new Random(123);
+		List<Integer> expected = new ArrayList<>();
+		ListValue<Integer> actual = ListValue.empty();
+		for (int i = 0; i < 20_000; i++) {
+			Integer value = random.nextInt(100);
+			switch (random.nextInt(4)) {
+				case 0 -> {
+					if (!expected.isEmpty()) {
+						int index = random.nextInt(expected.size());
+						expected.set(index, value);
+						actual = actual.with(index, value);
+					}
+				}
+				case 1 -> {
+					if (!expected.isEmpty()) {
+						expected.removeLast();
+						actual = actual.minus(actual.size() - 1);
+					}
+				}
+				default -> {
+					expected.add(value);
+					actual = actual.plus(value);
+				}
+			}
+		}
+		assertEquals(expected, actual);
+		assertEquals(actual, expected);
+		assertEquals(expected.hashCode(), actual.hashCode());
+		assertEquals(ListValue.from(expected), actual);
+
+		ListValue<Integer> removed = actual.minus(7);
+		expected.remove(7);
+		assertEquals(expected, removed);
+	}
+
+	@Test
+	void testUpdates_badIndex_throws() {
+		ListValue<String> list = ListValue.of("a", "b");
+		assertThrows(IndexOutOfBoundsException.class, () -> list.with(2, "c"));
+		assertThrows(IndexOutOfBoundsException.class, () -> list.with(-1, "c"));
+		assertThrows(IndexOutOfBoundsException.class, () -> list.minus(2));
+	}
+
+	@Test
+	void testWith_sameValue_returnsSameList() {
+		ListValue<String> list = ListValue.of("a", "b");
+		assertSame(list, list.with(1, list.get(1)));
+	}
+
 	@ParameterizedTest
 	@MethodSource("provideArrayArguments")
 	void testHashCode(String[] contents) {
@@ -0,0 +1,105 @@
+package works.bosk;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import works.bosk.BoskDriver.Update;
+import works.bosk.BoskDriver.Update.Replacement;
+import works.bosk.dereferencers.Dereferencer;
+import works.bosk.dereferencers.Graft;
+import works.bosk.dereferencers.PathCompiler;
+import works.bosk.exceptions.InvalidTypeException;
+import works.bosk.libtesting.AbstractBoskTest;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static works.bosk.BoskConfig.simpleDriver;
+
+/**
+ * Compares applying many updates under the same {@link Catalog}
+ * one at a time against applying them together, in which case
+ * the shared ancestors are rebuilt only once.
+ */
+@Fork(0)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OutputTimeUnit(MICROSECONDS)
+public class MultiGraftBenchmark extends AbstractBoskTest {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+		@Param({"1", "10", "100", "1000"})
+		int numUpdates;
+
+		private BoskDriver driver;
+		private PathCompiler pathCompiler;
+		private TestRoot root;
+		private final List<Graft> grafts = new ArrayList<>();
+		private final List<Update> updates = new ArrayList<>();
+		private final List<Dereferencer> dereferencers = new ArrayList<>();
+
+		@Setup(Level.Trial)
+		public void setup() throws InvalidTypeException, IOException, InterruptedException {
+			Bosk<TestRoot> bosk = setUpBosk(simpleDriver());
+			driver = bosk.driver();
+			pathCompiler = PathCompiler.withSourceType(TestRoot.class);
+			CatalogReference<TestChild> childrenRef = bosk.rootReference().thenCatalog(TestChild.class,
+				TestRoot.Fields.entities, "parent", TestEntity.Fields.children);
+			driver.submitReplacement(childrenRef, Catalog.of(IntStream.range(0, numUpdates).mapToObj(i ->
+				new TestChild(Identifier.from("child_" + i), "initial", TestEnum.OK, Catalog.empty()))));
+			driver.flush();
+			try (var _ = bosk.readSession()) {
+				root = bosk.rootReference().value();
+			}
+			for (int i = 0; i < numUpdates; i++) {
+				Reference<String> ref = childrenRef.then(Identifier.from("child_" + i)).then(String.class, TestChild.Fields.string);
+				grafts.add(Graft.replacement(ref, "updated"));
+				updates.add(new Replacement<>(ref, "updated"));
+				dereferencers.add(pathCompiler.compiled(ref.path()));
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public Object dereferencerWith_oneAtATime(BenchmarkState state) throws Exception {
+		Object result = state.root;
+		for (int i = 0; i < state.numUpdates; i++) {
+			Graft graft = state.grafts.get(i);
+			result = state.dereferencers.get(i).with(result, graft.target(), graft.newValue());
+		}
+		return result;
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public Object pathCompilerWithAll(BenchmarkState state) throws InvalidTypeException {
+		return state.pathCompiler.withAll(state.root, state.grafts);
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public void submitReplacement_oneAtATime(BenchmarkState state) {
+		for (Update update : state.updates) {
+			update.submitTo(state.driver);
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public void submitBatch(BenchmarkState state) {
+		state.driver.submitBatch(state.updates);
+	}
+}
@@ -0,0 +1,77 @@
+package works.bosk;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+
+@Fork(0)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OutputTimeUnit(NANOSECONDS)
+public class PathBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+		private final String urlEncoded = "/entities/parent/children/child1/testEnum";
+		private Path parameterized;
+		private Path definite;
+		private Path otherDefinite;
+		private BindingEnvironment bindings;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			parameterized = Path.parseParameterized("/entities/-parent-/children/-child-/testEnum");
+			definite = Path.parse(urlEncoded);
+			otherDefinite = Path.parse("/entities/parent/children/child2/testEnum");
+			bindings = BindingEnvironment.empty().builder()
+				.bind("parent", Identifier.from("parent"))
+				.bind("child", Identifier.from("child1"))
+				.build();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public Path parse(BenchmarkState state) {
+		return Path.parse(state.urlEncoded);
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public Path bind(BenchmarkState state) {
+		return state.parameterized.boundBy(state.bindings);
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public void matches(BenchmarkState state, Blackhole blackhole) {
+		blackhole.consume(state.parameterized.matches(state.definite));
+		blackhole.consume(state.definite.matches(state.otherDefinite));
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public int hashCode(BenchmarkState state) {
+		return state.definite.hashCode();
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public void segments(BenchmarkState state, Blackhole blackhole) {
+		Path path = state.definite;
+		for (int i = 0; i < path.length(); i++) {
+			blackhole.consume(path.segment(i));
+		}
+	}
+}
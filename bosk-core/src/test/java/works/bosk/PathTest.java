@@ -357,6 +357,12 @@ class PathTest {
 		assertTrue(path.equals(path));
 	}
 
+	@ParameterizedTest
+	@MethodSource("validSegments")
+	void validSegments_hashCode_matchesSegmentList(String... segments) {
+		assertEquals(asList(segments).hashCode(), Path.of(asList(segments)).hashCode());
+	}
+
 	@ParameterizedTest
 	@MethodSource("unequalPaths")
 	@SuppressWarnings({"SimplifiableAssertion"}) // We're explicitly calling "equals" here, and that's ok
@@ -0,0 +1,196 @@
+package works.bosk;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PersistentOrderedMapTest {
+
+	static Stream<Arguments> randomCases() {
+		return Stream.of(
+			Arguments.of(10, Integer.MAX_VALUE),
+			Arguments.of(5000, Integer.MAX_VALUE),
+			Arguments.of(100, 3), // Lots of hash collisions
+			Arguments.of(5000, 1 << 20)
+		);
+	}
+
+	@ParameterizedTest
+	@MethodSource("randomCases")
+	void randomUpdates_matchLinkedHashMap(int numKeys, int numHashes) {
+		Random random = new Random(123);
+		LinkedHashMap<Key, String> expected = new LinkedHashMap<>();
+		PersistentOrderedMap<Key, String> actual = PersistentOrderedMap.empty();
+		for (int i = 0; i < 20_000; i++) {
+			Key key = new Key(random.nextInt(numKeys), numHashes);
+			if (random.nextInt(3) == 0) {
+				expected.remove(key);
+				actual = actual.minus(key);
+			} else {
+				String value = "value_" + random.nextInt(5);
+				expected.put(key, value);
+				actual = actual.plus(key, value);
+			}
+		}
+		assertMatches(expected, actual);
+	}
+
+	@ParameterizedTest
+	@MethodSource("randomCases")
+	void builder_matchesLinkedHashMap(int numKeys, int numHashes) {
+		Random random = new Random(123);
+		LinkedHashMap<Key, String> expected = new LinkedHashMap<>();
+		PersistentOrderedMap.Builder<Key, String> builder = PersistentOrderedMap.builder();
+		for (int i = 0; i < 20_000; i++) {
+			Key key = new Key(random.nextInt(numKeys), numHashes);
+			String value = "value_" + random.nextInt(5);
+			assertSame(expected.put(key, value), builder.put(key, value));
+		}
+		PersistentOrderedMap<Key, String> actual = builder.build();
+		assertMatches(expected, actual);
+
+		// The built map must behave like any other
+		for (int i = 0; i < 1000; i++) {
+			Key key = new Key(random.nextInt(numKeys + 10), numHashes);
+			if (random.nextBoolean()) {
+				expected.remove(key);
+				actual = actual.minus(key);
+			} else {
+				String value = "new_value_" + random.nextInt(5);
+				expected.put(key, value);
+				actual = actual.plus(key, value);
+			}
+		}
+		assertMatches(expected, actual);
+	}
+
+	@Test
+	void builder_reuse_throws() {
+		PersistentOrderedMap.Builder<String, String> builder = PersistentOrderedMap.builder();
+		builder.put("a", "value");
+		builder.build();
+		assertThrows(IllegalStateException.class, () -> builder.put("b", "value"));
+		assertThrows(IllegalStateException.class, builder::build);
+	}
+
+	@Test
+	void plus_sameValue_returnsSameMap() {
+		PersistentOrderedMap<String, String> map = PersistentOrderedMap.<String, String>empty().plus("a", "value");
+		assertSame(map, map.plus("a", map.get("a")));
+	}
+
+	@Test
+	void minus_absentKey_returnsSameMap() {
+		PersistentOrderedMap<String, String> map = PersistentOrderedMap.<String, String>empty().plus("a", "value");
+		assertSame(map, map.minus("b"));
+		assertNull(map.get(null));
+	}
+
+	@Test
+	void plus_nulls_throw() {
+		PersistentOrderedMap<String, String> map = PersistentOrderedMap.empty();
+		assertThrows(NullPointerException.class, () -> map.plus(null, "value"));
+		assertThrows(NullPointerException.class, () -> map.plus("key", null));
+	}
+
+	@Test
+	void views_notModifiable() {
+		PersistentOrderedMap<String, String> map = PersistentOrderedMap.<String, String>empty().plus("a", "value");
+		assertThrows(UnsupportedOperationException.class, () -> map.put("b", "value"));
+		assertThrows(UnsupportedOperationException.class, () -> map.keyList().add("b"));
+		assertThrows(UnsupportedOperationException.class, () -> map.keySet().remove("a"));
+		assertThrows(UnsupportedOperationException.class, () -> map.values().clear());
+		assertThrows(UnsupportedOperationException.class, () -> map.entrySet().iterator().next().setValue("other"));
+	}
+
+	@Test
+	void forEachEntryDifferentFrom_skipsSharedStructure() {
+		PersistentOrderedMap<String, String> prior = PersistentOrderedMap.empty();
+		for (int i = 0; i < 100_000; i++) {
+			prior = prior.plus("key_" + i, "value");
+		}
+		PersistentOrderedMap<String, String> current = prior
+			.plus("key_500", "new value")
+			.minus("key_70000")
+			.plus("new key", "value");
+
+		List<String> currentDifferences = new ArrayList<>();
+		current.forEachEntryDifferentFrom(prior, (k, _) -> currentDifferences.add(k));
+		assertEquals(List.of("key_500", "new key"), currentDifferences);
+
+		List<String> priorDifferences = new ArrayList<>();
+		prior.forEachEntryDifferentFrom(current, (k, _) -> priorDifferences.add(k));
+		assertEquals(List.of("key_500", "key_70000"), priorDifferences);
+
+		List<String> reversedPriorDifferences = new ArrayList<>();
+		prior.forEachEntryDifferentFromInReverse(current, (k, _) -> reversedPriorDifferences.add(k));
+		assertEquals(List.of("key_70000", "key_500"), reversedPriorDifferences);
+	}
+
+	@Test
+	void forEachEntryDifferentFromInReverse_visitsEverythingInReverse() {
+		PersistentOrderedMap<String, String> map = PersistentOrderedMap.empty();
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			map = map.plus("key_" + i, "value");
+			expected.addFirst("key_" + i);
+		}
+		List<String> actual = new ArrayList<>();
+		map.forEachEntryDifferentFromInReverse(PersistentOrderedMap.empty(), (k, _) -> actual.add(k));
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	void manyRemovals_compacts() {
+		PersistentOrderedMap<String, String> map = PersistentOrderedMap.empty();
+		LinkedHashMap<String, String> expected = new LinkedHashMap<>();
+		for (int i = 0; i < 1000; i++) {
+			map = map.plus("key_" + i, "value");
+			expected.put("key_" + i, "value");
+		}
+		for (int i = 0; i < 1000; i++) {
+			if (i % 3 != 0) {
+				map = map.minus("key_" + i);
+				expected.remove("key_" + i);
+			}
+		}
+		assertMatches(expected, map);
+	}
+
+	private static <K, V> void assertMatches(Map<K, V> expected, PersistentOrderedMap<K, V> actual) {
+		assertEquals(expected.size(), actual.size());
+		assertEquals(expected, actual);
+		assertEquals(actual, expected);
+		assertEquals(expected.hashCode(), actual.hashCode());
+		assertEquals(expected.toString(), actual.toString());
+		assertEquals(new ArrayList<>(expected.keySet()), actual.keyList());
+		assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+		assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(actual.values()));
+		List<K> forEachKeys = new ArrayList<>();
+		actual.forEach((k, _) -> forEachKeys.add(k));
+		assertEquals(new ArrayList<>(expected.keySet()), forEachKeys);
+		expected.forEach((k, v) -> assertSame(v, actual.get(k)));
+	}
+
+	/**
+	 * Lets us control hash collisions.
+	 */
+	record Key(int id, int numHashes) {
+		@Override
+		public int hashCode() {
+			return Integer.hashCode(id * 0x9E3779B9) % numHashes;
+		}
+	}
+}
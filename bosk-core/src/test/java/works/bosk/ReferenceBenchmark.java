@@ -1,5 +1,6 @@
 package works.bosk;
 
+import java.util.concurrent.ThreadLocalRandom;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -10,7 +11,9 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
 import works.bosk.exceptions.InvalidTypeException;
 import works.bosk.libtesting.AbstractBoskTest;
 
@@ -30,6 +33,8 @@ public class ReferenceBenchmark extends AbstractBoskTest {
 		private Bosk<TestRoot>.ReadSession session;
 		private Reference<TestRoot> rootRef;
 		private Reference<TestEnum> ref5Segments;
+		private Reference<TestEnum> ref5Segments_missing;
+		private Reference<TestEnum> ref5Segments_indefinite;
 		private TestRoot root;
 		private ThreadLocal<TestRoot> threadLocalRoot;
 
@@ -48,6 +53,16 @@ public class ReferenceBenchmark extends AbstractBoskTest {
 				TestEntity.Fields.children, "child1",
 				TestChild.Fields.testEnum
 			));
+			ref5Segments_missing = bosk.rootReference().then(TestEnum.class, Path.of(
+				TestRoot.Fields.entities, "parent",
+				TestEntity.Fields.children, "nonexistent",
+				TestChild.Fields.testEnum
+			));
+			ref5Segments_indefinite = bosk.rootReference().then(TestEnum.class, Path.of(
+				TestRoot.Fields.entities, "-parent-",
+				TestEntity.Fields.children, "-child-",
+				TestChild.Fields.testEnum
+			));
 		}
 
 		@TearDown(Level.Trial)
@@ -57,6 +72,54 @@ public class ReferenceBenchmark extends AbstractBoskTest {
 
 	}
 
+	/**
+	 * Has no read session open, so each benchmark can open its own.
+	 */
+	@State(Scope.Benchmark)
+	public static class SessionlessState {
+		private Bosk<TestRoot> bosk;
+		private Reference<TestEnum> ref5Segments;
+
+		@Setup(Level.Trial)
+		public void setup() throws InvalidTypeException {
+			this.bosk = setUpBosk(simpleDriver());
+			ref5Segments = bosk.rootReference().then(TestEnum.class, Path.of(
+				TestRoot.Fields.entities, "parent",
+				TestEntity.Fields.children, "child1",
+				TestChild.Fields.testEnum
+			));
+		}
+	}
+
+	/**
+	 * For creating references from many threads at once,
+	 * which all consult the same {@link works.bosk.dereferencers.PathCompiler}.
+	 */
+	@State(Scope.Benchmark)
+	public static class BindingState {
+		private Bosk<TestRoot> bosk;
+		private Reference<TestEnum> parameterizedRef;
+		private final Identifier parentID = Identifier.from("parent");
+		private final Identifier[] childIDs = new Identifier[100];
+
+		@Setup(Level.Trial)
+		public void setup() throws InvalidTypeException {
+			this.bosk = setUpBosk(simpleDriver());
+			parameterizedRef = bosk.rootReference().then(TestEnum.class, Path.of(
+				TestRoot.Fields.entities, "-parent-",
+				TestEntity.Fields.children, "-child-",
+				TestChild.Fields.testEnum
+			));
+			for (int i = 0; i < childIDs.length; i++) {
+				childIDs[i] = Identifier.from("child" + i);
+			}
+		}
+
+		Identifier randomChildID() {
+			return childIDs[ThreadLocalRandom.current().nextInt(childIDs.length)];
+		}
+	}
+
 	@Benchmark
 	@BenchmarkMode(AverageTime)
 	public Object benchmarkOverhead(BenchmarkState benchmarkState) {
@@ -115,4 +178,60 @@ public class ReferenceBenchmark extends AbstractBoskTest {
 			.get(benchmarkState.child1ID)
 			.testEnum();
 	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public Object deep_readSession(SessionlessState state) {
+		try (var _ = state.bosk.readSession()) {
+			return state.ref5Segments.value();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public Object deep_inReadSession(SessionlessState state) {
+		return state.bosk.inReadSession(state.ref5Segments::value);
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public Object deep_missing_valueIfExists(BenchmarkState benchmarkState) {
+		return benchmarkState.ref5Segments_missing.valueIfExists();
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public boolean deep_missing_exists(BenchmarkState benchmarkState) {
+		return benchmarkState.ref5Segments_missing.exists();
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public void deep_forEachValue(BenchmarkState benchmarkState, Blackhole blackhole) {
+		benchmarkState.ref5Segments_indefinite.forEachValue((v, e) -> blackhole.consume(v));
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	public void deep_forEachValueWithCursor(BenchmarkState benchmarkState, Blackhole blackhole) {
+		benchmarkState.ref5Segments_indefinite.forEachValueWithCursor((v, _) -> blackhole.consume(v));
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	@Threads(8)
+	public Reference<TestEnum> boundTo_manyThreads(BindingState state) {
+		return state.parameterizedRef.boundTo(state.parentID, state.randomChildID());
+	}
+
+	@Benchmark
+	@BenchmarkMode(AverageTime)
+	@Threads(8)
+	public Reference<TestEnum> then_manyThreads(BindingState state) throws InvalidTypeException {
+		return state.bosk.rootReference().then(TestEnum.class, Path.of(
+			TestRoot.Fields.entities, "parent",
+			TestEntity.Fields.children, state.randomChildID().toString(),
+			TestChild.Fields.testEnum
+		));
+	}
 }
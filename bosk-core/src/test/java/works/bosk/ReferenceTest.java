@@ -19,6 +19,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 import static works.bosk.BoskConfig.simpleDriver;
 
 class ReferenceTest extends AbstractBoskTest {
@@ -148,6 +149,65 @@ class ReferenceTest extends AbstractBoskTest {
 		);
 	}
 
+	@Test
+	void forEach_indefiniteReference_twoParameters() {
+		List<TestEnum> expectedValues = new ArrayList<>();
+		List<BindingEnvironment> expectedEnvironments = new ArrayList<>();
+		root.entities().forEach(entity -> entity.children().forEach(child -> {
+			expectedValues.add(child.testEnum());
+			expectedEnvironments.add(BindingEnvironment.empty().builder()
+				.bind("entity", entity.id())
+				.bind("child", child.id())
+				.build());
+		}));
+		assertForEachValueWorks(refs.anyChildEnum(), expectedValues, expectedEnvironments);
+	}
+
+	@Test
+	void forEachValueWithCursor_indefiniteReference() {
+		Reference<TestEnum> ref = refs.anyChildEnum();
+		List<TestEnum> expectedValues = new ArrayList<>();
+		List<BindingEnvironment> expectedEnvironments = new ArrayList<>();
+		ref.forEachValue((TestEnum v, BindingEnvironment e) -> {
+			expectedValues.add(v);
+			expectedEnvironments.add(e);
+		});
+
+		List<TestEnum> actualValues = new ArrayList<>();
+		List<BindingEnvironment> actualEnvironments = new ArrayList<>();
+		List<Reference<TestEnum>> actualReferences = new ArrayList<>();
+		ref.forEachValueWithCursor((v, cursor) -> {
+			actualValues.add(v);
+			actualEnvironments.add(cursor.bindings());
+			actualReferences.add(cursor.reference());
+			assertEquals(cursor.bindings().get("entity"), cursor.parameterValue("entity"));
+			assertEquals(cursor.bindings().get("child"), cursor.parameterValue("child"));
+			assertThrows(IllegalArgumentException.class, () -> cursor.parameterValue("nonexistent"));
+		});
+
+		assertEquals(expectedValues, actualValues);
+		assertEquals(expectedEnvironments, actualEnvironments);
+		assertEquals(expectedEnvironments.stream().map(ref::boundBy).toList(), actualReferences);
+		for (int i = 0; i < actualReferences.size(); i++) {
+			assertSame(actualValues.get(i), actualReferences.get(i).value());
+		}
+	}
+
+	@Test
+	void forEachValueWithCursor_definiteReference() {
+		Reference<String> stringRef = refs.string(Identifier.from("parent"));
+		List<Reference<String>> actualReferences = new ArrayList<>();
+		stringRef.forEachValueWithCursor((v, cursor) -> {
+			assertSame(stringRef.value(), v);
+			assertEquals(BindingEnvironment.empty(), cursor.bindings());
+			actualReferences.add(cursor.reference());
+		});
+		assertEquals(singletonList(stringRef), actualReferences);
+
+		refs.string(Identifier.from("nonexistent")).forEachValueWithCursor((_, _) ->
+			fail("Nonexistent reference should have no values"));
+	}
+
 	@Test
 	void catalogRef_normalRef_equals() {
 		assertEquals(refs.catalog(), refs.catalogNormalRef());
@@ -361,6 +421,7 @@ class ReferenceTest extends AbstractBoskTest {
 		@ReferencePath("/entities/-entity-/stringSideTable/-child-") Reference<String> anySideTableEntry(Identifier... parameters);
 		@ReferencePath("/entities/-entity-/children/-child-") Reference<TestChild> child(Identifier entity, Identifier child);
 		@ReferencePath("/entities/-entity-/children/-child-") Reference<TestChild> anyChild(Identifier entity);
+		@ReferencePath("/entities/-entity-/children/-child-/testEnum") Reference<TestEnum> anyChildEnum(Identifier... parameters);
 	}
 
 }
@@ -0,0 +1,135 @@
+package works.bosk;
+
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import works.bosk.BoskDriver.Update;
+import works.bosk.BoskDriver.Update.Deletion;
+import works.bosk.BoskDriver.Update.Replacement;
+import works.bosk.annotations.ReferencePath;
+import works.bosk.exceptions.InvalidTypeException;
+import works.bosk.libtesting.AbstractBoskTest;
+
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static works.bosk.BoskConfig.simpleDriver;
+
+class StateTreeDiffTest extends AbstractBoskTest {
+	Bosk<TestRoot> bosk;
+	Refs refs;
+	TestRoot prior;
+
+	public interface Refs {
+		@ReferencePath("/entities/parent") Reference<TestEntity> parent();
+		@ReferencePath("/entities/parent/string") Reference<String> parentString();
+		@ReferencePath("/entities/parent/children") CatalogReference<TestChild> children();
+		@ReferencePath("/entities/parent/children/-child-") Reference<TestChild> child(Identifier child);
+		@ReferencePath("/entities/parent/children/-child-/string") Reference<String> childString(Identifier child);
+		@ReferencePath("/entities/parent/oddChildren/-child-") Reference<ListingEntry> oddChild(Identifier child);
+		@ReferencePath("/entities/parent/stringSideTable/-child-") Reference<String> sideTableEntry(Identifier child);
+		@ReferencePath("/entities/parent/optionals/optionalString") Reference<String> optionalString();
+		@ReferencePath("/entities/parent/variant/variant1/stringField") Reference<String> variantString();
+	}
+
+	static final Identifier CHILD1 = Identifier.from("child1");
+	static final Identifier CHILD2 = Identifier.from("child2");
+	static final Identifier CHILD3 = Identifier.from("child3");
+
+	@BeforeEach
+	void setup() throws InvalidTypeException, IOException, InterruptedException {
+		bosk = setUpBosk(simpleDriver());
+		refs = bosk.buildReferences(Refs.class);
+		prior = currentRoot();
+	}
+
+	@Test
+	void sameRoot_noUpdates() {
+		assertEquals(emptyList(), StateTreeDiff.updatesBetween(bosk.rootReference(), prior, prior));
+	}
+
+	@Test
+	void nullPrior_replacesRoot() {
+		assertEquals(
+			List.of(new Replacement<>(bosk.rootReference(), prior)),
+			StateTreeDiff.updatesBetween(bosk.rootReference(), null, prior));
+	}
+
+	@Test
+	void fieldChange_targetsField() throws IOException, InterruptedException {
+		TestRoot current = applyAndRead(new Replacement<>(refs.childString(CHILD2), "new value"));
+		assertEquals(
+			List.of(new Replacement<>(refs.childString(CHILD2), "new value")),
+			StateTreeDiff.updatesBetween(bosk.rootReference(), prior, current));
+	}
+
+	@Test
+	void containerEntries_targetEntries() throws IOException, InterruptedException {
+		TestChild newChild = new TestChild(Identifier.from("newChild"), "new", TestEnum.OK, Catalog.empty());
+		TestRoot current = applyAndRead(
+			new Deletion<>(refs.oddChild(CHILD1)),
+			new Replacement<>(refs.sideTableEntry(CHILD3), "I'm child 3"),
+			new Replacement<>(refs.child(newChild.id()), newChild));
+		assertEquals(List.of(
+			new Replacement<>(refs.child(newChild.id()), newChild),
+			new Deletion<>(refs.oddChild(CHILD1)),
+			new Replacement<>(refs.sideTableEntry(CHILD3), "I'm child 3")
+		), StateTreeDiff.updatesBetween(bosk.rootReference(), prior, current));
+	}
+
+	@Test
+	void emptiedOptional_deletes() throws IOException, InterruptedException {
+		TestRoot current = applyAndRead(new Deletion<>(refs.optionalString()));
+		assertEquals(
+			List.of(new Deletion<>(refs.optionalString())),
+			StateTreeDiff.updatesBetween(bosk.rootReference(), prior, current));
+	}
+
+	@Test
+	void sameVariant_targetsVariantField() throws IOException, InterruptedException {
+		TestRoot current = applyAndRead(new Replacement<>(refs.variantString(), "new value"));
+		assertEquals(
+			List.of(new Replacement<>(refs.variantString(), "new value")),
+			StateTreeDiff.updatesBetween(bosk.rootReference(), prior, current));
+	}
+
+	@Test
+	void noSharedStructure_onlyDifferencesReported() {
+		TestRoot copy = initialRoot(bosk);
+		assertEquals(emptyList(), StateTreeDiff.updatesBetween(bosk.rootReference(), prior, copy));
+
+		TestRoot changed = copy.withEntities(copy.entities().with(
+			copy.entities().get(Identifier.from("parent")).withString("changed")));
+		assertEquals(
+			List.of(new Replacement<>(refs.parentString(), "changed")),
+			StateTreeDiff.updatesBetween(bosk.rootReference(), prior, changed));
+	}
+
+	@Test
+	void appliedUpdates_reproduceCurrentRoot() throws IOException, InterruptedException {
+		TestRoot current = applyAndRead(
+			new Replacement<>(refs.childString(CHILD1), "changed"),
+			new Deletion<>(refs.child(CHILD3)),
+			new Deletion<>(refs.optionalString()),
+			new Replacement<>(refs.variantString(), "new value"));
+
+		Bosk<TestRoot> other = setUpBosk(simpleDriver());
+		other.driver().submitBatch(StateTreeDiff.updatesBetween(bosk.rootReference(), prior, current));
+		other.driver().flush();
+		try (var _ = other.readSession()) {
+			assertEquals(current, other.rootReference().value());
+		}
+	}
+
+	private TestRoot applyAndRead(Update... updates) throws IOException, InterruptedException {
+		bosk.driver().submitBatch(List.of(updates));
+		bosk.driver().flush();
+		return currentRoot();
+	}
+
+	private TestRoot currentRoot() {
+		try (var _ = bosk.readSession()) {
+			return bosk.rootReference().value();
+		}
+	}
+}
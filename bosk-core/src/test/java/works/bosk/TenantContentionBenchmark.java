@@ -0,0 +1,89 @@
+package works.bosk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import works.bosk.BoskContext.Tenant;
+import works.bosk.BoskContext.Tenant.TenantId;
+import works.bosk.BoskDriver.EntireState.MultiTree;
+import works.bosk.exceptions.InvalidTypeException;
+import works.bosk.libtesting.AbstractBoskTest;
+
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+import static works.bosk.testing.BoskTestUtils.boskName;
+
+/**
+ * Measures update throughput when several threads update a multi-tenant bosk at once.
+ * With one tenant, every update contends for the same tree;
+ * with many, each thread mostly has its tenant to itself.
+ */
+@Fork(0)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class TenantContentionBenchmark extends AbstractBoskTest {
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+		@Param({"1", "8", "1000"})
+		int numTenants;
+
+		private Bosk<TestRoot> bosk;
+		private Reference<String> parentString;
+		private final List<TenantId> tenants = new ArrayList<>();
+		private final AtomicInteger nextThread = new AtomicInteger();
+
+		@Setup(Level.Trial)
+		public void setup() throws InvalidTypeException {
+			for (int i = 0; i < numTenants; i++) {
+				tenants.add(Tenant.setTo(Identifier.from("tenant_" + i)));
+			}
+			bosk = new Bosk<>(
+				boskName(),
+				TestRoot.class,
+				b -> {
+					MultiTree<TestRoot> result = MultiTree.empty();
+					for (TenantId tenant : tenants) {
+						result = result.with(tenant, initialRoot(b));
+					}
+					return result;
+				},
+				BoskConfig.<TestRoot>builder()
+					.tenancyModel(BoskConfig.TenancyModel.PERSISTENT)
+					.build());
+			parentString = bosk.rootReference().then(String.class, Path.of(
+				TestRoot.Fields.entities, "parent", TestEntity.Fields.string));
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ThreadState {
+		private TenantId tenant;
+		private int counter = 0;
+
+		@Setup(Level.Trial)
+		public void setup(BenchmarkState benchmarkState) {
+			int threadNum = benchmarkState.nextThread.getAndIncrement();
+			tenant = benchmarkState.tenants.get(threadNum % benchmarkState.numTenants);
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Throughput)
+	@Threads(8)
+	public void submitReplacement(BenchmarkState state, ThreadState threadState) {
+		try (var _ = state.bosk.context().withTenant(threadState.tenant)) {
+			state.bosk.driver().submitReplacement(state.parentString, "value_" + (threadState.counter++ & 0xF));
+		}
+	}
+}
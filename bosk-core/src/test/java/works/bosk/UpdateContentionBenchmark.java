@@ -0,0 +1,79 @@
+package works.bosk;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import works.bosk.BoskConfig.UpdateStrategy;
+import works.bosk.exceptions.InvalidTypeException;
+import works.bosk.libtesting.AbstractBoskTest;
+
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+import static works.bosk.testing.BoskTestUtils.boskName;
+
+/**
+ * Compares the {@link UpdateStrategy}s when several threads
+ * update different objects in the same tree at once.
+ */
+@Fork(0)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class UpdateContentionBenchmark extends AbstractBoskTest {
+	static final int NUM_THREADS = 8;
+
+	@State(Scope.Benchmark)
+	public static class BenchmarkState {
+		@Param({"PESSIMISTIC", "OPTIMISTIC"})
+		UpdateStrategy updateStrategy;
+
+		private BoskDriver driver;
+		private CatalogReference<TestChild> childrenRef;
+		private final AtomicInteger nextThread = new AtomicInteger();
+
+		@Setup(Level.Trial)
+		public void setup() throws InvalidTypeException, IOException, InterruptedException {
+			Bosk<TestRoot> bosk = new Bosk<>(
+				boskName(),
+				TestRoot.class,
+				AbstractBoskTest::initialState,
+				BoskConfig.<TestRoot>builder()
+					.updateStrategy(updateStrategy)
+					.build());
+			driver = bosk.driver();
+			childrenRef = bosk.rootReference().thenCatalog(TestChild.class,
+				TestRoot.Fields.entities, "parent", TestEntity.Fields.children);
+			driver.submitReplacement(childrenRef, Catalog.of(IntStream.range(0, NUM_THREADS).mapToObj(i ->
+				new TestChild(Identifier.from("child_" + i), "initial", TestEnum.OK, Catalog.empty()))));
+			driver.flush();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ThreadState {
+		private Reference<String> childString;
+		private int counter = 0;
+
+		@Setup(Level.Trial)
+		public void setup(BenchmarkState benchmarkState) throws InvalidTypeException {
+			Identifier childID = Identifier.from("child_" + benchmarkState.nextThread.getAndIncrement() % NUM_THREADS);
+			childString = benchmarkState.childrenRef.then(childID).then(String.class, TestChild.Fields.string);
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Throughput)
+	@Threads(NUM_THREADS)
+	public void submitReplacement(BenchmarkState state, ThreadState threadState) {
+		state.driver.submitReplacement(threadState.childString, "value_" + (threadState.counter++ & 0xF));
+	}
+}
@@ -0,0 +1,44 @@
+package works.bosk.dereferencers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import works.bosk.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ConcurrentWeakKeyMapTest {
+	final ConcurrentWeakKeyMap<Path, Object> map = new ConcurrentWeakKeyMap<>();
+	final Path path = Path.of("a", "b");
+
+	@Test
+	void putIfAbsent_firstValueWins() {
+		Object first = new Object();
+		assertNull(map.putIfAbsent(path, first));
+		assertSame(first, map.putIfAbsent(path, new Object()));
+		assertSame(first, map.get(path));
+		assertEquals(1, map.size());
+	}
+
+	@Test
+	void computeIfAbsent_computesOnce() {
+		AtomicInteger calls = new AtomicInteger();
+		Object first = map.computeIfAbsent(path, _ -> {
+			calls.incrementAndGet();
+			return new Object();
+		});
+		Object second = map.computeIfAbsent(path, _ -> {
+			calls.incrementAndGet();
+			return new Object();
+		});
+		assertSame(first, second);
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void missingKey_null() {
+		assertNull(map.get(path));
+		assertEquals(0, map.size());
+	}
+}
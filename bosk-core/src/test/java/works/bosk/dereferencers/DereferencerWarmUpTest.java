@@ -0,0 +1,60 @@
+package works.bosk.dereferencers;
+
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import works.bosk.Bosk;
+import works.bosk.BoskConfig;
+import works.bosk.BoskConfig.DereferencerCompilation;
+import works.bosk.Path;
+import works.bosk.exceptions.InvalidTypeException;
+import works.bosk.libtesting.AbstractBoskTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static works.bosk.testing.BoskTestUtils.boskName;
+
+class DereferencerWarmUpTest extends AbstractBoskTest {
+
+	@Test
+	void allPaths_coversTree() throws InvalidTypeException {
+		List<Path> paths = DereferencerWarmUp.allPaths(TestRoot.class);
+		assertEquals(Path.empty(), paths.getFirst());
+		assertTrue(paths.contains(Path.parseParameterized("/entities/-p1-/children/-p3-/testEnum")));
+		assertTrue(paths.contains(Path.parseParameterized("/entities/-p1-/oddChildren/-p3-")));
+		assertTrue(paths.contains(Path.parseParameterized("/entities/-p1-/stringSideTable/-p3-")));
+		assertTrue(paths.contains(Path.parseParameterized("/entities/-p1-/optionals/optionalEntity/string")));
+		assertTrue(paths.contains(Path.parseParameterized("/entities/-p1-/phantoms/phantomEntity")));
+		assertEquals(paths.size(), new HashSet<>(paths).size(), "No duplicates");
+	}
+
+	@Test
+	void allPaths_stopsAtRecursion() throws InvalidTypeException {
+		List<Path> paths = DereferencerWarmUp.allPaths(TestRoot.class);
+		assertTrue(paths.contains(Path.parseParameterized("/entities/-p1-/children/-p3-/recursiveChildren")));
+		assertFalse(paths.contains(Path.parseParameterized("/entities/-p1-/children/-p3-/recursiveChildren/-p5-")));
+	}
+
+	@Test
+	void eagerBosk_compilesEveryPath() throws InvalidTypeException {
+		Bosk<TestRoot> bosk = new Bosk<>(
+			boskName(),
+			TestRoot.class,
+			AbstractBoskTest::initialState,
+			BoskConfig.<TestRoot>builder()
+				.dereferencerCompilation(DereferencerCompilation.EAGER)
+				.build());
+		assertEquals(DereferencerWarmUp.allPaths(TestRoot.class), List.copyOf(bosk.dereferencerWarmUpTimes().keySet()));
+	}
+
+	@Test
+	void lazyBosk_compilesNothingUpFront() {
+		Bosk<TestRoot> bosk = new Bosk<>(
+			boskName(),
+			TestRoot.class,
+			AbstractBoskTest::initialState,
+			BoskConfig.simple());
+		assertTrue(bosk.dereferencerWarmUpTimes().isEmpty());
+	}
+}
@@ -453,6 +453,98 @@ public class PathCompilerTest extends AbstractBoskTest {
 		return tests;
 	}
 
+	@Test
+	void withAll_matchesSequentialApplication() throws InvalidTypeException {
+		List<Graft> grafts = List.of(
+			replacement("/entities/parent/children/child1/string", "new child1 string"),
+			replacement("/entities/parent/children/child4", new TestChild(Identifier.from("child4"), "child4", TestEnum.OK, Catalog.empty())),
+			deletion("/entities/parent/children/child2"),
+			replacement("/entities/parent/string", "new parent string"),
+			replacement("/entities/parent/oddChildren/child2", LISTING_ENTRY),
+			deletion("/entities/parent/oddChildren/child1"),
+			replacement("/entities/parent/children/child3/string", "new child3 string"),
+			replacement("/someStrings", new StringListValueSubclass("Three"))
+		);
+		Object actual = pathCompiler.withAll(root, grafts);
+		assertEquals(applySequentially(root, grafts), actual);
+		assertSame(root.someMappedStrings(), ((TestRoot) actual).someMappedStrings(), "Untouched objects should be shared");
+	}
+
+	@Test
+	void withAll_preservesContainerOrder() throws InvalidTypeException {
+		// The child4 additions are not consecutive, so they must not be reordered relative to child5
+		List<Graft> grafts = List.of(
+			replacement("/entities/parent/children/child4", new TestChild(Identifier.from("child4"), "child4", TestEnum.OK, Catalog.empty())),
+			replacement("/entities/parent/string", "new parent string"),
+			replacement("/entities/parent/children/child5", new TestChild(Identifier.from("child5"), "child5", TestEnum.OK, Catalog.empty())),
+			deletion("/entities/parent/children/child4"),
+			replacement("/entities/parent/children/child4", new TestChild(Identifier.from("child4"), "child4 again", TestEnum.OK, Catalog.empty()))
+		);
+		TestRoot actual = (TestRoot) pathCompiler.withAll(root, grafts);
+		assertEquals(applySequentially(root, grafts), actual);
+		assertEquals(
+			List.of("child1", "child2", "child3", "child5", "child4"),
+			actual.entities().get(parentID).children().ids().stream().map(Identifier::toString).toList());
+	}
+
+	@Test
+	void withAll_graftInsideNonexistentObject_skipped() throws InvalidTypeException {
+		List<Graft> grafts = List.of(
+			replacement("/entities/parent/children/nonexistent/string", "ignored"),
+			replacement("/entities/parent/children/child1/string", "new child1 string"),
+			deletion("/entities/parent/children/child1"),
+			replacement("/entities/parent/children/child1/string", "also ignored")
+		);
+		assertEquals(applySequentially(root, grafts), pathCompiler.withAll(root, grafts));
+	}
+
+	@Test
+	void withAll_noEffect_returnsSource() throws InvalidTypeException {
+		List<Graft> grafts = List.of(
+			replacement("/entities/parent/string", root.entities().get(parentID).string()),
+			replacement("/entities/nonexistent/string", "ignored")
+		);
+		assertSame(root, pathCompiler.withAll(root, grafts));
+		assertSame(root, pathCompiler.withAll(root, List.of()));
+	}
+
+	@Test
+	void withAll_rootGraft() throws InvalidTypeException {
+		TestRoot newRoot = new TestRoot(Identifier.from("newRoot"), root.entities(), new StringListValueSubclass("A string"), MapValue.singleton("key", "value"));
+		List<Graft> grafts = List.of(
+			replacement("/entities/parent/string", "overwritten by root"),
+			new Graft(bosk.rootReference(), newRoot),
+			replacement("/entities/parent/children/child1/string", "new child1 string")
+		);
+		assertEquals(applySequentially(root, grafts), pathCompiler.withAll(root, grafts));
+		assertThrows(IllegalArgumentException.class, () -> pathCompiler.withAll(root, List.of(Graft.deletion(bosk.rootReference()))));
+	}
+
+	private Object applySequentially(Object source, List<Graft> grafts) throws InvalidTypeException {
+		Object result = source;
+		for (Graft graft: grafts) {
+			Dereferencer dereferencer = pathCompiler.compiled(graft.target().path());
+			try {
+				if (graft.isDeletion()) {
+					result = dereferencer.without(result, graft.target());
+				} else {
+					result = dereferencer.with(result, graft.target(), graft.newValue());
+				}
+			} catch (NonexistentEntryException e) {
+				// Skipped, just like withAll does
+			}
+		}
+		return result;
+	}
+
+	private Graft replacement(String path, Object newValue) throws InvalidTypeException {
+		return Graft.replacement(bosk.rootReference().then(Object.class, Path.parse(path)), newValue);
+	}
+
+	private Graft deletion(String path) throws InvalidTypeException {
+		return Graft.deletion(bosk.rootReference().then(Object.class, Path.parse(path)));
+	}
+
 	private void usingSession(Bosk<TestRoot>.ReadSession session, Runnable action) {
 		try (@SuppressWarnings("unused") Bosk<TestRoot>.ReadSession rc = session.adopt()) {
 			action.run();
@@ -462,21 +554,9 @@ public class PathCompilerTest extends AbstractBoskTest {
 	@SuppressWarnings("unchecked")
 	private <V> Dereferencer dereferencer(Function<TestRoot, V> get, BiFunction<TestRoot, V, TestRoot> with, Function<TestRoot, TestRoot> without) {
 		return new Dereferencer() {
-			@Override public Object get(Object source, Reference<?> ref) throws NonexistentEntryException { return throwIfNull(get.apply((TestRoot) source)); }
-			@Override public Object with(Object source, Reference<?> ref, Object newValue) { return with.apply((TestRoot)source, (V)newValue); }
-			@Override public Object without(Object source, Reference<?> ref) { return without.apply((TestRoot)source); }
-
-			/**
-			 * As a convenience, getter is allowed to return null in lieu of throwing NonexistentEntryException
-			 */
-			private Object throwIfNull(Object obj) throws NonexistentEntryException {
-				if (obj == null) {
-					throw new NonexistentEntryException(Path.just("UNAVAILABLE"));
-				} else {
-					return obj;
-				}
-			}
-
+			@Override public Object getIfExists(Object source, IdSource ids) { return get.apply((TestRoot) source); }
+			@Override public Object withIfExists(Object source, Reference<?> ref, Object newValue) { return with.apply((TestRoot)source, (V)newValue); }
+			@Override public Object withoutIfExists(Object source, Reference<?> ref) { return without.apply((TestRoot)source); }
 		};
 	}
 
@@ -7,13 +7,16 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import tools.jackson.core.JsonGenerator;
 import tools.jackson.core.JsonParser;
 import tools.jackson.core.JsonToken;
@@ -329,8 +332,9 @@ public final class JacksonSerializer extends StateTreeSerializer {
 			return new BoskDeserializer<>() {
 				@Override
 				public Catalog<Entity> deserialize(JsonParser p, DeserializationContext ctxt) {
-					LinkedHashMap<Identifier, Entity> entries = readMapEntries(p, entryType, ctxt);
-					return Catalog.of(entries.values());
+					Catalog.Builder<Entity> builder = Catalog.builder();
+					readMapEntries(p, entryType, ctxt, builder::containsID, (Identifier _, Entity entity) -> builder.add(entity));
+					return builder.build();
 				}
 			};
 		}
@@ -359,7 +363,9 @@ public final class JacksonSerializer extends StateTreeSerializer {
 								if (ids != null) {
 									throw new StreamReadException(p, "'entriesById': ids already appeared");
 								}
-								ids = List.copyOf(readMapEntries(p, typeFactory.constructType(Boolean.class), ctxt).keySet());
+								LinkedHashSet<Identifier> entryIDs = new LinkedHashSet<>();
+								readMapEntries(p, typeFactory.constructType(Boolean.class), ctxt, entryIDs::contains, (id, _) -> entryIDs.add(id));
+								ids = List.copyOf(entryIDs);
 								break;
 							case "domain":
 								if (domain != null) {
@@ -435,7 +441,9 @@ public final class JacksonSerializer extends StateTreeSerializer {
 						switch (p.currentName()) {
 							case "valuesById":
 								if (valuesById == null) {
-									valuesById = readMapEntries(p, valueType, ctxt);
+									LinkedHashMap<Identifier, Object> entries = new LinkedHashMap<>();
+									readMapEntries(p, valueType, ctxt, entries::containsKey, entries::put);
+									valuesById = entries;
 								} else {
 									throw new StreamReadException(p, "'valuesById' field appears twice");
 								}
@@ -531,20 +539,20 @@ public final class JacksonSerializer extends StateTreeSerializer {
 			return new BoskDeserializer<>() {
 				@Override
 				public MapValue<Object> deserialize(JsonParser p, DeserializationContext ctxt) {
-					LinkedHashMap<String, Object> result1 = new LinkedHashMap<>();
+					MapValue.Builder<Object> result1 = MapValue.builder();
 					expect(START_OBJECT, p);
 					while (p.nextToken() != END_OBJECT) {
 						p.nextValue();
 						String key = p.currentName();
-						Object value = ctxt.findContextualValueDeserializer(valueType, null)
-							.deserialize(p, ctxt);
-						Object old = result1.put(key, value);
-						if (old != null) {
+						if (result1.containsKey(key)) {
 							throw new StreamReadException(p, "MapValue key appears twice: \"" + key + "\"");
 						}
+						Object value = ctxt.findContextualValueDeserializer(valueType, null)
+							.deserialize(p, ctxt);
+						result1.put(key, value);
 					}
 					expect(END_OBJECT, p);
-					return MapValue.copyOf(result1);
+					return result1.build();
 				}
 			};
 		}
@@ -582,18 +590,24 @@ public final class JacksonSerializer extends StateTreeSerializer {
 	}
 
 	/**
+	 * Passes each entry to {@code action} in order, so the caller can accumulate them
+	 * directly into whatever it's building, with no intermediate map.
 	 * Leaves the parser sitting on the END_ARRAY token. You could call nextToken() to continue with parsing.
+	 *
+	 * @param alreadyContains tells whether an entry with the given ID has already been passed to {@code action}
 	 */
-	private <V> LinkedHashMap<Identifier, V> readMapEntries(JsonParser p, JavaType valueType, DeserializationContext ctxt) {
+	private <V> void readMapEntries(JsonParser p, JavaType valueType, DeserializationContext ctxt, Predicate<Identifier> alreadyContains, BiConsumer<Identifier, V> action) {
 		@SuppressWarnings("unchecked")
 		ValueDeserializer<V> valueDeserializer = (ValueDeserializer<V>) ctxt.findContextualValueDeserializer(valueType, null);
-		LinkedHashMap<Identifier, V> result = new LinkedHashMap<>();
 		expect(START_ARRAY, p);
 		while (p.nextToken() != END_ARRAY) {
 			expect(START_OBJECT, p);
 			p.nextValue();
 			String fieldName = p.currentName();
 			Identifier entryID = Identifier.from(fieldName);
+			if (alreadyContains.test(entryID)) {
+				throw new StreamReadException(p, "Duplicate sideTable entry '" + fieldName + "'");
+			}
 			V value;
 			try (@SuppressWarnings("unused") DeserializationScope scope = entryDeserializationScope(entryID)) {
 				value = valueDeserializer.deserialize(p, ctxt);
@@ -601,12 +615,8 @@ public final class JacksonSerializer extends StateTreeSerializer {
 			p.nextToken();
 			expect(END_OBJECT, p);
 
-			V oldValue = result.put(entryID, value);
-			if (oldValue != null) {
-				throw new StreamReadException(p, "Duplicate sideTable entry '" + fieldName + "'");
-			}
+			action.accept(entryID, value);
 		}
-		return result;
 	}
 
 	private static final JavaType ID_LIST_TYPE = typeFactory.constructType(new TypeReference<
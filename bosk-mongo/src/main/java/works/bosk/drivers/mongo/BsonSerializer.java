@@ -288,22 +288,21 @@ public final class BsonSerializer extends StateTreeSerializer {
 				Reference<Catalog<E>> domain = referenceCodec.decode(reader, decoderContext);
 
 				reader.readName("ids");
-				List<Identifier> ids = new ArrayList<>();
+				Listing.Builder<E> ids = Listing.builder(domain);
 				reader.readStartDocument();
 				while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
-					String id = undottedFieldNameSegment(reader.readName());
+					Identifier id = Identifier.from(undottedFieldNameSegment(reader.readName()));
 					reader.readBoolean();
-					ids.add(Identifier.from(id));
+					if (ids.containsID(id)) {
+						throw new BsonFormatException("Duplicate ids");
+					}
+					ids.add(id);
 				}
 				reader.readEndDocument();
 
 				reader.readEndDocument();
 
-				Listing<E> result =  Listing.of(domain, ids);
-				if (result.size() > ids.size()) {
-					throw new BsonFormatException("Duplicate ids");
-				}
-				return result;
+				return ids.build();
 			}
 		};
 	}
@@ -332,18 +331,17 @@ public final class BsonSerializer extends StateTreeSerializer {
 
 			@Override
 			public MapValue<V> decode(BsonReader reader, DecoderContext decoderContext) {
-				Map<String, V> entries = new LinkedHashMap<>();
+				MapValue.Builder<V> entries = MapValue.builder();
 				reader.readStartDocument();
 				while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
 					String key = reader.readName();
-					V value = valueCodec.decode(reader, decoderContext);
-					Object old = entries.put(key, value);
-					if (old != null) {
+					if (entries.containsKey(key)) {
 						throw new BsonFormatException("Duplicate keys in MapValue: \"" + key + "\"");
 					}
+					entries.put(key, valueCodec.decode(reader, decoderContext));
 				}
 				reader.readEndDocument();
-				return MapValue.copyOf(entries);
+				return entries.build();
 			}
 
 		};
@@ -536,10 +534,13 @@ public final class BsonSerializer extends StateTreeSerializer {
 			public Catalog<E> decode(BsonReader reader, DecoderContext decoderContext) {
 				reader.readStartDocument();
 
-				List<E> entries = new ArrayList<>();
+				Catalog.Builder<E> entries = Catalog.builder();
 				while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
 					String fieldName = undottedFieldNameSegment(reader.readName());
 					Identifier entryId = Identifier.from(fieldName);
+					if (entries.containsID(entryId)) {
+						throw new BsonFormatException("Duplicate entry IDs in catalog");
+					}
 					E entry;
 					try (@SuppressWarnings("unused") DeserializationScope s = entryDeserializationScope(entryId)) {
 						entry = entryCodec.decode(reader, decoderContext);
@@ -553,11 +554,7 @@ public final class BsonSerializer extends StateTreeSerializer {
 
 				reader.readEndDocument();
 
-				Catalog<E> result =  Catalog.of(entries);
-				if (result.size() > entries.size()) {
-					throw new BsonFormatException("Duplicate entry IDs in catalog");
-				}
-				return result;
+				return entries.build();
 			}
 
 			private MethodHandle catalogWriterHandle(Class<? extends Entity> entryClass, CodecRegistry codecRegistry) {
@@ -599,25 +596,25 @@ public final class BsonSerializer extends StateTreeSerializer {
 				Reference<Catalog<K>> domain = referenceCodec.decode(reader, decoderContext);
 
 				reader.readName("valuesById");
-				LinkedHashMap<Identifier, V> valuesById = new LinkedHashMap<>();
+				SideTable.Builder<K, V> valuesById = SideTable.builder(domain);
 				reader.readStartDocument();
 				while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
 					String fieldName = undottedFieldNameSegment(reader.readName());
 					Identifier id = Identifier.from(fieldName);
+					if (valuesById.hasID(id)) {
+						throw new BsonFormatException("Duplicate IDs in sideTable: " + id);
+					}
 					V value;
 					try (@SuppressWarnings("unused") DeserializationScope s = entryDeserializationScope(id)) {
 						value = valueCodec.decode(reader, decoderContext);
 					}
-					Object old = valuesById.put(id, value);
-					if (old != null) {
-						throw new BsonFormatException("Duplicate IDs in sideTable: " + id);
-					}
+					valuesById.put(id, value);
 				}
 				reader.readEndDocument();
 
 				reader.readEndDocument();
 
-				return SideTable.copyOf(domain, valuesById);
+				return valuesById.build();
 			}
 
 			private MethodHandle sideTableWriterHandle(Type valueType, CodecRegistry codecRegistry) {
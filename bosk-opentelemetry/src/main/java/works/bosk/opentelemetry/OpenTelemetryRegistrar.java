@@ -2,6 +2,7 @@ package works.bosk.opentelemetry;
 
 import works.bosk.BoskContext;
 import works.bosk.BoskHook;
+import works.bosk.HookOptions;
 import works.bosk.HookRegistrar;
 import works.bosk.Reference;
 import works.bosk.RegistrarFactory;
@@ -35,10 +36,19 @@ public final class OpenTelemetryRegistrar implements HookRegistrar {
 
 	@Override
 	public <T> void registerHook(String name, Reference<T> scope, BoskHook<T> hook) {
-		downstream.registerHook(name, scope, ref -> {
+		downstream.registerHook(name, scope, withOtelContext(hook));
+	}
+
+	@Override
+	public <T> void registerHook(String name, Reference<T> scope, BoskHook<T> hook, HookOptions options) {
+		downstream.registerHook(name, scope, withOtelContext(hook), options);
+	}
+
+	private <T> BoskHook<T> withOtelContext(BoskHook<T> hook) {
+		return ref -> {
 			try (var _ = Utils.otelContextFromDiagnosticAttributes(context).makeCurrent()) {
 				hook.onChanged(ref);
 			}
-		});
+		};
 	}
 }
@@ -1,8 +1,11 @@
 package works.bosk.drivers.sql;
 
 import java.io.IOException;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import works.bosk.BoskDriver.Update.ConditionalDeletion;
+import works.bosk.BoskDriver.Update.Deletion;
 import works.bosk.Identifier;
 import works.bosk.Reference;
 import works.bosk.StateTreeNode;
@@ -71,6 +74,19 @@ class SqlDriverFacade implements SqlDriver {
 		impl.submitConditionalDeletion(target, precondition, requiredValue);
 	}
 
+	@Override
+	public void submitBatch(List<? extends Update> updates) {
+		LOGGER.debug("submitBatch({} updates)", updates.size());
+		List<Update> batch = List.copyOf(updates);
+		for (Update update : batch) {
+			switch (update) {
+				case Deletion<?> _, ConditionalDeletion<?> _ -> { }
+				default -> jacksonSerializer.initializeAllEnclosingPolyfills(update.target(), impl);
+			}
+		}
+		impl.submitBatch(batch);
+	}
+
 	@Override
 	public void flush() throws IOException, InterruptedException {
 		LOGGER.debug("flush");
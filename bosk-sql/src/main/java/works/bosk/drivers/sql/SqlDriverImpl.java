@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.Executors;
@@ -25,6 +26,11 @@ import works.bosk.BoskContext;
 import works.bosk.BoskContext.Tenant;
 import works.bosk.BoskContext.Tenant.TenantId;
 import works.bosk.BoskDriver;
+import works.bosk.BoskDriver.Update.ConditionalCreation;
+import works.bosk.BoskDriver.Update.ConditionalDeletion;
+import works.bosk.BoskDriver.Update.ConditionalReplacement;
+import works.bosk.BoskDriver.Update.Deletion;
+import works.bosk.BoskDriver.Update.Replacement;
 import works.bosk.BoskInfo;
 import works.bosk.Identifier;
 import works.bosk.MapValue;
@@ -410,6 +416,58 @@ class SqlDriverImpl implements SqlDriver {
 		}
 	}
 
+	/**
+	 * Applies the whole batch to a single copy of the state,
+	 * then saves that state and commits once,
+	 * so the batch's changes are recorded in a single transaction.
+	 * Other replicas still receive the changes one at a time from the changes table.
+	 */
+	@Override
+	public void submitBatch(List<? extends Update> updates) {
+		LOGGER.debug("submitBatch({} updates)", updates.size());
+		try (
+			var connection = connectionSource.get()
+		) {
+			JsonNode state = readState(connection);
+			boolean anyChanges = false;
+			for (Update update : updates) {
+				JsonNode newState = apply(state, update, connection);
+				if (newState != null) {
+					state = newState;
+					anyChanges = true;
+				}
+			}
+			if (anyChanges) {
+				saveState(state, connection);
+				connection.commit();
+			}
+		} catch (SQLException e) {
+			throw new NotYetImplementedException(e);
+		}
+	}
+
+	/**
+	 * @param state may be mutated!
+	 * @return the resulting state, or null if the update had no effect
+	 */
+	private @Nullable JsonNode apply(JsonNode state, Update update, Connection connection) {
+		@SuppressWarnings("unchecked")
+		Reference<Object> target = (Reference<Object>) update.target();
+		return switch (update) {
+			case Replacement<?> u -> replace(state, target, u.newValue(), connection);
+			case ConditionalReplacement<?> u -> isMatchingTextNode(u.precondition(), u.requiredValue(), state)
+				? replace(state, target, u.newValue(), connection)
+				: null;
+			case ConditionalCreation<?> u -> surgeon.node(surgeon.nodeInfo(state, target).valueLocation(), state) == null
+				? replace(state, target, u.newValue(), connection)
+				: null;
+			case Deletion<?> _ -> replace(state, target, null, connection);
+			case ConditionalDeletion<?> u -> isMatchingTextNode(u.precondition(), u.requiredValue(), state)
+				? replace(state, target, null, connection)
+				: null;
+		};
+	}
+
 	private boolean isMatchingTextNode(Reference<Identifier> precondition, Identifier requiredValue, JsonNode state) {
 		return surgeon.valueNode(state, precondition) instanceof StringNode text
 			&& Objects.equals(text.asString(), requiredValue.toString());
@@ -455,24 +513,37 @@ class SqlDriverImpl implements SqlDriver {
 	 * @param newValue if null, this is a delete
 	 */
 	private <T> void replaceAndCommit(JsonNode state, Reference<T> target, T newValue, Connection connection) throws SQLException {
+		JsonNode newState = replace(state, target, newValue, connection);
+		if (newState != null) {
+			saveState(newState, connection);
+			connection.commit();
+		}
+	}
+
+	/**
+	 * Records the change in the changes table and computes its effect on {@code state},
+	 * but does not save the resulting state or commit.
+	 *
+	 * @param state    may be mutated!
+	 * @param newValue if null, this is a delete
+	 * @return the resulting state, or null if the change had no effect
+	 */
+	private <T> @Nullable JsonNode replace(JsonNode state, Reference<T> target, T newValue, Connection connection) {
 		NodeInfo node = surgeon.nodeInfo(state, target);
 		switch (node.replacementLocation()) {
 			case Root _ -> {
 				if (newValue == null) {
 					throw new NotYetImplementedException("Cannot delete root");
 				}
-				String json = mapper.writeValueAsString(newValue);
-				long revision = insertChange(connection, target, json);
-				using(connection)
-					.update(BOSK)
-					.set(STATE, json)
-					.execute();
-				connection.commit();
+				JsonNode newState = mapper.valueToTree(newValue);
+				long revision = insertChange(connection, target, mapper.writeValueAsString(newState));
 				LOGGER.debug("{}: replaced root", revision);
+				return newState;
 			}
 			case NonexistentParent _ -> {
 				// Modifying a node with a nonexistent parent is a no-op
 				LOGGER.debug("--: nonexistent parent for {}", target);
+				return null;
 			}
 			default -> {
 				JsonNode newNode;
@@ -483,24 +554,32 @@ class SqlDriverImpl implements SqlDriver {
 					newNode = mapper.valueToTree(newValue);
 					surgeon.replaceNode(node, surgeon.replacementNode(node, target.path().lastSegment(), ()->newNode));
 				}
-				String nodeJson, stateJson;
+				String nodeJson;
 				try {
 					nodeJson = mapper.writeValueAsString(newNode);
-					stateJson = mapper.writeValueAsString(state);
 				} catch (JacksonException e) {
 					throw new NotYetImplementedException(e);
 				}
 				insertChange(connection, target, nodeJson);
-				using(connection)
-					.update(BOSK)
-					.set(STATE, stateJson)
-					.execute();
-				connection.commit();
 				LOGGER.debug("--: replaced {}", target);
+				return state;
 			}
 		}
 	}
 
+	private void saveState(JsonNode state, Connection connection) {
+		String stateJson;
+		try {
+			stateJson = mapper.writeValueAsString(state);
+		} catch (JacksonException e) {
+			throw new NotYetImplementedException(e);
+		}
+		using(connection)
+			.update(BOSK)
+			.set(STATE, stateJson)
+			.execute();
+	}
+
 	private long insertChange(Connection c, Reference<?> ref, String newValue) {
 		try {
 			return using(c)
@@ -18,6 +18,11 @@ import org.slf4j.LoggerFactory;
 import works.bosk.BoskConfig;
 import works.bosk.BoskContext;
 import works.bosk.BoskDriver;
+import works.bosk.BoskDriver.Update.ConditionalCreation;
+import works.bosk.BoskDriver.Update.ConditionalDeletion;
+import works.bosk.BoskDriver.Update.ConditionalReplacement;
+import works.bosk.BoskDriver.Update.Deletion;
+import works.bosk.BoskDriver.Update.Replacement;
 import works.bosk.Catalog;
 import works.bosk.CatalogReference;
 import works.bosk.DriverFactory;
@@ -335,6 +340,27 @@ public abstract class DriverConformanceTest extends AbstractDriverTest {
 
 	}
 
+	@InjectedTest
+	void submitBatch(@EnclosingCatalog Path enclosingCatalogPath) throws InvalidTypeException {
+		CatalogReference<TestEntity> ref = initializeBoskWithCatalog(enclosingCatalogPath);
+		Reference<Identifier> child1IDRef = ref.then(child1ID).then(Identifier.class, TestEntity.Fields.id);
+		Reference<Identifier> child2IDRef = ref.then(child2ID).then(Identifier.class, TestEntity.Fields.id);
+
+		LOGGER.debug("Each update sees the effects of the ones before it");
+		driver.submitBatch(List.of(
+			new Replacement<>(ref.then(child1ID), newEntity(child1ID, ref).withString("batch 1")),
+			new ConditionalDeletion<>(ref.then(child2ID), child1IDRef, child1ID),
+			new ConditionalCreation<>(ref.then(child2ID), newEntity(child2ID, ref).withString("batch 2")),
+			new ConditionalReplacement<>(ref.then(child1ID), newEntity(child1ID, ref).withString("ignored"), child2IDRef, child1ID),
+			new Deletion<>(ref.then(Identifier.from("nonexistent")))
+		));
+		assertCorrectBoskContents();
+
+		LOGGER.debug("Empty batch");
+		driver.submitBatch(List.of());
+		assertCorrectBoskContents();
+	}
+
 	@InjectedTest
 	void replaceFieldOfNonexistentEntry(@EnclosingCatalog Path enclosingCatalogPath) throws InvalidTypeException {
 		CatalogReference<TestEntity> ref = initializeBoskWithCatalog(enclosingCatalogPath);